@@ -0,0 +1,55 @@
+package com.airtribe.meditrack.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Runs the selected benchmarks (all by
+ * default; standard JMH arguments such as a name regex, {@code -p size=1000}
+ * or {@code -f 2} still apply) with the GC profiler for allocation rates,
+ * and writes the results as JSON to
+ * {@code results/meditrack-<version>-<timestamp>.json} unless {@code -rff}
+ * is given. Compare two result files to spot regressions between versions.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (commandLine.getResult().hasValue()) {
+            builder.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+        } else {
+            String version = System.getProperty("meditrack.version", "1.0.0-SNAPSHOT");
+            Path resultFile = Path.of("results", "meditrack-" + version + "-"
+                    + LocalDateTime.now().format(STAMP) + ".json");
+            Files.createDirectories(resultFile.getParent());
+            builder.resultFormat(ResultFormatType.JSON).result(resultFile.toString());
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
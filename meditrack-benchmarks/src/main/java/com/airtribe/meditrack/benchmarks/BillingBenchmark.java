@@ -0,0 +1,69 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.entity.BillFactory;
+import com.airtribe.meditrack.entity.BillingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-bill {@link BillingStrategy#calculateTotal(double)} against the
+ * array form used by batch billing runs, over the same base amounts.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BillingBenchmark {
+
+    @Param({"standard", "discount"})
+    public String strategy;
+
+    @Param({"4096"})
+    public int batch;
+
+    private BillingStrategy billingStrategy;
+    private double[] baseAmounts;
+    private double[] totals;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        billingStrategy = "standard".equals(strategy)
+                ? BillFactory.standardStrategy()
+                : BillFactory.discountStrategy(0.1);
+        baseAmounts = new double[batch];
+        totals = new double[batch];
+        for (int i = 0; i < batch; i++) {
+            baseAmounts[i] = 300 + (i % 20) * 50;
+        }
+    }
+
+    @Benchmark
+    public double calculateTotal() {
+        int i = cursor++;
+        if (cursor == batch) {
+            cursor = 0;
+        }
+        return billingStrategy.calculateTotal(baseAmounts[i]);
+    }
+
+    // One call prices the whole batch; divide by batch for the per-bill cost.
+    @Benchmark
+    public double[] calculateTotals() {
+        billingStrategy.calculateTotals(baseAmounts, totals, 0, batch);
+        return totals;
+    }
+}
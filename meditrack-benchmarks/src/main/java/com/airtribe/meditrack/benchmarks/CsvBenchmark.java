@@ -0,0 +1,73 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.util.CSVUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full CSV export and import of a dataset, in a temporary directory (never
+ * the working directory's {@code data/}). Each load starts from empty
+ * stores, so it measures the import pipeline plus index maintenance.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Dataset dataset;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Dataset.of(size, true);
+        directory = Files.createTempDirectory("meditrack-bench");
+        save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        CSVUtil.savePatients(dataset.patientService, directory.resolve("patients.csv"));
+        CSVUtil.saveDoctors(dataset.doctorService, directory.resolve("doctors.csv"));
+        CSVUtil.saveAppointments(dataset.appointmentService, directory.resolve("appointments.csv"));
+    }
+
+    @Benchmark
+    public Dataset load() {
+        Dataset target = Dataset.empty(true);
+        CSVUtil.loadInitialData(directory, target.doctorService, target.patientService, target.appointmentService);
+        return target;
+    }
+}
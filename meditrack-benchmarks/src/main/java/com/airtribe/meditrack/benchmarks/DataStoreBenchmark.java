@@ -0,0 +1,87 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary-key operations on the patient store, for both the text-keyed
+ * {@link DataStore} and the packed-ID variant. {@code save} overwrites
+ * existing IDs so the store size (and every secondary index) stays at
+ * {@code size} for the whole run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataStoreBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"packed", "text"})
+    public String store;
+
+    private DataStore<Patient> patients;
+    private String[] ids;
+    private Patient[] entities;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dataset dataset = Dataset.of(size, "packed".equals(store));
+        patients = dataset.patientStore;
+        entities = dataset.patients;
+        ids = new String[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            ids[i] = entities[i].getId();
+        }
+    }
+
+    private int next() {
+        int i = cursor++;
+        if (cursor == ids.length) {
+            cursor = 0;
+        }
+        return i;
+    }
+
+    @Benchmark
+    public void save() {
+        int i = next();
+        patients.save(ids[i], entities[i]);
+    }
+
+    @Benchmark
+    public Optional<Patient> findById() {
+        return patients.findById(ids[next()]);
+    }
+
+    @Benchmark
+    public List<Patient> findAll() {
+        return patients.findAll();
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        patients.forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,90 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic clinic: {@code patients} patients, one doctor per
+ * 100 patients (at least one per specialization) and two appointments per
+ * patient. The same size always produces the same data, so runs of
+ * different versions are comparable. Size 0 gives empty, wired services.
+ */
+final class Dataset {
+
+    static final String[] FIRST_NAMES = {
+            "Aarav", "Aditi", "Anika", "Arjun", "Diya", "Ishaan", "Kabir", "Meera", "Neha", "Priya",
+            "Rahul", "Riya", "Rohan", "Sara", "Vikram", "John", "Maria", "David", "Sofia", "James"};
+    static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Iyer", "Reddy", "Nair", "Gupta", "Patel", "Khan", "Das", "Mehta",
+            "Smith", "Jones", "Brown", "Garcia", "Miller", "Wilson", "Lopez", "Clark", "Lewis", "Walker"};
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+    final DataStore<Patient> patientStore;
+    final DataStore<Doctor> doctorStore;
+    final DataStore<Appointment> appointmentStore;
+    final PatientService patientService;
+    final DoctorService doctorService;
+    final AppointmentService appointmentService;
+    final Patient[] patients;
+    final Doctor[] doctors;
+
+    private Dataset(boolean packed, int patientCount) {
+        patientStore = packed ? new PackedIdDataStore<>() : new DataStore<>();
+        doctorStore = packed ? new PackedIdDataStore<>() : new DataStore<>();
+        appointmentStore = packed ? new PackedIdDataStore<>() : new DataStore<>();
+        patientService = new PatientService(patientStore);
+        doctorService = new DoctorService(doctorStore);
+        appointmentService = new AppointmentService(appointmentStore, doctorService, patientService);
+
+        SplittableRandom random = new SplittableRandom(patientCount);
+        IdGenerator ids = IdGenerator.getInstance();
+        doctors = new Doctor[patientCount == 0 ? 0 : Math.max(SPECIALIZATIONS.length, patientCount / 100)];
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = doctorService.createDoctorWithId(ids.nextDoctorId(), "Dr " + name(random),
+                    30 + random.nextInt(35), phone(random), SPECIALIZATIONS[i % SPECIALIZATIONS.length],
+                    300 + random.nextInt(20) * 50);
+        }
+        patients = new Patient[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            patients[i] = patientService.createPatientWithId(ids.nextPatientId(), name(random),
+                    1 + random.nextInt(90), phone(random));
+        }
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        for (int i = 0; i < patientCount * 2; i++) {
+            // Distinct 15-minute slots per doctor, so no two appointments collide.
+            Doctor doctor = doctors[i % doctors.length];
+            LocalDateTime when = FIRST_SLOT.plusMinutes(15L * (i / doctors.length));
+            appointmentService.createAppointmentWithId(ids.nextAppointmentId(), patients[i / 2], doctor, when,
+                    statuses[random.nextInt(statuses.length)]);
+        }
+    }
+
+    static Dataset empty(boolean packed) {
+        return new Dataset(packed, 0);
+    }
+
+    static Dataset of(int patients, boolean packed) {
+        return new Dataset(packed, patients);
+    }
+
+    static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    static String phone(SplittableRandom random) {
+        return "9" + (100_000_000L + random.nextLong(900_000_000L));
+    }
+}
@@ -0,0 +1,327 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.DateUtil;
+import com.airtribe.meditrack.util.EntityId;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Writes seeded, reproducible {@code patients.csv}, {@code doctors.csv} and
+ * {@code appointments.csv} in the formats {@code CSVUtil} reads. Rows are
+ * streamed straight to disk, so scale is bounded by disk space rather than
+ * heap; only a per-doctor slot bitmap is kept to avoid double bookings.
+ *
+ * <p>The data is skewed the way clinic traffic is: most doctors are
+ * general physicians, a few popular doctors take a large share of the
+ * bookings (Zipf-like), Mondays and mid-morning slots are busiest, and
+ * past appointments are mostly completed while future ones are pending or
+ * confirmed. "Today" is the real date unless {@code --today} pins it, and
+ * by default the range runs from half of {@code --days} before today to
+ * half after it; pin both {@code --today} and {@code --start} for output
+ * that is identical on every run.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.airtribe.meditrack.benchmarks.DatasetGenerator \
+ *     --patients 10000000 --appointments 30000000 --out data-10m
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    // Relative share of doctors per specialization, in Specialization order.
+    private static final double[] SPECIALIZATION_WEIGHTS = {0.40, 0.12, 0.12, 0.16, 0.12, 0.08};
+    // Monday..Sunday; clinics are closed on Sunday.
+    private static final double[] WEEKDAY_WEIGHTS = {0.22, 0.18, 0.17, 0.17, 0.16, 0.10, 0.0};
+    // Per hour of the working day, starting at Constants.WORKDAY_START_HOUR.
+    private static final double[] HOUR_WEIGHTS = {0.10, 0.18, 0.20, 0.14, 0.06, 0.10, 0.12, 0.10};
+    // Bookings per doctor fall off as rank^-ZIPF_EXPONENT.
+    private static final double ZIPF_EXPONENT = 0.8;
+
+    private static final int SLOTS_PER_HOUR = 60 / Constants.SLOT_MINUTES;
+    private static final int SLOTS_PER_DAY = HOUR_WEIGHTS.length * SLOTS_PER_HOUR;
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+
+    private final long seed;
+    private final int patients;
+    private final int doctors;
+    private final long appointments;
+    private final LocalDate firstDay;
+    private final int days;
+    private final LocalDate today;
+
+    public DatasetGenerator(long seed, int patients, int doctors, long appointments, LocalDate firstDay, int days,
+                            LocalDate today) {
+        if (appointments > (long) doctors * days * SLOTS_PER_DAY / 2) {
+            throw new IllegalArgumentException("Too many appointments for " + doctors + " doctors over "
+                    + days + " days; add doctors or days");
+        }
+        this.seed = seed;
+        this.patients = patients;
+        this.doctors = doctors;
+        this.appointments = appointments;
+        this.firstDay = firstDay;
+        this.days = days;
+        // Appointments before today are in the past: completed or cancelled.
+        this.today = today;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seed = 42;
+        int patients = 100_000;
+        int doctors = -1;
+        long appointments = -1;
+        LocalDate firstDay = null;
+        LocalDate today = LocalDate.now();
+        int days = 365;
+        Path out = Path.of(Constants.DATA_DIR);
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--patients" -> patients = Integer.parseInt(value);
+                case "--doctors" -> doctors = Integer.parseInt(value);
+                case "--appointments" -> appointments = Long.parseLong(value);
+                case "--start" -> firstDay = LocalDate.parse(value);
+                case "--days" -> days = Integer.parseInt(value);
+                case "--today" -> today = LocalDate.parse(value);
+                case "--out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+        if (firstDay == null) {
+            firstDay = today.minusDays(days / 2);
+        }
+        if (doctors < 0) {
+            doctors = Math.max(SPECIALIZATIONS.length * 4, patients / 500);
+        }
+        if (appointments < 0) {
+            appointments = patients * 3L;
+        }
+        long start = System.nanoTime();
+        new DatasetGenerator(seed, patients, doctors, appointments, firstDay, days, today).writeTo(out);
+        System.out.println("Wrote " + patients + " patients, " + doctors + " doctors and " + appointments
+                + " appointments to " + out + " in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writePatients(directory.resolve("patients.csv"));
+        writeDoctors(directory.resolve("doctors.csv"));
+        writeAppointments(directory.resolve("appointments.csv"));
+    }
+
+    private void writePatients(Path file) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= patients; i++) {
+                writer.write(id(EntityId.Kind.PATIENT, i));
+                writer.write(',');
+                writer.write(Dataset.name(random));
+                writer.write(',');
+                writer.write(Integer.toString(patientAge(random)));
+                writer.write(',');
+                writer.write(Dataset.phone(random));
+                writer.newLine();
+            }
+        }
+    }
+
+    private void writeDoctors(Path file) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= doctors; i++) {
+                writer.write(id(EntityId.Kind.DOCTOR, i));
+                writer.write(",Dr ");
+                writer.write(Dataset.name(random));
+                writer.write(',');
+                writer.write(Integer.toString(30 + random.nextInt(35)));
+                writer.write(',');
+                writer.write(Dataset.phone(random));
+                writer.write(',');
+                writer.write(specializationOf(i).name());
+                writer.write(',');
+                writer.write(Double.toString(300 + random.nextInt(20) * 50));
+                writer.newLine();
+            }
+        }
+    }
+
+    private void writeAppointments(Path file) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        double[] doctorPopularity = new double[doctors];
+        for (int i = 0; i < doctors; i++) {
+            doctorPopularity[i] = Math.pow(i + 1, -ZIPF_EXPONENT);
+        }
+        // Shuffle popularity so popular doctors are spread across specializations.
+        for (int i = doctors - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = doctorPopularity[i];
+            doctorPopularity[i] = doctorPopularity[j];
+            doctorPopularity[j] = swap;
+        }
+        AliasTable doctorTable = new AliasTable(doctorPopularity);
+        AliasTable weekdayTable = new AliasTable(WEEKDAY_WEIGHTS);
+        AliasTable hourTable = new AliasTable(HOUR_WEIGHTS);
+        // Every day of the range, including a trailing partial week, falls in one of these weeks.
+        int weeks = (days + 6) / 7;
+        BitSet[] booked = new BitSet[doctors];
+        int[] bookings = new int[doctors];
+        // Popular doctors overflow to others once half of their calendar is taken.
+        int capacity = days * SLOTS_PER_DAY / 2;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (long n = 1; n <= appointments; n++) {
+                int doctor = doctorTable.sample(random);
+                while (bookings[doctor] >= capacity) {
+                    doctor = random.nextInt(doctors);
+                }
+                bookings[doctor]++;
+                if (booked[doctor] == null) {
+                    booked[doctor] = new BitSet();
+                }
+                int slot = freeSlot(booked[doctor], random, weeks, weekdayTable, hourTable);
+                booked[doctor].set(slot);
+                LocalDateTime when = slotTime(slot);
+                writer.write(id(EntityId.Kind.APPOINTMENT, n));
+                writer.write(',');
+                writer.write(id(EntityId.Kind.PATIENT, 1 + random.nextInt(patients)));
+                writer.write(',');
+                writer.write(id(EntityId.Kind.DOCTOR, doctor + 1));
+                writer.write(',');
+                writer.write(DateUtil.format(when));
+                writer.write(',');
+                writer.write(status(when, random).name());
+                writer.newLine();
+            }
+        }
+    }
+
+    // Samples a skewed slot; a taken slot falls through to the next free one (wrapping the range).
+    private int freeSlot(BitSet booked, SplittableRandom random, int weeks,
+                         AliasTable weekdayTable, AliasTable hourTable) {
+        int totalSlots = days * SLOTS_PER_DAY;
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int day = random.nextInt(weeks) * 7 + weekdayOffset(weekdayTable.sample(random));
+            if (day >= days) {
+                continue;
+            }
+            int slot = day * SLOTS_PER_DAY + hourTable.sample(random) * SLOTS_PER_HOUR
+                    + random.nextInt(SLOTS_PER_HOUR);
+            if (!booked.get(slot)) {
+                return slot;
+            }
+        }
+        int slot = booked.nextClearBit(random.nextInt(totalSlots));
+        return slot < totalSlots ? slot : booked.nextClearBit(0);
+    }
+
+    // Days from firstDay to the next given weekday (0 = Monday).
+    private int weekdayOffset(int weekday) {
+        int first = firstDay.getDayOfWeek().getValue() - 1;
+        return Math.floorMod(weekday - first, 7);
+    }
+
+    private LocalDateTime slotTime(int slot) {
+        int day = slot / SLOTS_PER_DAY;
+        int minuteOfDay = Constants.WORKDAY_START_HOUR * 60 + (slot % SLOTS_PER_DAY) * Constants.SLOT_MINUTES;
+        return firstDay.plusDays(day).atStartOfDay().plusMinutes(minuteOfDay);
+    }
+
+    private AppointmentStatus status(LocalDateTime when, SplittableRandom random) {
+        double roll = random.nextDouble();
+        if (when.toLocalDate().isBefore(today)) {
+            return roll < 0.85 ? AppointmentStatus.COMPLETED : AppointmentStatus.CANCELLED;
+        }
+        if (roll < 0.05) {
+            return AppointmentStatus.CANCELLED;
+        }
+        return roll < 0.40 ? AppointmentStatus.PENDING : AppointmentStatus.CONFIRMED;
+    }
+
+    // Deterministic, exact split of doctors across specializations by weight.
+    private Specialization specializationOf(int doctorNumber) {
+        double position = ((doctorNumber - 1) % 100) / 100.0;
+        double cumulative = 0;
+        for (int i = 0; i < SPECIALIZATIONS.length; i++) {
+            cumulative += SPECIALIZATION_WEIGHTS[i];
+            if (position < cumulative) {
+                return SPECIALIZATIONS[i];
+            }
+        }
+        return SPECIALIZATIONS[SPECIALIZATIONS.length - 1];
+    }
+
+    // Mostly adults, with a child bump for pediatrics.
+    private static int patientAge(SplittableRandom random) {
+        if (random.nextInt(5) == 0) {
+            return 1 + random.nextInt(14);
+        }
+        return Math.min(95, 18 + (int) Math.abs(random.nextGaussian() * 22));
+    }
+
+    private static String id(EntityId.Kind kind, long sequence) {
+        return kind.getPrefix() + Long.toString(sequence);
+    }
+
+    /** Walker's alias method: O(1) sampling from a fixed discrete distribution. */
+    static final class AliasTable {
+
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(double[] weights) {
+            int n = weights.length;
+            probability = new double[n];
+            alias = new int[n];
+            double sum = 0;
+            for (double weight : weights) {
+                sum += weight;
+            }
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / sum;
+                if (scaled[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            while (largeCount > 0) {
+                probability[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                probability[small[--smallCount]] = 1;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+    }
+}
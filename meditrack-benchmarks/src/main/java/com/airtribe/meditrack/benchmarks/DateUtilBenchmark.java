@@ -0,0 +1,50 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateUtilBenchmark {
+
+    private static final int VALUES = 1024;
+
+    private final LocalDateTime[] dateTimes = new LocalDateTime[VALUES];
+    private final String[] texts = new String[VALUES];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < VALUES; i++) {
+            dateTimes[i] = start.plusMinutes(37L * i);
+            texts[i] = DateUtil.format(dateTimes[i]);
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime parse() {
+        return DateUtil.parse(texts[cursor++ & (VALUES - 1)]);
+    }
+
+    @Benchmark
+    public String format() {
+        return DateUtil.format(dateTimes[cursor++ & (VALUES - 1)]);
+    }
+}
@@ -0,0 +1,322 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.AppointmentAlreadyBilledException;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.exception.InvalidStatusTransitionException;
+import com.airtribe.meditrack.util.CSVUtil;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives concurrent traffic through the services. Loads a dataset from CSV
+ * (see {@link DatasetGenerator}), then runs N threads issuing a weighted mix
+ * of bookings, searches, cancellations and bill generation for a fixed
+ * time, and reports throughput and p50/p99/p99.9 latency per operation.
+ * Latencies recorded during the warm-up period are discarded.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.airtribe.meditrack.benchmarks.LoadDriver \
+ *     --data data-1m --threads 16 --duration 60 --mix 40,40,10,10
+ * </pre>
+ */
+public final class LoadDriver {
+
+    enum Operation { CREATE, SEARCH, CANCEL, BILL }
+
+    enum Outcome { OK, CONFLICT, NOT_FOUND, ERROR }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final int SLOTS_PER_DAY = (Constants.WORKDAY_END_HOUR - Constants.WORKDAY_START_HOUR)
+            * 60 / Constants.SLOT_MINUTES;
+    private static final int SEARCH_KINDS = 4;
+
+    private final Dataset dataset;
+    private final Patient[] patients;
+    private final Doctor[] doctors;
+    private final String[] appointmentIds;
+    private final int[] mix;
+    private final int mixTotal;
+    private final LocalDate firstBookingDay = LocalDate.now().plusDays(1);
+
+    LoadDriver(Dataset dataset, int[] mix) {
+        this.dataset = dataset;
+        this.patients = dataset.patientService.getAllPatients().toArray(new Patient[0]);
+        this.doctors = dataset.doctorService.getAllDoctors().toArray(new Doctor[0]);
+        this.appointmentIds = dataset.appointmentService.getAllAppointments().stream()
+                .map(Appointment::getId).toArray(String[]::new);
+        if (patients.length == 0 || doctors.length == 0) {
+            throw new IllegalStateException("Dataset has no patients or doctors; generate one first");
+        }
+        this.mix = mix;
+        int total = 0;
+        for (int weight : mix) {
+            total += weight;
+        }
+        this.mixTotal = total;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Path data = Path.of(Constants.DATA_DIR);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int durationSeconds = 30;
+        int warmupSeconds = 5;
+        long seed = 42;
+        int[] mix = {40, 40, 10, 10};
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--data" -> data = Path.of(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--duration" -> durationSeconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--mix" -> mix = parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+        Dataset dataset = Dataset.empty(true);
+        CSVUtil.loadInitialData(data, dataset.doctorService, dataset.patientService, dataset.appointmentService);
+        LoadDriver driver = new LoadDriver(dataset, mix);
+        System.out.println("Running " + threads + " threads for " + durationSeconds + " s (+" + warmupSeconds
+                + " s warm-up), mix create/search/cancel/bill = " + mix[0] + "/" + mix[1] + "/" + mix[2]
+                + "/" + mix[3]);
+        driver.run(threads, TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(durationSeconds),
+                seed).print(durationSeconds);
+    }
+
+    private static int[] parseMix(String text) {
+        String[] parts = text.split(",");
+        if (parts.length != OPERATIONS.length) {
+            throw new IllegalArgumentException("--mix needs " + OPERATIONS.length
+                    + " weights: create,search,cancel,bill");
+        }
+        int[] mix = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            mix[i] = Integer.parseInt(parts[i].trim());
+        }
+        return mix;
+    }
+
+    Report run(int threads, long warmupNanos, long durationNanos, long seed) throws InterruptedException {
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Worker> workers = new ArrayList<>(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+        List<Thread> running = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(root.split(), start, measureFrom, stopAt);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-driver-" + i);
+            running.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        Report report = new Report();
+        for (Worker worker : workers) {
+            report.add(worker);
+        }
+        return report;
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(mixTotal);
+        for (int i = 0; i < mix.length; i++) {
+            roll -= mix[i];
+            if (roll < 0) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[OPERATIONS.length - 1];
+    }
+
+    private final class Worker implements Runnable {
+
+        private final SplittableRandom random;
+        private final CountDownLatch start;
+        private final long measureFrom;
+        private final long stopAt;
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final long[][] outcomes = new long[OPERATIONS.length][Outcome.values().length];
+        // Bookings made by this thread; cancel takes the oldest, bill the newest.
+        private final ArrayDeque<String> booked = new ArrayDeque<>();
+        private int searchKind;
+
+        Worker(SplittableRandom random, CountDownLatch start, long measureFrom, long stopAt) {
+            this.random = random;
+            this.start = start;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            for (Operation operation : OPERATIONS) {
+                latencies.put(operation, new Histogram(TimeUnit.SECONDS.toNanos(60), 3));
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < stopAt) {
+                Operation operation = pick(random);
+                Outcome outcome;
+                try {
+                    outcome = execute(operation);
+                } catch (RuntimeException e) {
+                    outcome = Outcome.ERROR;
+                }
+                long end = System.nanoTime();
+                if (now >= measureFrom) {
+                    Histogram histogram = latencies.get(operation);
+                    histogram.recordValue(Math.min(end - now, histogram.getHighestTrackableValue()));
+                    outcomes[operation.ordinal()][outcome.ordinal()]++;
+                }
+            }
+        }
+
+        private Outcome execute(Operation operation) {
+            switch (operation) {
+                case CREATE -> {
+                    Patient patient = patients[random.nextInt(patients.length)];
+                    Doctor doctor = doctors[random.nextInt(doctors.length)];
+                    try {
+                        Appointment appointment = dataset.appointmentService.createAppointment(patient, doctor,
+                                randomSlot());
+                        booked.addLast(appointment.getId());
+                        return Outcome.OK;
+                    } catch (AppointmentConflictException e) {
+                        return Outcome.CONFLICT;
+                    }
+                }
+                case SEARCH -> {
+                    search();
+                    return Outcome.OK;
+                }
+                case CANCEL -> {
+                    String id = booked.isEmpty() ? randomAppointmentId() : booked.pollFirst();
+                    if (id == null) {
+                        return Outcome.NOT_FOUND;
+                    }
+                    try {
+                        dataset.appointmentService.cancelAppointment(id);
+                        return Outcome.OK;
+                    } catch (AppointmentNotFoundException e) {
+                        return Outcome.NOT_FOUND;
+                    } catch (InvalidStatusTransitionException e) {
+                        return Outcome.CONFLICT;
+                    }
+                }
+                case BILL -> {
+                    String id = booked.isEmpty() ? randomAppointmentId() : booked.pollLast();
+                    if (id == null) {
+                        return Outcome.NOT_FOUND;
+                    }
+                    try {
+                        dataset.appointmentService.completeAppointment(id);
+                        dataset.appointmentService.generateBill(id);
+                        return Outcome.OK;
+                    } catch (AppointmentNotFoundException e) {
+                        return Outcome.NOT_FOUND;
+                    } catch (InvalidStatusTransitionException | AppointmentAlreadyBilledException e) {
+                        return Outcome.CONFLICT;
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown operation: " + operation);
+            }
+        }
+
+        // Cycles through the searches a front desk runs most.
+        private void search() {
+            Patient patient = patients[random.nextInt(patients.length)];
+            switch (searchKind++ % SEARCH_KINDS) {
+                case 0 -> dataset.patientService.searchPatientByName(patient.getName());
+                case 1 -> dataset.patientService.searchPatientByPhone(patient.getPhone());
+                case 2 -> dataset.doctorService.filterBySpecialization(
+                        SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)]);
+                default -> dataset.appointmentService.findEarliestSlots(
+                        SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)], LocalDateTime.now(), 5);
+            }
+        }
+
+        private LocalDateTime randomSlot() {
+            LocalDate day = firstBookingDay.plusDays(random.nextInt(Constants.AVAILABILITY_HORIZON_DAYS));
+            int minutes = Constants.WORKDAY_START_HOUR * 60 + random.nextInt(SLOTS_PER_DAY) * Constants.SLOT_MINUTES;
+            return day.atStartOfDay().plusMinutes(minutes);
+        }
+
+        private String randomAppointmentId() {
+            return appointmentIds.length == 0 ? null : appointmentIds[random.nextInt(appointmentIds.length)];
+        }
+    }
+
+    static final class Report {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final long[][] outcomes = new long[OPERATIONS.length][Outcome.values().length];
+
+        void add(Worker worker) {
+            for (Operation operation : OPERATIONS) {
+                latencies.computeIfAbsent(operation, o -> new Histogram(TimeUnit.SECONDS.toNanos(60), 3))
+                        .add(worker.latencies.get(operation));
+                for (Outcome outcome : Outcome.values()) {
+                    int o = operation.ordinal();
+                    outcomes[o][outcome.ordinal()] += worker.outcomes[o][outcome.ordinal()];
+                }
+            }
+        }
+
+        void print(int durationSeconds) {
+            System.out.printf("%-8s %10s %10s %10s %10s %10s %10s  %s%n",
+                    "op", "count", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us", "outcomes");
+            long total = 0;
+            for (Operation operation : OPERATIONS) {
+                Histogram histogram = latencies.get(operation);
+                long count = histogram.getTotalCount();
+                total += count;
+                StringBuilder detail = new StringBuilder();
+                for (Outcome outcome : Outcome.values()) {
+                    long n = outcomes[operation.ordinal()][outcome.ordinal()];
+                    if (n > 0) {
+                        detail.append(outcome).append('=').append(n).append(' ');
+                    }
+                }
+                System.out.printf("%-8s %10d %10.0f %10.1f %10.1f %10.1f %10.1f  %s%n",
+                        operation, count, (double) count / durationSeconds,
+                        micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(99)),
+                        micros(histogram.getValueAtPercentile(99.9)), micros(histogram.getMaxValue()),
+                        detail.toString().trim());
+            }
+            System.out.printf("%-8s %10d %10.0f%n", "total", total, (double) total / durationSeconds);
+        }
+
+        private static double micros(long nanos) {
+            return nanos / 1_000.0;
+        }
+    }
+}
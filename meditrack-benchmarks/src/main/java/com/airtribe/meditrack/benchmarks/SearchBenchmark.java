@@ -0,0 +1,110 @@
+package com.airtribe.meditrack.benchmarks;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level lookups: patient searches by name, phone, age and name
+ * prefix, doctor searches by specialization, and the per-doctor
+ * appointment counts behind the dashboard. Query keys cycle through values
+ * that exist in the dataset.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private PatientService patientService;
+    private DoctorService doctorService;
+    private AppointmentService appointmentService;
+    private Patient[] patients;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dataset dataset = Dataset.of(size, true);
+        patientService = dataset.patientService;
+        doctorService = dataset.doctorService;
+        appointmentService = dataset.appointmentService;
+        patients = dataset.patients;
+    }
+
+    private Patient nextPatient() {
+        int i = cursor++;
+        if (cursor == patients.length) {
+            cursor = 0;
+        }
+        return patients[i];
+    }
+
+    @Benchmark
+    public List<Patient> patientByName() {
+        return patientService.searchPatientByName(nextPatient().getName());
+    }
+
+    @Benchmark
+    public List<Patient> patientByPhone() {
+        return patientService.searchPatientByPhone(nextPatient().getPhone());
+    }
+
+    @Benchmark
+    public List<Patient> patientByAge() {
+        return patientService.searchPatient(nextPatient().getAge());
+    }
+
+    @Benchmark
+    public List<Patient> patientByAgeRange() {
+        int age = nextPatient().getAge();
+        return patientService.searchPatientByAgeRange(age, age + 5);
+    }
+
+    @Benchmark
+    public List<Patient> patientNamePrefix() {
+        String name = nextPatient().getName();
+        return patientService.completePatientName(name.substring(0, name.indexOf(' ') + 2), 10);
+    }
+
+    @Benchmark
+    public List<Doctor> doctorBySpecialization() {
+        return doctorService.filterBySpecialization(SPECIALIZATIONS[cursor++ % SPECIALIZATIONS.length]);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics doctorFeeStatistics() {
+        return doctorService.feeStatistics();
+    }
+
+    @Benchmark
+    public Map<Doctor, Long> appointmentsPerDoctor() {
+        return appointmentService.getAppointmentsPerDoctor();
+    }
+}
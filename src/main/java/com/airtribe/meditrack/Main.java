@@ -1,44 +1,203 @@
 package com.airtribe.meditrack;
 
+import com.airtribe.meditrack.batch.BatchCommandParser;
+import com.airtribe.meditrack.batch.BatchRunner;
+import com.airtribe.meditrack.cdc.AuditLogSubscriber;
+import com.airtribe.meditrack.cdc.BackpressurePolicy;
+import com.airtribe.meditrack.cdc.ChangeStream;
 import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.BatchSummary;
 import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.LedgerEntry;
 import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.persistence.AppointmentArchive;
+import com.airtribe.meditrack.persistence.BinarySnapshot;
+import com.airtribe.meditrack.persistence.JournalManager;
+import com.airtribe.meditrack.persistence.MedicalHistoryStore;
+import com.airtribe.meditrack.server.ApiServer;
 import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.AppointmentTiering;
+import com.airtribe.meditrack.service.BillLedger;
 import com.airtribe.meditrack.service.DoctorService;
 import com.airtribe.meditrack.service.PatientService;
 import com.airtribe.meditrack.util.AIHelper;
 import com.airtribe.meditrack.util.CSVUtil;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.PackedIdDataStore;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 public class Main {
 
     public static void main(String[] args) {
         boolean loadData = false;
+        boolean journal = false;
+        boolean loadSnapshot = false;
+        boolean saveSnapshot = false;
+        boolean csvToSnapshot = false;
+        boolean snapshotToCsv = false;
+        boolean server = false;
+        int port = Constants.SERVER_PORT;
+        Path batchFile = null;
+        Path batchOutput = null;
+        Path auditFile = null;
+        BackpressurePolicy auditPolicy = BackpressurePolicy.BLOCK;
+        boolean archive = false;
+        int archiveAfterDays = Constants.ARCHIVE_AFTER_DAYS;
         for (String arg : args) {
             if ("--loadData".equalsIgnoreCase(arg)) {
                 loadData = true;
-                break;
+            } else if ("--journal".equalsIgnoreCase(arg)) {
+                journal = true;
+            } else if ("--loadSnapshot".equalsIgnoreCase(arg)) {
+                loadSnapshot = true;
+            } else if ("--snapshot".equalsIgnoreCase(arg)) {
+                saveSnapshot = true;
+            } else if ("--csvToSnapshot".equalsIgnoreCase(arg)) {
+                csvToSnapshot = true;
+            } else if ("--snapshotToCsv".equalsIgnoreCase(arg)) {
+                snapshotToCsv = true;
+            } else if ("--server".equalsIgnoreCase(arg)) {
+                server = true;
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--batch=")) {
+                batchFile = Path.of(arg.substring("--batch=".length()));
+            } else if (arg.startsWith("--batchOut=")) {
+                batchOutput = Path.of(arg.substring("--batchOut=".length()));
+            } else if (arg.startsWith("--audit=")) {
+                auditFile = Path.of(arg.substring("--audit=".length()));
+            } else if (arg.startsWith("--auditPolicy=")) {
+                auditPolicy = BackpressurePolicy.valueOf(
+                        arg.substring("--auditPolicy=".length()).toUpperCase(Locale.ROOT));
+            } else if ("--archive".equalsIgnoreCase(arg)) {
+                archive = true;
+            } else if (arg.startsWith("--archiveAfterDays=")) {
+                archive = true;
+                archiveAfterDays = Integer.parseInt(arg.substring("--archiveAfterDays=".length()));
             }
         }
 
-        DataStore<Doctor> doctorStore = new DataStore<>();
-        DataStore<Patient> patientStore = new DataStore<>();
-        DataStore<Appointment> appointmentStore = new DataStore<>();
+        // Operation metrics are always recorded; JMX makes them visible to jconsole/VisualVM.
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.registerMBeans();
+
+        // Primitive-keyed stores: IDs are packed longs internally, text only at the edges.
+        DataStore<Doctor> doctorStore = new PackedIdDataStore<>("doctors");
+        DataStore<Patient> patientStore = new PackedIdDataStore<>("patients");
+        DataStore<Appointment> appointmentStore = new PackedIdDataStore<>("appointments");
+        DataStore<LedgerEntry> ledgerStore = new PackedIdDataStore<>("bills");
 
         DoctorService doctorService = new DoctorService(doctorStore);
         PatientService patientService = new PatientService(patientStore);
-        AppointmentService appointmentService = new AppointmentService(appointmentStore, doctorService, patientService);
+        BillLedger billLedger = new BillLedger(ledgerStore);
+        AppointmentService appointmentService = new AppointmentService(appointmentStore, doctorService,
+                patientService, billLedger);
+
+        // One-shot conversions between the CSV files and the binary snapshot. Nothing is
+        // overwritten unless the source loaded completely.
+        Path snapshotPath = Path.of(Constants.SNAPSHOT_FILE);
+        if (csvToSnapshot) {
+            for (String csv : List.of(Constants.PATIENT_CSV, Constants.DOCTOR_CSV, Constants.APPOINTMENT_CSV)) {
+                if (!Files.exists(Path.of(csv))) {
+                    System.err.println("Missing " + csv + "; snapshot not written.");
+                    System.exit(1);
+                }
+            }
+            if (!CSVUtil.loadInitialData(doctorService, patientService, appointmentService)) {
+                System.err.println("CSV import failed; snapshot not written.");
+                System.exit(1);
+            }
+            writeSnapshot(snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore);
+            return;
+        }
+        if (snapshotToCsv) {
+            if (!Files.exists(snapshotPath)) {
+                System.err.println("Missing " + snapshotPath + "; CSV files not written.");
+                System.exit(1);
+            }
+            if (!readSnapshot(snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore)) {
+                System.err.println("CSV files not written.");
+                System.exit(1);
+            }
+            CSVUtil.savePatients(patientService);
+            CSVUtil.saveDoctors(doctorService);
+            CSVUtil.saveAppointments(appointmentService);
+            CSVUtil.saveBills(billLedger);
+            System.out.println("Snapshot exported to CSV files in " + Constants.DATA_DIR);
+            return;
+        }
+
+        if (loadSnapshot) {
+            readSnapshot(snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore);
+        }
+
+        // Journaled persistence: replay the write-ahead log, then log every change.
+        JournalManager journalManager = null;
+        if (journal) {
+            journalManager = new JournalManager(patientStore, doctorStore, appointmentStore, ledgerStore);
+            try {
+                journalManager.start();
+            } catch (IOException e) {
+                System.err.println("Failed to start journal: " + e.getMessage());
+                journalManager = null;
+            }
+        }
 
         if (loadData) {
             CSVUtil.loadInitialData(doctorService, patientService, appointmentService);
         }
 
-        Scanner scanner = new Scanner(System.in);
+        // Medical history lives in per-patient files, paged in on demand.
+        MedicalHistoryStore historyStore = new MedicalHistoryStore(Path.of(Constants.HISTORY_DIR));
+        try {
+            historyStore.attachAll(patientStore);
+            patientStore.addListener(historyStore);
+        } catch (IOException e) {
+            System.err.println("Failed to open medical history: " + e.getMessage());
+        }
+
+        // Change stream: subscribers follow store changes on their own threads.
+        ChangeStream changeStream = null;
+        if (auditFile != null) {
+            changeStream = startAudit(auditFile, auditPolicy, patientService, doctorService, appointmentService);
+        }
+
+        // Tiered storage: old finished appointments move from the heap to day segments on disk.
+        AppointmentTiering tiering = null;
+        if (archive) {
+            tiering = startArchive(archiveAfterDays, patientStore, doctorStore, appointmentService);
+        }
+
+        // Batch mode: replay a command file, then save and exit as the console would.
+        if (batchFile != null) {
+            Path output = batchOutput != null ? batchOutput : Path.of(batchFile + ".out");
+            runBatch(batchFile, output, doctorService, patientService, appointmentService);
+            shutdown(saveSnapshot, snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore,
+                    journalManager, historyStore, tiering, changeStream);
+            return;
+        }
+
         AIHelper aiHelper = new AIHelper();
 
+        // Headless mode: serve the same services over HTTP until the process is stopped.
+        if (server) {
+            runServer(port, doctorService, patientService, appointmentService, aiHelper, saveSnapshot,
+                    snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore, journalManager,
+                    historyStore, tiering, changeStream);
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+
         boolean running = true;
         while (running) {
             printMenu();
@@ -49,20 +208,171 @@ public class Main {
                 case "2" -> doctorService.handleDoctorMenu(scanner);            // Doctors: CRUD + search/analytics
                 case "3" -> appointmentService.handleAppointmentMenu(scanner);  // Appointments: create/view/cancel + billing
                 case "4" -> aiHelper.handleAiMenu(scanner, doctorService, appointmentService, patientService);
+                case "5" -> handleMetricsMenu(scanner, metrics);
                 case "0" -> running = false;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
         }
 
+        shutdown(saveSnapshot, snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore,
+                journalManager, historyStore, tiering, changeStream);
         System.out.println("Exiting MediTrack. Goodbye!");
     }
 
+    private static void runBatch(Path commandFile, Path output, DoctorService doctorService,
+                                 PatientService patientService, AppointmentService appointmentService) {
+        BatchRunner runner = new BatchRunner(new BatchCommandParser(doctorService, patientService,
+                appointmentService));
+        try {
+            BatchSummary summary = runner.run(commandFile, output);
+            System.out.println("Batch: " + summary.getCommands() + " commands (" + summary.getFailed()
+                    + " failed) in " + summary.getElapsedNanos() / 1_000_000 + " ms, "
+                    + Math.round(summary.getCommandsPerSecond()) + " commands/s. Results in " + output);
+        } catch (IOException e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+        }
+    }
+
+    private static ChangeStream startAudit(Path auditFile, BackpressurePolicy policy,
+                                           PatientService patientService, DoctorService doctorService,
+                                           AppointmentService appointmentService) {
+        ChangeStream stream = new ChangeStream(policy);
+        try {
+            stream.subscribe("audit", new AuditLogSubscriber(auditFile));
+        } catch (IOException e) {
+            System.err.println("Failed to open audit log: " + e.getMessage());
+            return null;
+        }
+        patientService.publishChanges(stream);
+        doctorService.publishChanges(stream);
+        appointmentService.publishChanges(stream);
+        System.out.println("Auditing changes to " + auditFile + " (" + policy + ").");
+        return stream;
+    }
+
+    private static AppointmentTiering startArchive(int afterDays, DataStore<Patient> patientStore,
+                                                   DataStore<Doctor> doctorStore,
+                                                   AppointmentService appointmentService) {
+        AppointmentArchive archive = new AppointmentArchive(patientStore, doctorStore);
+        try {
+            long archived = archive.open();
+            System.out.println("Archive: " + archived + " appointments in " + archive.getSegmentCount()
+                    + " day segments.");
+        } catch (IOException e) {
+            System.err.println("Failed to open appointment archive: " + e.getMessage());
+            return null;
+        }
+        appointmentService.attachArchive(archive);
+        AppointmentTiering tiering = new AppointmentTiering(appointmentService, afterDays);
+        tiering.start();
+        return tiering;
+    }
+
+    private static void runServer(int port, DoctorService doctorService, PatientService patientService,
+                                  AppointmentService appointmentService, AIHelper aiHelper,
+                                  boolean saveSnapshot, Path snapshotPath, DataStore<Doctor> doctorStore,
+                                  DataStore<Patient> patientStore, DataStore<Appointment> appointmentStore,
+                                  DataStore<LedgerEntry> ledgerStore, JournalManager journalManager,
+                                  MedicalHistoryStore historyStore, AppointmentTiering tiering,
+                                  ChangeStream changeStream) {
+        ApiServer apiServer;
+        try {
+            apiServer = new ApiServer(new InetSocketAddress(port), doctorService, patientService,
+                    appointmentService, aiHelper);
+        } catch (IOException e) {
+            System.err.println("Failed to start server on port " + port + ": " + e.getMessage());
+            shutdown(false, snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore,
+                    journalManager, historyStore, tiering, changeStream);
+            return;
+        }
+        // Ctrl+C / SIGTERM: drain in-flight requests, then persist as on a console exit.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.close();
+            shutdown(saveSnapshot, snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore,
+                    journalManager, historyStore, tiering, changeStream);
+            System.out.println("MediTrack server stopped.");
+        }, "meditrack-shutdown"));
+        apiServer.start();
+        System.out.println("MediTrack API listening on port " + apiServer.getPort()
+                + (ApiServer.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)") + ".");
+    }
+
+    private static void shutdown(boolean saveSnapshot, Path snapshotPath, DataStore<Doctor> doctorStore,
+                                 DataStore<Patient> patientStore, DataStore<Appointment> appointmentStore,
+                                 DataStore<LedgerEntry> ledgerStore, JournalManager journalManager,
+                                 MedicalHistoryStore historyStore, AppointmentTiering tiering,
+                                 ChangeStream changeStream) {
+        if (tiering != null) {
+            tiering.close();
+        }
+        if (changeStream != null) {
+            // Drains subscribers first, so the audit log holds every change made this session.
+            changeStream.close();
+            System.out.println("Change stream: " + changeStream.getPublished() + " changes published, "
+                    + changeStream.getDropped() + " dropped, " + changeStream.getCoalesced() + " coalesced.");
+        }
+        if (saveSnapshot) {
+            writeSnapshot(snapshotPath, doctorStore, patientStore, appointmentStore, ledgerStore);
+        }
+        try {
+            // Waits for queued history appends.
+            historyStore.close();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+        if (journalManager != null) {
+            try {
+                journalManager.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Returns false (after reporting why) if the snapshot could not be read.
+    private static boolean readSnapshot(Path path, DataStore<Doctor> doctors,
+                                        DataStore<Patient> patients, DataStore<Appointment> appointments,
+                                        DataStore<LedgerEntry> ledger) {
+        long start = System.nanoTime();
+        try {
+            int loaded = BinarySnapshot.read(path, doctors, patients, appointments, ledger);
+            System.out.println("Loaded " + loaded + " records from snapshot in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeSnapshot(Path path, DataStore<Doctor> doctors,
+                                      DataStore<Patient> patients, DataStore<Appointment> appointments,
+                                      DataStore<LedgerEntry> ledger) {
+        try {
+            BinarySnapshot.write(path, doctors, patients, appointments, ledger);
+            System.out.println("Snapshot written to " + path);
+        } catch (IOException e) {
+            System.err.println("Failed to write snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void handleMetricsMenu(Scanner scanner, MetricsRegistry metrics) {
+        System.out.println("\n=== Operation Metrics (slowest p99 first) ===");
+        System.out.print(metrics.report());
+        System.out.print("Reset all metrics? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            metrics.resetAll();
+            System.out.println("Metrics reset.");
+        }
+    }
+
     private static void printMenu() {
         System.out.println("\n=== MediTrack Clinic Management ===");
         System.out.println("1. Manage Patients");
         System.out.println("2. Manage Doctors");
         System.out.println("3. Manage Appointments & Billing");
         System.out.println("4. AI Helper (Recommendations & Analytics)");
+        System.out.println("5. Operation metrics");
         System.out.println("0. Exit");
         System.out.print("Enter your choice: ");
     }
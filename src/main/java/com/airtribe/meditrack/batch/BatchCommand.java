@@ -0,0 +1,38 @@
+package com.airtribe.meditrack.batch;
+
+/**
+ * One parsed line of a batch command file. Parsing already turned the
+ * arguments into typed values captured by {@link #execute()}; only
+ * lookups and the service call itself are left for the executing thread.
+ * A line that failed to parse becomes a command whose execution throws
+ * the parse error, so it is reported in order with everything else.
+ */
+public final class BatchCommand {
+
+    interface Action {
+        String run();
+    }
+
+    private final int lineNumber;
+    private final String verb;
+    private final Action action;
+
+    BatchCommand(int lineNumber, String verb, Action action) {
+        this.lineNumber = lineNumber;
+        this.verb = verb;
+        this.action = action;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getVerb() {
+        return verb;
+    }
+
+    // Runs the operation; returns a short result for the output file (e.g. the new ID).
+    public String execute() {
+        return action.run();
+    }
+}
@@ -0,0 +1,269 @@
+package com.airtribe.meditrack.batch;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillingRunResult;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DateUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns batch file lines into {@link BatchCommand}s. Tokens are separated
+ * by whitespace; a token with spaces is written in double quotes
+ * ({@code \"} inside quotes is a literal quote). Blank lines and lines
+ * starting with {@code #} are skipped.
+ *
+ * <pre>
+ * patient "&lt;name&gt;" &lt;age&gt; &lt;phone&gt;
+ * doctor "&lt;name&gt;" &lt;age&gt; &lt;phone&gt; &lt;SPECIALIZATION&gt; &lt;fee&gt;
+ * book &lt;patientId&gt; &lt;doctorId&gt; &lt;yyyy-MM-dd&gt; &lt;HH:mm&gt;
+ * confirm &lt;appointmentId&gt;
+ * cancel &lt;appointmentId&gt;
+ * complete &lt;appointmentId&gt;
+ * bill &lt;appointmentId&gt;
+ * billrun &lt;from yyyy-MM-dd&gt; &lt;to yyyy-MM-dd&gt;
+ * history &lt;patientId&gt; "&lt;entry&gt;"
+ * delete-patient &lt;patientId&gt;
+ * delete-doctor &lt;doctorId&gt;
+ * </pre>
+ *
+ * Only parsing happens here; IDs are resolved when the command executes,
+ * so a line may refer to a patient created by an earlier line.
+ */
+public class BatchCommandParser {
+
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+
+    public BatchCommandParser(DoctorService doctorService,
+                              PatientService patientService,
+                              AppointmentService appointmentService) {
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+    }
+
+    // Returns null for blank and comment lines.
+    public BatchCommand parse(int lineNumber, String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        List<String> tokens;
+        String verb;
+        try {
+            tokens = tokenize(trimmed);
+            verb = tokens.get(0).toLowerCase(Locale.ROOT);
+        } catch (InvalidDataException e) {
+            return failed(lineNumber, "?", e);
+        }
+        try {
+            return new BatchCommand(lineNumber, verb, action(verb, tokens));
+        } catch (RuntimeException e) {
+            return failed(lineNumber, verb, e);
+        }
+    }
+
+    private BatchCommand.Action action(String verb, List<String> t) {
+        switch (verb) {
+            case "patient" -> {
+                arity(t, 4, "patient \"<name>\" <age> <phone>");
+                String name = t.get(1);
+                int age = integer(t.get(2), "age");
+                String phone = t.get(3);
+                return () -> patientService.createPatient(name, age, phone).getId();
+            }
+            case "doctor" -> {
+                arity(t, 6, "doctor \"<name>\" <age> <phone> <SPECIALIZATION> <fee>");
+                String name = t.get(1);
+                int age = integer(t.get(2), "age");
+                String phone = t.get(3);
+                Specialization specialization = specialization(t.get(4));
+                double fee = decimal(t.get(5), "fee");
+                return () -> doctorService.createDoctor(name, age, phone, specialization, fee).getId();
+            }
+            case "book" -> {
+                arity(t, 5, "book <patientId> <doctorId> <yyyy-MM-dd> <HH:mm>");
+                String patientId = t.get(1);
+                String doctorId = t.get(2);
+                LocalDateTime dateTime = dateTime(t.get(3) + " " + t.get(4));
+                return () -> {
+                    Patient patient = patientService.getPatientById(patientId)
+                            .orElseThrow(() -> new InvalidDataException("Patient not found: " + patientId));
+                    Doctor doctor = doctorService.getDoctorById(doctorId)
+                            .orElseThrow(() -> new InvalidDataException("Doctor not found: " + doctorId));
+                    Appointment appointment = appointmentService.createAppointment(patient, doctor, dateTime);
+                    return appointment.getId();
+                };
+            }
+            case "confirm" -> {
+                arity(t, 2, "confirm <appointmentId>");
+                String id = t.get(1);
+                return () -> {
+                    appointmentService.confirmAppointment(id);
+                    return id;
+                };
+            }
+            case "cancel" -> {
+                arity(t, 2, "cancel <appointmentId>");
+                String id = t.get(1);
+                return () -> {
+                    appointmentService.cancelAppointment(id);
+                    return id;
+                };
+            }
+            case "complete" -> {
+                arity(t, 2, "complete <appointmentId>");
+                String id = t.get(1);
+                return () -> {
+                    appointmentService.completeAppointment(id);
+                    return id;
+                };
+            }
+            case "bill" -> {
+                arity(t, 2, "bill <appointmentId>");
+                String id = t.get(1);
+                return () -> {
+                    Bill bill = appointmentService.generateBill(id);
+                    return bill.getId() + " " + bill.calculateTotalAmount();
+                };
+            }
+            case "billrun" -> {
+                arity(t, 3, "billrun <from> <to>");
+                LocalDate from = date(t.get(1));
+                LocalDate to = date(t.get(2));
+                return () -> {
+                    BillingRunResult result = appointmentService.billCompletedAppointments(from, to);
+                    return result.getBills().size() + " bills " + result.getGrandTotal();
+                };
+            }
+            case "history" -> {
+                arity(t, 3, "history <patientId> \"<entry>\"");
+                String patientId = t.get(1);
+                String entry = t.get(2);
+                return () -> patientService.addMedicalHistoryEntry(patientId, entry).getId();
+            }
+            case "delete-patient" -> {
+                arity(t, 2, "delete-patient <patientId>");
+                String id = t.get(1);
+                return () -> deleted(patientService.deletePatient(id), "Patient", id);
+            }
+            case "delete-doctor" -> {
+                arity(t, 2, "delete-doctor <doctorId>");
+                String id = t.get(1);
+                return () -> deleted(doctorService.deleteDoctor(id), "Doctor", id);
+            }
+            default -> throw new InvalidDataException("Unknown command: " + verb);
+        }
+    }
+
+    private static BatchCommand failed(int lineNumber, String verb, RuntimeException error) {
+        return new BatchCommand(lineNumber, verb, () -> {
+            throw error;
+        });
+    }
+
+    private static String deleted(boolean deleted, String kind, String id) {
+        if (!deleted) {
+            throw new InvalidDataException(kind + " not found: " + id);
+        }
+        return id;
+    }
+
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int i = 0;
+        int length = line.length();
+        while (i < length) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            token.setLength(0);
+            if (c == '"') {
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new InvalidDataException("Unterminated quoted argument");
+                    }
+                    c = line.charAt(i++);
+                    if (c == '"') {
+                        break;
+                    }
+                    if (c == '\\' && i < length && line.charAt(i) == '"') {
+                        c = '"';
+                        i++;
+                    }
+                    token.append(c);
+                }
+            } else {
+                while (i < length && !Character.isWhitespace(line.charAt(i))) {
+                    token.append(line.charAt(i++));
+                }
+            }
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static void arity(List<String> tokens, int expected, String usage) {
+        if (tokens.size() != expected) {
+            throw new InvalidDataException("Expected: " + usage);
+        }
+    }
+
+    private static int integer(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException(field + " must be an integer: " + value);
+        }
+    }
+
+    private static double decimal(String value, String field) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException(field + " must be a number: " + value);
+        }
+    }
+
+    private static Specialization specialization(String value) {
+        try {
+            return Specialization.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Unknown specialization: " + value);
+        }
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        try {
+            return DateUtil.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Invalid date/time (yyyy-MM-dd HH:mm): " + value);
+        }
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidDataException("Invalid date (yyyy-MM-dd): " + value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.airtribe.meditrack.batch;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.BatchSummary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-interactive replay of a command file (see {@link BatchCommandParser}
+ * for the format). Two-stage pipeline: a parser thread reads and parses
+ * lines while the calling thread executes the parsed commands strictly in
+ * file order, so a booking always sees the patients created above it.
+ * Commands cross between the stages in blocks of
+ * {@link Constants#BATCH_BLOCK_SIZE} through a bounded queue, which keeps
+ * the hand-off cost per command low and stops the parser from running
+ * arbitrarily far ahead.
+ *
+ * <p>Every command gets one line in the output file,
+ * {@code <line> <verb> OK <result>} or {@code <line> <verb> ERROR <message>};
+ * a failing command does not stop the run.
+ */
+public class BatchRunner {
+
+    // Identity sentinel: no more blocks.
+    private static final List<BatchCommand> END = new ArrayList<>();
+
+    private final BatchCommandParser parser;
+
+    public BatchRunner(BatchCommandParser parser) {
+        this.parser = parser;
+    }
+
+    public BatchSummary run(Path commandFile, Path outputFile) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<List<BatchCommand>> queue = new ArrayBlockingQueue<>(Constants.BATCH_QUEUE_BLOCKS);
+        AtomicReference<IOException> readFailure = new AtomicReference<>();
+        Thread parserThread = new Thread(() -> parseInto(commandFile, queue, readFailure), "batch-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        long commands = 0;
+        long failed = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(outputFile)) {
+            List<BatchCommand> block;
+            while ((block = take(queue)) != END) {
+                for (BatchCommand command : block) {
+                    commands++;
+                    out.write(Integer.toString(command.getLineNumber()));
+                    out.write(' ');
+                    out.write(command.getVerb());
+                    try {
+                        String result = command.execute();
+                        out.write(" OK ");
+                        out.write(result);
+                    } catch (RuntimeException e) {
+                        failed++;
+                        out.write(" ERROR ");
+                        out.write(String.valueOf(e.getMessage()));
+                    }
+                    out.newLine();
+                }
+            }
+        } finally {
+            // Unblocks the parser if execution stopped early (e.g. the output disk is full).
+            parserThread.interrupt();
+        }
+        if (readFailure.get() != null) {
+            throw readFailure.get();
+        }
+        return new BatchSummary(commands, failed, System.nanoTime() - start);
+    }
+
+    private void parseInto(Path commandFile, BlockingQueue<List<BatchCommand>> queue,
+                           AtomicReference<IOException> readFailure) {
+        try (BufferedReader reader = Files.newBufferedReader(commandFile)) {
+            List<BatchCommand> block = new ArrayList<>(Constants.BATCH_BLOCK_SIZE);
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BatchCommand command = parser.parse(++lineNumber, line);
+                if (command == null) {
+                    continue;
+                }
+                block.add(command);
+                if (block.size() == Constants.BATCH_BLOCK_SIZE) {
+                    queue.put(block);
+                    block = new ArrayList<>(Constants.BATCH_BLOCK_SIZE);
+                }
+            }
+            if (!block.isEmpty()) {
+                queue.put(block);
+            }
+        } catch (IOException e) {
+            readFailure.set(e);
+        } catch (InterruptedException e) {
+            // The executing side has given up; nothing left to hand over.
+            return;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<BatchCommand> take(BlockingQueue<List<BatchCommand>> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch commands", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.airtribe.meditrack.cdc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Appends every change to a text file, one line per change:
+ * {@code <timestamp> <sequence> <source> <kind> <id> [<detail>]}. Lines are
+ * buffered and flushed once per batch, so a burst of bookings costs one
+ * write call rather than one per booking.
+ */
+public class AuditLogSubscriber implements ChangeSubscriber {
+
+    private final Path file;
+    private final BufferedWriter out;
+
+    public AuditLogSubscriber(Path file) throws IOException {
+        this.file = file;
+        this.out = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void onChange(ChangeEvent event, boolean endOfBatch) {
+        try {
+            out.write(Instant.ofEpochMilli(event.getTimestamp()).toString());
+            out.write(' ');
+            out.write(Long.toString(event.getSequence()));
+            out.write(' ');
+            out.write(event.getSource());
+            out.write(' ');
+            out.write(event.getKind().name());
+            out.write(' ');
+            out.write(event.getId());
+            if (event.getDetail() != null) {
+                out.write(' ');
+                out.write(event.getDetail());
+            }
+            out.newLine();
+            if (endOfBatch) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write audit log " + file, e);
+        }
+    }
+
+    @Override
+    public void onClose() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close audit log " + file + ": " + e.getMessage());
+        }
+    }
+}
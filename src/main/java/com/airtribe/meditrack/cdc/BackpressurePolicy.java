@@ -0,0 +1,18 @@
+package com.airtribe.meditrack.cdc;
+
+/**
+ * What a writer does when the {@link ChangeStream} ring is full because the
+ * slowest subscriber has fallen a whole ring behind.
+ */
+public enum BackpressurePolicy {
+
+    // Wait for the slowest subscriber; no change is lost, but writers slow down to its pace.
+    BLOCK,
+
+    // Discard the change and count it; writers never wait.
+    DROP,
+
+    // Park the change off-ring, keeping only the latest change per entity, and
+    // hand the parked changes over as space frees; writers never wait.
+    COALESCE
+}
@@ -0,0 +1,72 @@
+package com.airtribe.meditrack.cdc;
+
+/**
+ * One slot of the {@link ChangeStream} ring. Slots are allocated once with
+ * the stream and overwritten in place as sequences wrap around, so
+ * publishing a change allocates nothing; subscribers only see a slot while
+ * it holds the sequence being delivered.
+ *
+ * <p>{@code source} names the store (e.g. {@code appointments});
+ * {@code detail} is a value captured at publish time, such as the
+ * appointment status, because the entity itself may change again before a
+ * subscriber reads it.
+ */
+public final class ChangeEvent {
+
+    private long sequence;
+    private long timestamp;
+    private ChangeKind kind;
+    private String source;
+    private String id;
+    private Object entity;
+    private String detail;
+
+    ChangeEvent() {
+    }
+
+    void set(long sequence, long timestamp, ChangeKind kind, String source, String id,
+             Object entity, String detail) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.kind = kind;
+        this.source = source;
+        this.id = id;
+        this.entity = entity;
+        this.detail = detail;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    // Wall-clock milliseconds when the change was published.
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ChangeKind getKind() {
+        return kind;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // The saved entity, or the removed one for a DELETE.
+    public Object getEntity() {
+        return entity;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + source + " " + kind + " " + id + (detail != null ? " " + detail : "");
+    }
+}
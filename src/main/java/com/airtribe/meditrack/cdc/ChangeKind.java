@@ -0,0 +1,10 @@
+package com.airtribe.meditrack.cdc;
+
+// What happened to the entity: UPDATE also covers a re-save after an in-place change,
+// EVICT means it moved to an archive tier and still exists.
+public enum ChangeKind {
+    INSERT,
+    UPDATE,
+    DELETE,
+    EVICT
+}
@@ -0,0 +1,452 @@
+package com.airtribe.meditrack.cdc;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Change-data-capture stream: store saves and deletes are published into a
+ * bounded ring of preallocated {@link ChangeEvent} slots and delivered to
+ * each {@link ChangeSubscriber} on its own thread, in batches.
+ *
+ * <p>Every change gets the next sequence number. A writer claims a
+ * sequence with one compare-and-set, fills the slot and marks it published;
+ * it never waits for, or runs, subscriber code. Each subscriber follows the
+ * ring with its own sequence and takes everything published since its last
+ * pass as one batch, so a burst of writes costs a subscriber one wake-up.
+ * A slot is reused only once every subscriber has passed it; what a writer
+ * does when the slowest subscriber is a full ring behind is the stream's
+ * {@link BackpressurePolicy}.
+ *
+ * <p>A change that finds the ring full, or finds earlier changes already
+ * waiting, is parked off-ring and handed over as slots free up. Under
+ * {@link BackpressurePolicy#BLOCK} every change is parked in arrival order
+ * and its writer then waits for the hand-over; the store-side
+ * {@link #listener(String, Function)} waits in
+ * {@link StoreListener#afterChange(String)}, so a blocked writer never
+ * holds the store's per-id update.
+ *
+ * <p>Changes to one entity are published in the order they happened as long
+ * as they come from one thread at a time, which is what
+ * {@link com.airtribe.meditrack.util.DataStore}'s per-id updates guarantee
+ * for {@link #listener(String, Function)}. Register subscribers before
+ * publishing starts; changes published with no subscribers are not kept.
+ */
+public class ChangeStream implements AutoCloseable {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final BackpressurePolicy policy;
+    private final int capacity;
+    private final int mask;
+    private final ChangeEvent[] slots;
+    // Sequence last written to each slot; a slot is readable once it holds the expected sequence.
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Lower bound of the slowest subscriber's sequence, refreshed only when a writer nears it.
+    private volatile long gatingCache = -1;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Changes waiting for ring space, guarded by itself: for COALESCE the latest per
+    // entity (keyed source/id), for BLOCK each change in arrival order (keyed by itself).
+    private final Map<Object, Parked> parked = new LinkedHashMap<>();
+    private volatile boolean parking;
+    // BLOCK: the change a store listener parked on this thread, waited for in afterChange.
+    private final ThreadLocal<Parked> awaiting = new ThreadLocal<>();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean closed;
+
+    public ChangeStream(BackpressurePolicy policy) {
+        this(Constants.CDC_RING_SIZE, policy);
+    }
+
+    // Capacity must be a power of two.
+    public ChangeStream(int capacity, BackpressurePolicy policy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.policy = policy;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new ChangeEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Starts delivering changes published from now on to {@code subscriber}
+     * on a daemon thread named {@code cdc-<name>}.
+     */
+    public void subscribe(String name, ChangeSubscriber subscriber) {
+        if (closed) {
+            throw new IllegalStateException("Change stream is closed");
+        }
+        Subscription subscription = new Subscription(name, subscriber, claimed.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+    }
+
+    /**
+     * Store-side publisher: register with
+     * {@link com.airtribe.meditrack.util.DataStore#addListener(StoreListener)}.
+     * {@code detail} (may be null) captures a value at publish time, such as
+     * an appointment's status.
+     */
+    public <T> StoreListener<T> listener(String source, Function<? super T, String> detail) {
+        return new StoreListener<>() {
+            @Override
+            public void onSave(String id, T previous, T current) {
+                publish(previous == null ? ChangeKind.INSERT : ChangeKind.UPDATE, source, id, current,
+                        detail != null ? detail.apply(current) : null, false);
+            }
+
+            @Override
+            public void onDelete(String id, T removed) {
+                publish(ChangeKind.DELETE, source, id, removed, detail != null ? detail.apply(removed) : null,
+                        false);
+            }
+
+            @Override
+            public void onEvict(String id, T evicted) {
+                publish(ChangeKind.EVICT, source, id, evicted, detail != null ? detail.apply(evicted) : null,
+                        false);
+            }
+
+            // Out of the store's per-id update: now a BLOCK writer may wait.
+            @Override
+            public void afterChange(String id) {
+                Parked change = awaiting.get();
+                if (change != null) {
+                    awaiting.remove();
+                    awaitHandOver(change);
+                }
+            }
+        };
+    }
+
+    public void publish(ChangeKind kind, String source, String id, Object entity, String detail) {
+        publish(kind, source, id, entity, detail, true);
+    }
+
+    // mayWait is false inside a store's per-id update: a BLOCK writer then waits in afterChange.
+    private void publish(ChangeKind kind, String source, String id, Object entity, String detail,
+                         boolean mayWait) {
+        if (closed || subscriptions.isEmpty()) {
+            return;
+        }
+        if (!parking) {
+            long sequence = tryClaim();
+            if (sequence >= 0) {
+                fill(sequence, System.currentTimeMillis(), kind, source, id, entity, detail);
+                return;
+            }
+        }
+        switch (policy) {
+            case BLOCK -> {
+                Parked change = park(new Parked(System.currentTimeMillis(), kind, source, id, entity, detail));
+                if (change == null) {
+                    return;
+                }
+                if (mayWait) {
+                    awaitHandOver(change);
+                } else {
+                    // A revert inside the same update may park again; the later change is handed over last.
+                    awaiting.set(change);
+                }
+            }
+            case DROP -> dropped.increment();
+            case COALESCE -> park(new Parked(System.currentTimeMillis(), kind, source, id, entity, detail));
+        }
+    }
+
+    // BLOCK: waits until the parked change has a ring slot. Once closed, subscribers still
+    // hand over what is parked before they stop, so there is nothing left to wait for.
+    private void awaitHandOver(Parked change) {
+        while (!change.handedOver && !closed) {
+            drainParked();
+            if (!change.handedOver) {
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+            }
+        }
+    }
+
+    // Returns the claimed sequence, or -1 if the slot is still needed by a subscriber.
+    private long tryClaim() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            long wrapPoint = next - capacity;
+            if (wrapPoint > gatingCache) {
+                long slowest = slowestSequence(current);
+                gatingCache = slowest;
+                if (wrapPoint > slowest) {
+                    return -1;
+                }
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long slowestSequence(long fallback) {
+        long slowest = fallback;
+        for (Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.sequence.get());
+        }
+        return slowest;
+    }
+
+    private void fill(long sequence, long timestamp, ChangeKind kind, String source, String id,
+                      Object entity, String detail) {
+        int index = (int) (sequence & mask);
+        slots[index].set(sequence, timestamp, kind, source, id, entity, detail);
+        published.lazySet(index, sequence);
+    }
+
+    // While anything is parked, every change goes through here so one entity's changes stay in order.
+    // Returns the change if it was parked, null if it went straight onto the ring.
+    private Parked park(Parked change) {
+        synchronized (parked) {
+            flushParked();
+            if (parked.isEmpty()) {
+                long sequence = tryClaim();
+                if (sequence >= 0) {
+                    fill(sequence, change.timestamp, change.kind, change.source, change.id, change.entity,
+                            change.detail);
+                    return null;
+                }
+            }
+            if (policy == BackpressurePolicy.BLOCK) {
+                parked.put(change, change);
+                parking = true;
+                return change;
+            }
+            String key = change.source + '/' + change.id;
+            Parked earlier = parked.get(key);
+            if (earlier == null) {
+                parked.put(key, change);
+            } else {
+                coalesced.increment();
+                Parked merged = earlier.then(change);
+                if (merged != null) {
+                    parked.put(key, merged);
+                } else {
+                    parked.remove(key);
+                }
+            }
+            parking = !parked.isEmpty();
+            return change;
+        }
+    }
+
+    // Caller holds the parked monitor. Hands over parked changes, oldest entity first, while slots are free.
+    private void flushParked() {
+        Iterator<Parked> it = parked.values().iterator();
+        while (it.hasNext()) {
+            Parked change = it.next();
+            long sequence = tryClaim();
+            if (sequence < 0) {
+                break;
+            }
+            fill(sequence, change.timestamp, change.kind, change.source, change.id, change.entity, change.detail);
+            change.handedOver = true;
+            it.remove();
+        }
+        parking = !parked.isEmpty();
+    }
+
+    private void drainParked() {
+        synchronized (parked) {
+            flushParked();
+        }
+    }
+
+    // Highest sequence in [from, to] up to which every slot has been published.
+    private long highestPublished(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            if (published.get((int) (sequence & mask)) != sequence) {
+                return sequence - 1;
+            }
+        }
+        return to;
+    }
+
+    // Changes published so far (sequence numbers handed out).
+    public long getPublished() {
+        return claimed.get() + 1;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // Parked changes replaced by a later change to the same entity.
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getSubscriberFailures() {
+        return failures.sum();
+    }
+
+    // Changes the slowest subscriber has yet to receive.
+    public long getLag() {
+        long head = claimed.get();
+        return head - slowestSequence(head);
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Stops accepting changes and lets every subscriber finish what was
+     * already published (parked changes included), waiting up to
+     * {@link Constants#CDC_CLOSE_TIMEOUT_SECONDS} for each.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Constants.CDC_CLOSE_TIMEOUT_SECONDS);
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (subscription.thread.isAlive()) {
+                System.err.println("Change subscriber " + subscription.name + " did not finish; "
+                        + (claimed.get() - subscription.sequence.get()) + " changes undelivered.");
+                subscription.thread.interrupt();
+            }
+        }
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final String name;
+        private final ChangeSubscriber subscriber;
+        // Last sequence delivered; writers read it to know which slots are free again.
+        private final AtomicLong sequence;
+        private final Thread thread;
+
+        private Subscription(String name, ChangeSubscriber subscriber, long start) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this, "cdc-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                long next = sequence.get() + 1;
+                int idle = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    long available = highestPublished(next, claimed.get());
+                    if (available >= next) {
+                        for (long s = next; s <= available; s++) {
+                            deliver(slots[(int) (s & mask)], s == available);
+                        }
+                        sequence.set(available);
+                        next = available + 1;
+                        idle = 0;
+                        if (parking) {
+                            drainParked();
+                        }
+                    } else if (parking) {
+                        // Caught up, but a slower subscriber may still hold the slots parked changes need.
+                        drainParked();
+                        idle(idle++);
+                    } else if (closed && next > claimed.get()) {
+                        return;
+                    } else {
+                        idle(idle++);
+                    }
+                }
+            } finally {
+                subscriber.onClose();
+            }
+        }
+
+        private void deliver(ChangeEvent event, boolean endOfBatch) {
+            try {
+                subscriber.onChange(event, endOfBatch);
+            } catch (RuntimeException e) {
+                failures.increment();
+                System.err.println("Change subscriber " + name + " failed at sequence "
+                        + event.getSequence() + ": " + e);
+            }
+        }
+
+        private void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private static final class Parked {
+
+        private final long timestamp;
+        private final ChangeKind kind;
+        private final String source;
+        private final String id;
+        private final Object entity;
+        private final String detail;
+        private volatile boolean handedOver;
+
+        private Parked(long timestamp, ChangeKind kind, String source, String id, Object entity, String detail) {
+            this.timestamp = timestamp;
+            this.kind = kind;
+            this.source = source;
+            this.id = id;
+            this.entity = entity;
+            this.detail = detail;
+        }
+
+        // Net effect of this change followed by a later one; null when they cancel out.
+        // An insert then an eviction is an eviction: the entity still exists, in the archive.
+        private Parked then(Parked later) {
+            ChangeKind netKind = later.kind;
+            if (kind == ChangeKind.INSERT) {
+                if (later.kind == ChangeKind.DELETE) {
+                    return null;
+                }
+                if (later.kind == ChangeKind.UPDATE) {
+                    netKind = ChangeKind.INSERT;
+                }
+            } else if ((kind == ChangeKind.DELETE || kind == ChangeKind.EVICT) && later.kind == ChangeKind.INSERT) {
+                netKind = ChangeKind.UPDATE;
+            }
+            return new Parked(later.timestamp, netKind, source, id, later.entity, later.detail);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.airtribe.meditrack.cdc;
+
+/**
+ * Receives changes from a {@link ChangeStream} on the subscriber's own
+ * thread, in sequence order. Changes arrive in batches of whatever has been
+ * published since the last call; {@code endOfBatch} marks the last change
+ * of a batch, the moment to flush buffered work.
+ *
+ * <p>The {@link ChangeEvent} is a ring slot that is reused once the call
+ * returns: copy out anything that has to be kept. With
+ * {@link BackpressurePolicy#BLOCK} a subscriber must not write to a store
+ * that publishes into the same stream, or it may end up waiting for itself.
+ */
+public interface ChangeSubscriber {
+
+    void onChange(ChangeEvent event, boolean endOfBatch);
+
+    // Called on the subscriber's thread after the last change, when the stream is closed.
+    default void onClose() {
+    }
+}
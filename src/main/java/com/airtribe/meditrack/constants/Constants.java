@@ -7,9 +7,61 @@ public final class Constants {
 
     public static final double TAX_RATE = 0.18; // 18% tax
 
+    // Batch billing: appointments priced per fork/join leaf task.
+    public static final int BILLING_CHUNK_SIZE = 4096;
+
+    public static final int APPOINTMENT_DURATION_MINUTES = 30;
+
+    // Availability calendar: 96 fifteen-minute slots per day, bookable within working hours.
+    public static final int SLOT_MINUTES = 15;
+    public static final int WORKDAY_START_HOUR = 9;
+    public static final int WORKDAY_END_HOUR = 17;
+    public static final int AVAILABILITY_HORIZON_DAYS = 14;
+
+    // Doctor recommendations: ranked doctors kept per specialization.
+    public static final int RANKING_TOP_K = 5;
+
+    // Duplicate detection: pairs scoring at least this are reported (see DuplicateDetector).
+    public static final double DUPLICATE_SCORE_THRESHOLD = 0.6;
+
     public static final String DATA_DIR = "data";
     public static final String PATIENT_CSV = DATA_DIR + "/patients.csv";
     public static final String DOCTOR_CSV = DATA_DIR + "/doctors.csv";
     public static final String APPOINTMENT_CSV = DATA_DIR + "/appointments.csv";
+    public static final String BILL_CSV = DATA_DIR + "/bills.csv";
+    public static final String SNAPSHOT_FILE = DATA_DIR + "/meditrack.snapshot";
+    // One append-only medical history file per patient.
+    public static final String HISTORY_DIR = DATA_DIR + "/history";
+    public static final int HISTORY_PAGE_SIZE = 20;
+
+    // Symptom dictionary: a file in DATA_DIR overrides the bundled classpath copy.
+    public static final String SYMPTOM_DICTIONARY = DATA_DIR + "/symptom_keywords.csv";
+    public static final String SYMPTOM_DICTIONARY_RESOURCE = "/symptom_keywords.csv";
+
+    // Journaled persistence (write-ahead log + periodic checkpoints)
+    public static final String JOURNAL_DIR = DATA_DIR + "/journal";
+    public static final long JOURNAL_COMMIT_INTERVAL_MS = 5;
+    public static final int JOURNAL_COMMIT_BATCH_BYTES = 64 * 1024;
+    public static final long JOURNAL_CHECKPOINT_INTERVAL_SECONDS = 60;
+
+    // Headless HTTP/JSON API (Main --server)
+    public static final int SERVER_PORT = 8080;
+    public static final int SERVER_BACKLOG = 1024;
+    public static final int SERVER_MAX_BODY_BYTES = 64 * 1024;
+    public static final int SERVER_STOP_DELAY_SECONDS = 2;
+
+    // Batch command files (Main --batch): commands handed from parser to executor per block.
+    public static final int BATCH_BLOCK_SIZE = 256;
+    public static final int BATCH_QUEUE_BLOCKS = 64;
+
+    // Change-data-capture stream (Main --audit): ring slots (a power of two) and drain time on close.
+    public static final int CDC_RING_SIZE = 8192;
+    public static final int CDC_CLOSE_TIMEOUT_SECONDS = 5;
+
+    // Appointment archive (Main --archive): finished appointments older than this leave the heap.
+    public static final String ARCHIVE_DIR = DATA_DIR + "/archive";
+    public static final int ARCHIVE_AFTER_DAYS = 365;
+    public static final long ARCHIVE_INTERVAL_HOURS = 24;
+    public static final int ARCHIVE_CACHED_SEGMENTS = 8;
 }
 
@@ -1,6 +1,9 @@
 package com.airtribe.meditrack.entity;
 
+import com.airtribe.meditrack.exception.InvalidStatusTransitionException;
+
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Appointment implements Cloneable {
 
@@ -8,14 +11,16 @@ public class Appointment implements Cloneable {
     private final Patient patient;
     private final Doctor doctor;
     private final LocalDateTime dateTime;
-    private AppointmentStatus status;
+    // Changed only through transitionTo() (a compare-and-set along the AppointmentStatus lifecycle)
+    // and revertTransition() when the save of a transition fails.
+    private final AtomicReference<AppointmentStatus> status;
 
     public Appointment(String id, Patient patient, Doctor doctor, LocalDateTime dateTime, AppointmentStatus status) {
         this.id = id;
         this.patient = patient;
         this.doctor = doctor;
         this.dateTime = dateTime;
-        this.status = status;
+        this.status = new AtomicReference<>(status);
     }
 
     public String getId() {
@@ -35,18 +40,42 @@ public class Appointment implements Cloneable {
     }
 
     public AppointmentStatus getStatus() {
-        return status;
+        return status.get();
+    }
+
+    /**
+     * Atomically moves to {@code next} if the lifecycle allows it from the
+     * current status, and returns the status it replaced. Of two threads
+     * racing (say, cancel and complete), exactly one succeeds; the other
+     * gets {@link InvalidStatusTransitionException}.
+     */
+    public AppointmentStatus transitionTo(AppointmentStatus next) {
+        while (true) {
+            AppointmentStatus current = status.get();
+            if (!current.canTransitionTo(next)) {
+                throw new InvalidStatusTransitionException(id, current, next);
+            }
+            if (status.compareAndSet(current, next)) {
+                return current;
+            }
+        }
     }
 
-    public void setStatus(AppointmentStatus status) {
-        this.status = status;
+    /**
+     * Undoes a {@link #transitionTo} whose save failed: puts {@code previous}
+     * back if the status is still {@code next}. Lifecycle rules are not
+     * checked, since the transition never took effect.
+     */
+    public boolean revertTransition(AppointmentStatus next, AppointmentStatus previous) {
+        return status.compareAndSet(next, previous);
     }
 
     @Override
     public Appointment clone() {
+        // Constant time: the cloned patient shares its immutable medical history.
         Patient clonedPatient = patient != null ? patient.clone() : null;
         // For doctors we keep the same reference assuming they are shared entities
-        return new Appointment(id, clonedPatient, doctor, dateTime, status);
+        return new Appointment(id, clonedPatient, doctor, dateTime, status.get());
     }
 
     @Override
@@ -56,7 +85,7 @@ public class Appointment implements Cloneable {
                 ", patient=" + (patient != null ? patient.getName() : "N/A") +
                 ", doctor=" + (doctor != null ? doctor.getName() : "N/A") +
                 ", dateTime=" + dateTime +
-                ", status=" + status +
+                ", status=" + status.get() +
                 '}';
     }
 }
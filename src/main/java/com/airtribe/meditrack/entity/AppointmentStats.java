@@ -0,0 +1,66 @@
+package com.airtribe.meditrack.entity;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable value object: appointment counts at one point in time, broken
+ * down per doctor, status, specialization and calendar day.
+ */
+public final class AppointmentStats {
+
+    private final long total;
+    private final Map<Doctor, Long> byDoctor;
+    private final Map<AppointmentStatus, Long> byStatus;
+    private final Map<Specialization, Long> bySpecialization;
+    private final SortedMap<LocalDate, Long> byDay;
+
+    public AppointmentStats(long total,
+                            Map<Doctor, Long> byDoctor,
+                            Map<AppointmentStatus, Long> byStatus,
+                            Map<Specialization, Long> bySpecialization,
+                            Map<LocalDate, Long> byDay) {
+        this.total = total;
+        this.byDoctor = Collections.unmodifiableMap(new LinkedHashMap<>(byDoctor));
+        this.byStatus = Collections.unmodifiableMap(byStatus.isEmpty()
+                ? new EnumMap<>(AppointmentStatus.class) : new EnumMap<>(byStatus));
+        this.bySpecialization = Collections.unmodifiableMap(bySpecialization.isEmpty()
+                ? new EnumMap<>(Specialization.class) : new EnumMap<>(bySpecialization));
+        this.byDay = Collections.unmodifiableSortedMap(new TreeMap<>(byDay));
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<Doctor, Long> getByDoctor() {
+        return byDoctor;
+    }
+
+    public Map<AppointmentStatus, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public Map<Specialization, Long> getBySpecialization() {
+        return bySpecialization;
+    }
+
+    public SortedMap<LocalDate, Long> getByDay() {
+        return byDay;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentStats{" +
+                "total=" + total +
+                ", byStatus=" + byStatus +
+                ", bySpecialization=" + bySpecialization +
+                ", days=" + byDay.size() +
+                '}';
+    }
+}
@@ -4,6 +4,15 @@ public enum AppointmentStatus {
     PENDING,
     CONFIRMED,
     CANCELLED,
-    COMPLETED
-}
+    COMPLETED;
 
+    // Lifecycle: PENDING -> CONFIRMED -> COMPLETED, and either open state -> CANCELLED.
+    // CANCELLED and COMPLETED are final.
+    public boolean canTransitionTo(AppointmentStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED -> next == COMPLETED || next == CANCELLED;
+            case CANCELLED, COMPLETED -> false;
+        };
+    }
+}
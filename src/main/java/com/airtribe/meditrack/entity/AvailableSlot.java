@@ -0,0 +1,33 @@
+package com.airtribe.meditrack.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable value object: a bookable start time with a given doctor.
+ */
+public final class AvailableSlot {
+
+    private final Doctor doctor;
+    private final LocalDateTime start;
+
+    public AvailableSlot(Doctor doctor, LocalDateTime start) {
+        this.doctor = doctor;
+        this.start = start;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailableSlot{" +
+                "doctor=" + doctor.getName() + " (" + doctor.getId() + ")" +
+                ", start=" + start +
+                '}';
+    }
+}
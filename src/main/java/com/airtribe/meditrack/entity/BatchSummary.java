@@ -0,0 +1,48 @@
+package com.airtribe.meditrack.entity;
+
+/**
+ * Immutable value object: outcome of one batch command file run, with the
+ * wall-clock time from the first line read to the last result written.
+ */
+public final class BatchSummary {
+
+    private final long commands;
+    private final long failed;
+    private final long elapsedNanos;
+
+    public BatchSummary(long commands, long failed, long elapsedNanos) {
+        this.commands = commands;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public long getSucceeded() {
+        return commands - failed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSummary{" +
+                "commands=" + commands +
+                ", failed=" + failed +
+                ", elapsedMs=" + elapsedNanos / 1_000_000 +
+                ", commandsPerSecond=" + Math.round(getCommandsPerSecond()) +
+                '}';
+    }
+}
@@ -33,6 +33,10 @@ public class Bill implements Payable {
         return baseAmount;
     }
 
+    public BillingStrategy getBillingStrategy() {
+        return billingStrategy;
+    }
+
     @Override
     public double calculateTotalAmount() {
         return billingStrategy.calculateTotal(baseAmount);
@@ -1,22 +1,36 @@
 package com.airtribe.meditrack.entity;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Design pattern (Factory): centralises creation of {@link Bill} objects
- * and their associated {@link BillingStrategy} variants.
+ * and their associated {@link BillingStrategy} variants. Strategies are
+ * stateless, so one instance per pricing rule is shared by every bill.
  */
 public final class BillFactory {
 
+    private static final BillingStrategy STANDARD = new StandardBillingStrategy();
+    private static final Map<Double, BillingStrategy> DISCOUNTS = new ConcurrentHashMap<>();
+
     private BillFactory() {
     }
 
+    public static BillingStrategy standardStrategy() {
+        return STANDARD;
+    }
+
+    public static BillingStrategy discountStrategy(double discountRate) {
+        return DISCOUNTS.computeIfAbsent(discountRate, DiscountBillingStrategy::new);
+    }
+
     public static Bill standardBill(String billId, Appointment appointment) {
         double baseAmount = appointment.getDoctor().getConsultationFee();
-        return new Bill(billId, appointment, baseAmount, new StandardBillingStrategy());
+        return new Bill(billId, appointment, baseAmount, STANDARD);
     }
 
     public static Bill discountedBill(String billId, Appointment appointment, double discountRate) {
         double baseAmount = appointment.getDoctor().getConsultationFee();
-        return new Bill(billId, appointment, baseAmount, new DiscountBillingStrategy(discountRate));
+        return new Bill(billId, appointment, baseAmount, discountStrategy(discountRate));
     }
 }
-
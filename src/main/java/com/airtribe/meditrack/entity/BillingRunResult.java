@@ -0,0 +1,44 @@
+package com.airtribe.meditrack.entity;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable value object: the bills produced by one batch billing run and
+ * their totals per doctor.
+ */
+public final class BillingRunResult {
+
+    private final List<Bill> bills;
+    private final Map<Doctor, Double> totalsByDoctor;
+    private final double grandTotal;
+
+    public BillingRunResult(List<Bill> bills, Map<Doctor, Double> totalsByDoctor, double grandTotal) {
+        this.bills = Collections.unmodifiableList(bills);
+        this.totalsByDoctor = Collections.unmodifiableMap(new LinkedHashMap<>(totalsByDoctor));
+        this.grandTotal = grandTotal;
+    }
+
+    public List<Bill> getBills() {
+        return bills;
+    }
+
+    public Map<Doctor, Double> getTotalsByDoctor() {
+        return totalsByDoctor;
+    }
+
+    public double getGrandTotal() {
+        return grandTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "BillingRunResult{" +
+                "bills=" + bills.size() +
+                ", doctors=" + totalsByDoctor.size() +
+                ", grandTotal=" + grandTotal +
+                '}';
+    }
+}
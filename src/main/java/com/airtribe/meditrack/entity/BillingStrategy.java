@@ -8,5 +8,21 @@ package com.airtribe.meditrack.entity;
 public interface BillingStrategy {
 
     double calculateTotal(double baseAmount);
+
+    // Stable label used to group revenue by pricing rule.
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Bulk form used by batch billing: writes {@code totals[i]} for every
+     * {@code i} in {@code [from, to)}. Implementations override this with a
+     * tight loop over the arrays; results must equal {@link #calculateTotal(double)}.
+     */
+    default void calculateTotals(double[] baseAmounts, double[] totals, int from, int to) {
+        for (int i = from; i < to; i++) {
+            totals[i] = calculateTotal(baseAmounts[i]);
+        }
+    }
 }
 
@@ -2,6 +2,8 @@ package com.airtribe.meditrack.entity;
 
 import com.airtribe.meditrack.constants.Constants;
 
+import java.math.BigDecimal;
+
 /**
  * Strategy implementation that first applies a percentage discount and
  * then taxes the discounted base.
@@ -20,5 +22,20 @@ public class DiscountBillingStrategy implements BillingStrategy {
         double tax = discounted * Constants.TAX_RATE;
         return discounted + tax;
     }
+
+    @Override
+    public String getName() {
+        return "DISCOUNT_" + BigDecimal.valueOf(discountRate * 100).stripTrailingZeros().toPlainString();
+    }
+
+    @Override
+    public void calculateTotals(double[] baseAmounts, double[] totals, int from, int to) {
+        double keep = 1 - discountRate;
+        double taxRate = Constants.TAX_RATE;
+        for (int i = from; i < to; i++) {
+            double discounted = baseAmounts[i] * keep;
+            totals[i] = discounted + discounted * taxRate;
+        }
+    }
 }
 
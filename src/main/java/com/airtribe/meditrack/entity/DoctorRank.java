@@ -0,0 +1,43 @@
+package com.airtribe.meditrack.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable value object: a doctor's position inputs in the load-aware
+ * ranking. {@code nextAvailable} is {@code null} when nothing is free within
+ * the availability horizon.
+ */
+public final class DoctorRank {
+
+    private final Doctor doctor;
+    private final int upcomingAppointments;
+    private final LocalDateTime nextAvailable;
+
+    public DoctorRank(Doctor doctor, int upcomingAppointments, LocalDateTime nextAvailable) {
+        this.doctor = doctor;
+        this.upcomingAppointments = upcomingAppointments;
+        this.nextAvailable = nextAvailable;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public int getUpcomingAppointments() {
+        return upcomingAppointments;
+    }
+
+    public LocalDateTime getNextAvailable() {
+        return nextAvailable;
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorRank{" +
+                "doctor=" + doctor.getName() + " (" + doctor.getId() + ")" +
+                ", upcomingAppointments=" + upcomingAppointments +
+                ", fee=" + doctor.getConsultationFee() +
+                ", nextAvailable=" + nextAvailable +
+                '}';
+    }
+}
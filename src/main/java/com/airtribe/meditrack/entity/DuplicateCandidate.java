@@ -0,0 +1,32 @@
+package com.airtribe.meditrack.entity;
+
+/**
+ * Immutable value object: an existing patient that may be the same person
+ * as a new registration, with a match score in [0, 1].
+ */
+public final class DuplicateCandidate {
+
+    private final Patient patient;
+    private final double score;
+
+    public DuplicateCandidate(Patient patient, double score) {
+        this.patient = patient;
+        this.score = score;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "DuplicateCandidate{" +
+                "patient=" + patient +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,39 @@
+package com.airtribe.meditrack.entity;
+
+/**
+ * Immutable value object: two registered patients that likely describe the
+ * same person. {@code first} is the one registered earlier (smaller ID).
+ */
+public final class DuplicatePair {
+
+    private final Patient first;
+    private final Patient second;
+    private final double score;
+
+    public DuplicatePair(Patient first, Patient second, double score) {
+        this.first = first;
+        this.second = second;
+        this.score = score;
+    }
+
+    public Patient getFirst() {
+        return first;
+    }
+
+    public Patient getSecond() {
+        return second;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "DuplicatePair{" +
+                "first=" + first.getId() +
+                ", second=" + second.getId() +
+                ", score=" + score +
+                '}';
+    }
+}
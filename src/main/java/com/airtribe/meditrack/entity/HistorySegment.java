@@ -0,0 +1,18 @@
+package com.airtribe.meditrack.entity;
+
+import java.util.List;
+
+/**
+ * Read-only view of medical history entries kept outside the heap (for
+ * example in a per-patient file). Covers a fixed number of entries; later
+ * appends are not visible through an existing segment.
+ */
+public interface HistorySegment {
+
+    int size();
+
+    // Entries [from, from + limit) clipped to size(), read without loading the rest.
+    List<String> page(int from, int limit);
+
+    List<String> readAll();
+}
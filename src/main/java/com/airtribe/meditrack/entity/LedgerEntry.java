@@ -0,0 +1,87 @@
+package com.airtribe.meditrack.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable value object: one issued bill as recorded in the bill ledger.
+ * Holds IDs rather than entity references so entries stay small and can be
+ * persisted on their own.
+ */
+public final class LedgerEntry {
+
+    private final String billId;
+    private final String appointmentId;
+    private final String doctorId;
+    private final LocalDateTime appointmentTime;
+    private final String strategy;
+    private final double baseAmount;
+    private final double totalAmount;
+
+    public LedgerEntry(String billId, String appointmentId, String doctorId, LocalDateTime appointmentTime,
+                       String strategy, double baseAmount, double totalAmount) {
+        this.billId = billId;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.appointmentTime = appointmentTime;
+        this.strategy = strategy;
+        this.baseAmount = baseAmount;
+        this.totalAmount = totalAmount;
+    }
+
+    public static LedgerEntry of(Bill bill) {
+        Appointment appointment = bill.getAppointment();
+        return new LedgerEntry(bill.getId(), appointment.getId(), appointment.getDoctor().getId(),
+                appointment.getDateTime(), bill.getBillingStrategy().getName(),
+                bill.getBaseAmount(), bill.calculateTotalAmount());
+    }
+
+    public String getBillId() {
+        return billId;
+    }
+
+    public String getAppointmentId() {
+        return appointmentId;
+    }
+
+    public String getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    // Revenue is bucketed by the day the service was delivered.
+    public LocalDate getServiceDate() {
+        return appointmentTime.toLocalDate();
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public double getBaseAmount() {
+        return baseAmount;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BillSummary toSummary() {
+        return new BillSummary(billId, totalAmount);
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerEntry{" +
+                "billId='" + billId + '\'' +
+                ", appointmentId='" + appointmentId + '\'' +
+                ", doctorId='" + doctorId + '\'' +
+                ", appointmentTime=" + appointmentTime +
+                ", strategy='" + strategy + '\'' +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
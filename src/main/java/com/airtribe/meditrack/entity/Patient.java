@@ -1,36 +1,77 @@
 package com.airtribe.meditrack.entity;
 
+import com.airtribe.meditrack.util.PersistentList;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 public class Patient extends Person implements Cloneable {
 
-    private final List<String> medicalHistory;
+    // Immutable and structurally shared: clones share it and each append yields a new list.
+    private PersistentList<String> medicalHistory;
+    // Earlier entries still on disk, ahead of medicalHistory; null once paged in.
+    private HistorySegment persistedHistory;
 
     public Patient(String id, String name, int age, String phone) {
         super(id, name, age, phone);
-        this.medicalHistory = new ArrayList<>();
+        this.medicalHistory = PersistentList.empty();
     }
 
-    private Patient(String id, String name, int age, String phone, List<String> medicalHistory) {
+    private Patient(String id, String name, int age, String phone,
+                    PersistentList<String> medicalHistory, HistorySegment persistedHistory) {
         super(id, name, age, phone);
-        this.medicalHistory = new ArrayList<>(medicalHistory);
+        this.medicalHistory = medicalHistory;
+        this.persistedHistory = persistedHistory;
+    }
+
+    // Full history, oldest first. Pages in any persisted entries on first use.
+    public synchronized List<String> getMedicalHistory() {
+        if (persistedHistory != null) {
+            medicalHistory = PersistentList.<String>copyOf(persistedHistory.readAll()).appendAll(medicalHistory);
+            persistedHistory = null;
+        }
+        return medicalHistory;
+    }
+
+    public synchronized int getMedicalHistorySize() {
+        return (persistedHistory != null ? persistedHistory.size() : 0) + medicalHistory.size();
     }
 
-    public List<String> getMedicalHistory() {
-        return Collections.unmodifiableList(medicalHistory);
+    // Entries [from, from + limit) without paging in the whole persisted history.
+    public synchronized List<String> getMedicalHistoryPage(int from, int limit) {
+        if (persistedHistory == null) {
+            int start = Math.min(Math.max(from, 0), medicalHistory.size());
+            return medicalHistory.subList(start, (int) Math.min(medicalHistory.size(), (long) start + limit));
+        }
+        int persisted = persistedHistory.size();
+        List<String> page = new ArrayList<>();
+        if (from < persisted) {
+            page.addAll(persistedHistory.page(from, Math.min(limit, persisted - from)));
+        }
+        int start = Math.min(Math.max(from - persisted, 0), medicalHistory.size());
+        int end = (int) Math.min(medicalHistory.size(), (long) start + limit - page.size());
+        page.addAll(medicalHistory.subList(start, end));
+        return Collections.unmodifiableList(page);
     }
 
-    public void addMedicalHistoryEntry(String entry) {
+    public synchronized void addMedicalHistoryEntry(String entry) {
         if (entry != null && !entry.isBlank()) {
-            medicalHistory.add(entry);
+            medicalHistory = medicalHistory.append(entry);
+        }
+    }
+
+    // Entries already persisted elsewhere; they come before any entries held on the heap.
+    public synchronized void attachPersistedHistory(HistorySegment segment) {
+        if (persistedHistory != null) {
+            throw new IllegalStateException("Patient " + getId() + " already has persisted history attached");
         }
+        this.persistedHistory = segment;
     }
 
+    // Constant time: the history is shared, not copied.
     @Override
-    public Patient clone() {
-        return new Patient(getId(), getName(), getAge(), getPhone(), medicalHistory);
+    public synchronized Patient clone() {
+        return new Patient(getId(), getName(), getAge(), getPhone(), medicalHistory, persistedHistory);
     }
 }
-
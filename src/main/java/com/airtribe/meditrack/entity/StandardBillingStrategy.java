@@ -12,5 +12,19 @@ public class StandardBillingStrategy implements BillingStrategy {
         double tax = baseAmount * Constants.TAX_RATE;
         return baseAmount + tax;
     }
+
+    @Override
+    public String getName() {
+        return "STANDARD";
+    }
+
+    @Override
+    public void calculateTotals(double[] baseAmounts, double[] totals, int from, int to) {
+        double taxRate = Constants.TAX_RATE;
+        for (int i = from; i < to; i++) {
+            double base = baseAmounts[i];
+            totals[i] = base + base * taxRate;
+        }
+    }
 }
 
@@ -0,0 +1,8 @@
+package com.airtribe.meditrack.exception;
+
+public class AppointmentAlreadyBilledException extends RuntimeException {
+
+    public AppointmentAlreadyBilledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.airtribe.meditrack.exception;
+
+import com.airtribe.meditrack.entity.Appointment;
+
+public class AppointmentConflictException extends RuntimeException {
+
+    private final transient Appointment conflictingAppointment;
+
+    public AppointmentConflictException(String message, Appointment conflictingAppointment) {
+        super(message);
+        this.conflictingAppointment = conflictingAppointment;
+    }
+
+    public Appointment getConflictingAppointment() {
+        return conflictingAppointment;
+    }
+}
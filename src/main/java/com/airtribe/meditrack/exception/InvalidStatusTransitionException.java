@@ -0,0 +1,29 @@
+package com.airtribe.meditrack.exception;
+
+import com.airtribe.meditrack.entity.AppointmentStatus;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final String appointmentId;
+    private final AppointmentStatus from;
+    private final AppointmentStatus to;
+
+    public InvalidStatusTransitionException(String appointmentId, AppointmentStatus from, AppointmentStatus to) {
+        super("Appointment " + appointmentId + " is " + from + " and cannot become " + to);
+        this.appointmentId = appointmentId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getAppointmentId() {
+        return appointmentId;
+    }
+
+    public AppointmentStatus getFrom() {
+        return from;
+    }
+
+    public AppointmentStatus getTo() {
+        return to;
+    }
+}
@@ -3,6 +3,7 @@ package com.airtribe.meditrack.interfacepkg;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * SOLID (Interface Segregation + Open/Closed):
@@ -13,8 +14,13 @@ public interface Searchable<T> {
 
     List<T> findAll();
 
+    // Implementations backed by a DataStore override this to avoid copying everything first.
+    default Stream<T> stream() {
+        return findAll().stream();
+    }
+
     default List<T> search(Predicate<T> predicate) {
-        return findAll().stream()
+        return stream()
                 .filter(predicate)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,38 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for appointment lifecycle operations (create, confirm,
+ * cancel, complete). {@code outcome} is {@code OK}, {@code CONFLICT} (slot
+ * already booked), {@code INVALID_TRANSITION} (status change not allowed
+ * from the current status) or {@code FAILED}.
+ */
+@Name("com.airtribe.meditrack.Appointment")
+@Label("Appointment Operation")
+@Category({"MediTrack", "Service"})
+@Description("Appointment create, cancel or complete")
+@Threshold("1 ms")
+@StackTrace(false)
+public class AppointmentEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Appointment ID")
+    public String appointmentId;
+
+    @Label("Doctor ID")
+    public String doctorId;
+
+    @Label("Patient ID")
+    public String patientId;
+
+    @Label("Outcome")
+    public String outcome;
+}
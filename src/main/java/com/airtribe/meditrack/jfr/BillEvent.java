@@ -0,0 +1,30 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** JFR event for generating a single bill. */
+@Name("com.airtribe.meditrack.Bill")
+@Label("Bill Generation")
+@Category({"MediTrack", "Billing"})
+@Description("One bill priced and recorded in the ledger")
+@Threshold("1 ms")
+@StackTrace(false)
+public class BillEvent extends jdk.jfr.Event {
+
+    @Label("Bill ID")
+    public String billId;
+
+    @Label("Appointment ID")
+    public String appointmentId;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Total Amount")
+    public double totalAmount;
+}
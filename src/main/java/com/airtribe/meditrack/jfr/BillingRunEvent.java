@@ -0,0 +1,26 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for an end-of-day batch billing run. */
+@Name("com.airtribe.meditrack.BillingRun")
+@Label("Billing Run")
+@Category({"MediTrack", "Billing"})
+@Description("Batch billing of completed appointments over a date range")
+public class BillingRunEvent extends jdk.jfr.Event {
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Bills")
+    public int bills;
+
+    @Label("Grand Total")
+    public double grandTotal;
+}
@@ -0,0 +1,28 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for reading or writing one CSV file. */
+@Name("com.airtribe.meditrack.CsvFile")
+@Label("CSV File")
+@Category({"MediTrack", "Persistence"})
+@Description("CSV file load or save with row and byte counts")
+public class CsvFileEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,30 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** JFR event for doctor create and delete. */
+@Name("com.airtribe.meditrack.Doctor")
+@Label("Doctor Operation")
+@Category({"MediTrack", "Service"})
+@Description("Doctor create or delete")
+@Threshold("1 ms")
+@StackTrace(false)
+public class DoctorEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Doctor ID")
+    public String doctorId;
+
+    @Label("Specialization")
+    public String specialization;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
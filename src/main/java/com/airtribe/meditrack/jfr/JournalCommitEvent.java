@@ -0,0 +1,24 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one group commit (write + fsync) of a write-ahead log. */
+@Name("com.airtribe.meditrack.JournalCommit")
+@Label("Journal Commit")
+@Category({"MediTrack", "Persistence"})
+@Description("Write-ahead log batch written and forced to disk")
+@StackTrace(false)
+public class JournalCommitEvent extends jdk.jfr.Event {
+
+    @Label("Journal")
+    public String journal;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
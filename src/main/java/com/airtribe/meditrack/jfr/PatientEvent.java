@@ -0,0 +1,27 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** JFR event for patient create, update and delete. */
+@Name("com.airtribe.meditrack.Patient")
+@Label("Patient Operation")
+@Category({"MediTrack", "Service"})
+@Description("Patient create, update or delete")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PatientEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Patient ID")
+    public String patientId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
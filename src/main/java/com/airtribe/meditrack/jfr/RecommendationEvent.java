@@ -0,0 +1,33 @@
+package com.airtribe.meditrack.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for an AI Helper recommendation. Symptom text is not recorded
+ * (recordings leave the clinic), only its length.
+ */
+@Name("com.airtribe.meditrack.Recommendation")
+@Label("Recommendation")
+@Category({"MediTrack", "AI Helper"})
+@Description("Symptom-based specialization, doctor or slot recommendation")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RecommendationEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Symptom Length")
+    public int symptomLength;
+
+    @Label("Specialization")
+    public String specialization;
+
+    @Label("Results")
+    public int results;
+}
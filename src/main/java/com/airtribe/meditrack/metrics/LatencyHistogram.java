@@ -0,0 +1,135 @@
+package com.airtribe.meditrack.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-memory log-linear histogram of nanosecond latencies. Values below
+ * {@value #SUB_BUCKETS} ns get one bucket each; above that every power of
+ * two is split into {@value #SUB_BUCKETS} equal buckets, so any recorded
+ * value is reported within about 3% of itself. Values above ~137 s land in
+ * the last bucket.
+ *
+ * <p>Recording is lock-free: one {@code getAndIncrement} on a bucket of an
+ * {@link AtomicLongArray}. Buckets are striped by thread so that threads
+ * timing the same operation rarely share a cache line; snapshots add the
+ * stripes together. Each thread is handed a stripe round-robin on first
+ * use, and a stripe (about 8.5 KB) is allocated only when a thread first
+ * records into it, so an operation timed from one thread costs one stripe.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_MAGNITUDE = 37;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BITS + 2) * SUB_BUCKETS;
+    private static final int STRIPES = Math.min(8,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+    private static final ThreadLocal<Integer> STRIPE =
+            ThreadLocal.withInitial(() -> NEXT_STRIPE.getAndIncrement() & (STRIPES - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        stripe(STRIPE.get()).getAndIncrement(bucketOf(value));
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        double sum = 0;
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray counts = stripes.get(s);
+            if (counts == null) {
+                continue;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                long n = counts.get(b);
+                if (n != 0) {
+                    merged[b] += n;
+                }
+            }
+        }
+        for (int b = 0; b < BUCKETS; b++) {
+            count += merged[b];
+            sum += (double) merged[b] * midpointOf(b);
+        }
+        return new LatencySnapshot(count, count == 0 ? 0 : sum / count,
+                valueAt(merged, count, 0.50), valueAt(merged, count, 0.90),
+                valueAt(merged, count, 0.99), valueAt(merged, count, 0.999), max.get());
+    }
+
+    public void reset() {
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray counts = stripes.get(s);
+            if (counts == null) {
+                continue;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                counts.set(b, 0);
+            }
+        }
+        max.set(0);
+    }
+
+    private AtomicLongArray stripe(int index) {
+        AtomicLongArray counts = stripes.get(index);
+        if (counts == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+            counts = stripes.get(index);
+        }
+        return counts;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // Smallest value that falls in the bucket.
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    private static double midpointOf(int bucket) {
+        long low = lowerBoundOf(bucket);
+        long width = bucket < SUB_BUCKETS ? 1 : 1L << (bucket / SUB_BUCKETS - 1);
+        return low + (width - 1) / 2.0;
+    }
+
+    private static long valueAt(long[] buckets, long count, double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= rank) {
+                return Math.round(midpointOf(b));
+            }
+        }
+        return Math.round(midpointOf(buckets.length - 1));
+    }
+}
@@ -0,0 +1,117 @@
+package com.airtribe.meditrack.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Design pattern (Singleton): process-wide registry of {@link OperationTimer}s.
+ * Services, stores and CSV utilities look their timers up once, at
+ * construction or class initialisation, and keep them in fields, so the
+ * registry is never touched on the hot path.
+ *
+ * <p>After {@link #registerMBeans()} every timer (existing and future) is
+ * published to the platform MBean server.
+ */
+public final class MetricsRegistry implements MetricsRegistryMXBean {
+
+    private static final String DOMAIN = "com.airtribe.meditrack";
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, OperationTimer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, Boolean> published = new ConcurrentHashMap<>();
+    private volatile MBeanServer server;
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public OperationTimer timer(String name) {
+        OperationTimer timer = timers.get(name);
+        if (timer != null) {
+            return timer;
+        }
+        timer = timers.computeIfAbsent(name, OperationTimer::new);
+        if (server != null) {
+            publish(timer);
+        }
+        return timer;
+    }
+
+    public List<OperationTimer> getTimers() {
+        return new ArrayList<>(timers.values());
+    }
+
+    @Override
+    public List<String> getOperationNames() {
+        return new ArrayList<>(timers.keySet());
+    }
+
+    public synchronized void registerMBeans() {
+        if (server != null) {
+            return;
+        }
+        MBeanServer platform = ManagementFactory.getPlatformMBeanServer();
+        try {
+            platform.registerMBean(this, new ObjectName(DOMAIN + ":type=Metrics"));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already published by an earlier registry user in this JVM.
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBean", e);
+        }
+        server = platform;
+        timers.values().forEach(this::publish);
+    }
+
+    private void publish(OperationTimer timer) {
+        if (published.putIfAbsent(timer.getName(), Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            server.registerMBean(timer, new ObjectName(DOMAIN + ":type=Operation,name="
+                    + ObjectName.quote(timer.getName())));
+        } catch (InstanceAlreadyExistsException e) {
+            // Same operation name registered twice; the first instance stays visible.
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register MBean for " + timer.getName(), e);
+        }
+    }
+
+    @Override
+    public String report() {
+        List<Map.Entry<String, LatencySnapshot>> rows = new ArrayList<>();
+        for (OperationTimer timer : timers.values()) {
+            LatencySnapshot snapshot = timer.getLatency();
+            if (snapshot.getCount() > 0) {
+                rows.add(Map.entry(timer.getName(), snapshot));
+            }
+        }
+        rows.sort(Comparator.comparingLong((Map.Entry<String, LatencySnapshot> row) -> row.getValue().getP99())
+                .reversed());
+        StringBuilder out = new StringBuilder(String.format("%-36s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<String, LatencySnapshot> row : rows) {
+            LatencySnapshot s = row.getValue();
+            out.append(String.format("%-36s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    row.getKey(), s.getCount(), s.getMean() / 1_000.0, s.getP50() / 1_000.0,
+                    s.getP99() / 1_000.0, s.getP999() / 1_000.0, s.getMax() / 1_000.0));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void resetAll() {
+        timers.values().forEach(OperationTimer::reset);
+    }
+}
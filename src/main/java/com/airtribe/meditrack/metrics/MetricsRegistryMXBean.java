@@ -0,0 +1,14 @@
+package com.airtribe.meditrack.metrics;
+
+import java.util.List;
+
+/** JMX view of the {@link MetricsRegistry}: {@code com.airtribe.meditrack:type=Metrics}. */
+public interface MetricsRegistryMXBean {
+
+    List<String> getOperationNames();
+
+    // One line per operation that has run, slowest p99 first.
+    String report();
+
+    void resetAll();
+}
@@ -0,0 +1,58 @@
+package com.airtribe.meditrack.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counter plus latency histogram for one named operation. Meant to be
+ * held in a final field and used as
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ * Recording allocates nothing: two {@code nanoTime} calls, a
+ * {@link LongAdder} increment and one histogram bucket increment.
+ */
+public final class OperationTimer implements OperationTimerMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        count.increment();
+        latency.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public LatencySnapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,17 @@
+package com.airtribe.meditrack.metrics;
+
+/**
+ * JMX view of one {@link OperationTimer}; registered as
+ * {@code com.airtribe.meditrack:type=Operation,name=<operation>}.
+ */
+public interface OperationTimerMXBean {
+
+    String getName();
+
+    long getCount();
+
+    // Percentiles in nanoseconds.
+    LatencySnapshot getLatency();
+
+    void reset();
+}
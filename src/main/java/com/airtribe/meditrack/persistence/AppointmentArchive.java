@@ -0,0 +1,377 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.LongObjectMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for appointments: one compressed segment file per calendar day,
+ * written by the tiering policy in {@code AppointmentService} once a day's
+ * completed and cancelled appointments are old enough.
+ *
+ * <pre>
+ * appointments-yyyy-MM-dd.seg
+ *   header  magic, version, record count
+ *   ids     the day's packed EntityId longs, sorted (uncompressed)
+ *   body    GZIP: per record in ID order, length + {@link RecordCodec} bytes
+ * </pre>
+ *
+ * Only headers and ID lists are read at startup, into a primitive-keyed
+ * map from appointment ID to day, so a lookup by ID decodes just its own
+ * segment and a date-range query reads only the days it spans. The last few
+ * decoded segments are kept in memory.
+ *
+ * <p>Records use the journal's appointment layout, which stores the patient
+ * and doctor by ID. They are resolved against the live stores each time an
+ * appointment is returned, not when a segment is decoded, so an archived
+ * appointment outlives its patient or doctor: a deleted one comes back as a
+ * placeholder named "(deleted)" that keeps only the ID. A patient
+ * merge moves archived appointments with {@link #repointPatient}.
+ */
+public class AppointmentArchive {
+
+    private static final int MAGIC = 0x4D544152; // "MTAR"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "appointments-";
+    private static final String SUFFIX = ".seg";
+    private static final String UNKNOWN_NAME = "(deleted)";
+
+    private final Path directory;
+    private final DataStore<Patient> patients;
+    private final DataStore<Doctor> doctors;
+    // Decodes references as placeholders holding just the ID; resolve() swaps in the live entities.
+    private final RecordCodec<Appointment> codec = EntityCodecs.appointments(AppointmentArchive::unknownPatient,
+            AppointmentArchive::unknownDoctor);
+    private final ConcurrentSkipListMap<LocalDate, Segment> segments = new ConcurrentSkipListMap<>();
+    private final LongObjectMap<LocalDate> dayById = new LongObjectMap<>();
+    // Access-ordered, unresolved; guarded by itself. Keyed by segment instance, so a rewritten
+    // day never hits an entry decoded from the file it replaced.
+    private final Map<Segment, List<Appointment>> decoded = new LinkedHashMap<>(16, 0.75f, true);
+
+    public AppointmentArchive(DataStore<Patient> patients, DataStore<Doctor> doctors) {
+        this(Path.of(Constants.ARCHIVE_DIR), patients, doctors);
+    }
+
+    public AppointmentArchive(Path directory, DataStore<Patient> patients, DataStore<Doctor> doctors) {
+        this.directory = directory;
+        this.patients = patients;
+        this.doctors = doctors;
+    }
+
+    /**
+     * Builds the index from the segment headers. Returns the number of
+     * archived appointments.
+     */
+    public long open() throws IOException {
+        Files.createDirectories(directory);
+        IdGenerator idGenerator = IdGenerator.getInstance();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                LocalDate day = dayOf(file);
+                if (day == null) {
+                    continue;
+                }
+                long[] ids = readIds(file);
+                if (ids.length > 0) {
+                    idGenerator.observe(ids[ids.length - 1]);
+                }
+                for (long id : ids) {
+                    dayById.put(id, day);
+                }
+                segments.put(day, new Segment(file, ids.length));
+                total += ids.length;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds one day's appointments to its segment (rewriting the segment if it
+     * already exists; a record with the same ID is replaced). The new segment
+     * is complete on disk before this returns, so callers may drop the
+     * appointments from the hot tier afterwards.
+     */
+    public synchronized void archive(LocalDate day, List<Appointment> appointments) throws IOException {
+        TreeMap<Long, byte[]> records = new TreeMap<>();
+        Segment existing = segments.get(day);
+        if (existing != null) {
+            readRecords(existing.file, records);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+        DataOutputStream encoder = new DataOutputStream(buffer);
+        for (Appointment appointment : appointments) {
+            buffer.reset();
+            codec.write(encoder, appointment);
+            encoder.flush();
+            records.put(EntityId.parse(appointment.getId()), buffer.toByteArray());
+        }
+
+        Path file = directory.resolve(PREFIX + day + SUFFIX);
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size());
+            for (long id : records.keySet()) {
+                out.writeLong(id);
+            }
+            DataOutputStream body = new DataOutputStream(new GZIPOutputStream(nonClosing(out)));
+            for (byte[] record : records.values()) {
+                body.writeShort(record.length);
+                body.write(record);
+            }
+            body.close();
+            out.flush();
+            // Durable before the caller evicts the hot copies.
+            stream.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (long id : records.keySet()) {
+            dayById.put(id, day);
+        }
+        segments.put(day, new Segment(file, records.size()));
+        if (existing != null) {
+            synchronized (decoded) {
+                decoded.remove(existing);
+            }
+        }
+    }
+
+    /**
+     * Points every archived appointment of patient {@code fromId} at
+     * {@code to}, rewriting only the segments that hold one. There is no
+     * index by patient, so this decodes the whole archive; it is meant for
+     * the occasional merge of duplicate records. Returns the number moved.
+     */
+    public synchronized int repointPatient(String fromId, Patient to) throws IOException {
+        int moved = 0;
+        for (LocalDate day : segments.keySet()) {
+            List<Appointment> repointed = new ArrayList<>();
+            for (Appointment appointment : decode(day)) {
+                if (appointment.getPatient().getId().equals(fromId)) {
+                    repointed.add(new Appointment(appointment.getId(), to, appointment.getDoctor(),
+                            appointment.getDateTime(), appointment.getStatus()));
+                }
+            }
+            if (!repointed.isEmpty()) {
+                archive(day, repointed);
+                moved += repointed.size();
+            }
+        }
+        return moved;
+    }
+
+    public boolean contains(String id) {
+        long key = EntityId.tryParse(id);
+        return key != EntityId.NONE && dayById.get(key) != null;
+    }
+
+    public Optional<Appointment> findById(String id) {
+        long key = EntityId.tryParse(id);
+        LocalDate day = key != EntityId.NONE ? dayById.get(key) : null;
+        if (day == null) {
+            return Optional.empty();
+        }
+        for (Appointment appointment : decode(day)) {
+            if (EntityId.tryParse(appointment.getId()) == key) {
+                return Optional.of(resolve(appointment));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Archived appointments in [from, to], in time order.
+    public List<Appointment> range(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> result = new ArrayList<>();
+        for (LocalDate day : segments.subMap(from.toLocalDate(), true, to.toLocalDate(), true).keySet()) {
+            for (Appointment appointment : decode(day)) {
+                LocalDateTime dateTime = appointment.getDateTime();
+                if (!dateTime.isBefore(from) && !dateTime.isAfter(to)) {
+                    result.add(resolve(appointment));
+                }
+            }
+        }
+        result.sort(Comparator.comparing(Appointment::getDateTime));
+        return result;
+    }
+
+    public long size() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.count;
+        }
+        return total;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    // The live patient and doctor if they still exist, else the decoded placeholders.
+    private Appointment resolve(Appointment stored) {
+        Patient patient = patients.findById(stored.getPatient().getId()).orElse(stored.getPatient());
+        Doctor doctor = doctors.findById(stored.getDoctor().getId()).orElse(stored.getDoctor());
+        return new Appointment(stored.getId(), patient, doctor, stored.getDateTime(), stored.getStatus());
+    }
+
+    private static Patient unknownPatient(String id) {
+        return new Patient(id, UNKNOWN_NAME, 0, "");
+    }
+
+    private static Doctor unknownDoctor(String id) {
+        return new Doctor(id, UNKNOWN_NAME, 0, "", null, 0);
+    }
+
+    private List<Appointment> decode(LocalDate day) {
+        Segment segment = segments.get(day);
+        if (segment == null) {
+            return List.of();
+        }
+        synchronized (decoded) {
+            List<Appointment> cached = decoded.get(segment);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        TreeMap<Long, byte[]> records = new TreeMap<>();
+        try {
+            readRecords(segment.file, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + segment.file, e);
+        }
+        List<Appointment> appointments = new ArrayList<>(records.size());
+        for (Map.Entry<Long, byte[]> record : records.entrySet()) {
+            try {
+                Appointment appointment = codec.read(EntityId.format(record.getKey()),
+                        new DataInputStream(new ByteArrayInputStream(record.getValue())));
+                if (appointment != null) {
+                    appointments.add(appointment);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupt record in archive segment " + segment.file, e);
+            }
+        }
+        List<Appointment> result = List.copyOf(appointments);
+        synchronized (decoded) {
+            // If archive() replaced the segment while it was read, no lookup reaches this
+            // decode again; caching it would only hold memory, so the caller alone gets it.
+            if (segments.get(day) != segment) {
+                return result;
+            }
+            decoded.put(segment, result);
+            if (decoded.size() > Constants.ARCHIVE_CACHED_SEGMENTS) {
+                decoded.remove(decoded.keySet().iterator().next());
+            }
+        }
+        return result;
+    }
+
+    private static long[] readIds(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = readHeader(in, file);
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readLong();
+            }
+            return ids;
+        }
+    }
+
+    private static void readRecords(Path file, Map<Long, byte[]> into) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = readHeader(in, file);
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readLong();
+            }
+            DataInputStream body = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+            for (long id : ids) {
+                byte[] record = new byte[body.readUnsignedShort()];
+                body.readFully(record);
+                into.put(id, record);
+            }
+        }
+    }
+
+    private static int readHeader(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unrecognised archive segment: " + file);
+        }
+        return in.readInt();
+    }
+
+    private static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return LocalDate.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    // Lets the GZIP stream finish its trailer without closing the file stream underneath.
+    private static OutputStream nonClosing(OutputStream out) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final int count;
+
+        private Segment(Path file, int count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+}
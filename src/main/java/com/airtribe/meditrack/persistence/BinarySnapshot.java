@@ -0,0 +1,290 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.IdGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary snapshot of doctors, patients, appointments and the
+ * bill ledger, read back through a {@link MappedByteBuffer} so cold start is a sequence of
+ * absolute reads instead of text parsing and validation.
+ *
+ * <pre>
+ * header      magic, version, doctor/patient/appointment counts,
+ *             offsets of the three record sections and the string table,
+ *             then (version 2) the ledger count and offset
+ * doctors     fixed 29-byte records: id, name#, age, phone#, specialization, fee
+ * patients    fixed 20-byte records: id, name#, age, phone#
+ * appointments fixed 33-byte records: id, patient id, doctor id, epoch second, status
+ * ledger      fixed 52-byte records: bill id, appointment id, doctor id, epoch second,
+ *             strategy#, base amount, total amount
+ * strings     count, end offsets, UTF-8 bytes (each distinct string stored once)
+ * </pre>
+ *
+ * IDs are stored as packed {@link EntityId} longs and enums by ordinal.
+ * Version 1 files (no ledger) are still read.
+ * A single mapping limits a snapshot to 2 GiB.
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x4D54534E; // "MTSN"
+    private static final int VERSION = 2;
+    private static final int V1_HEADER_BYTES = 4 + 4 + 3 * 4 + 4 * 8;
+    private static final int HEADER_BYTES = V1_HEADER_BYTES + 4 + 8;
+    private static final int DOCTOR_BYTES = 8 + 4 + 4 + 4 + 1 + 8;
+    private static final int PATIENT_BYTES = 8 + 4 + 4 + 4;
+    private static final int APPOINTMENT_BYTES = 8 + 8 + 8 + 8 + 1;
+    private static final int LEDGER_BYTES = 8 + 8 + 8 + 8 + 4 + 8 + 8;
+
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private BinarySnapshot() {
+    }
+
+    public static void write(Path path,
+                             DataStore<Doctor> doctors,
+                             DataStore<Patient> patients,
+                             DataStore<Appointment> appointments,
+                             DataStore<LedgerEntry> ledger) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        StringTable strings = new StringTable();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        int doctorCount = 0;
+        int patientCount = 0;
+        int appointmentCount = 0;
+        int ledgerCount = 0;
+        long doctorsOffset = HEADER_BYTES;
+        long patientsOffset;
+        long appointmentsOffset;
+        long ledgerOffset;
+        long stringsOffset;
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.write(new byte[HEADER_BYTES]); // patched below once offsets are known
+
+            for (Doctor d : doctors.snapshot()) {
+                out.writeLong(EntityId.parse(d.getId()));
+                out.writeInt(strings.indexOf(d.getName()));
+                out.writeInt(d.getAge());
+                out.writeInt(strings.indexOf(d.getPhone()));
+                out.writeByte(d.getSpecialization().ordinal());
+                out.writeDouble(d.getConsultationFee());
+                doctorCount++;
+            }
+            patientsOffset = doctorsOffset + (long) doctorCount * DOCTOR_BYTES;
+            for (Patient p : patients.snapshot()) {
+                out.writeLong(EntityId.parse(p.getId()));
+                out.writeInt(strings.indexOf(p.getName()));
+                out.writeInt(p.getAge());
+                out.writeInt(strings.indexOf(p.getPhone()));
+                patientCount++;
+            }
+            appointmentsOffset = patientsOffset + (long) patientCount * PATIENT_BYTES;
+            for (Appointment a : appointments.snapshot()) {
+                out.writeLong(EntityId.parse(a.getId()));
+                out.writeLong(EntityId.parse(a.getPatient().getId()));
+                out.writeLong(EntityId.parse(a.getDoctor().getId()));
+                out.writeLong(a.getDateTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeByte(a.getStatus().ordinal());
+                appointmentCount++;
+            }
+            ledgerOffset = appointmentsOffset + (long) appointmentCount * APPOINTMENT_BYTES;
+            for (LedgerEntry e : ledger.snapshot()) {
+                out.writeLong(EntityId.parse(e.getBillId()));
+                out.writeLong(EntityId.parse(e.getAppointmentId()));
+                out.writeLong(EntityId.parse(e.getDoctorId()));
+                out.writeLong(e.getAppointmentTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(strings.indexOf(e.getStrategy()));
+                out.writeDouble(e.getBaseAmount());
+                out.writeDouble(e.getTotalAmount());
+                ledgerCount++;
+            }
+            stringsOffset = ledgerOffset + (long) ledgerCount * LEDGER_BYTES;
+            strings.writeTo(out);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putInt(doctorCount).putInt(patientCount).putInt(appointmentCount)
+                    .putLong(doctorsOffset).putLong(patientsOffset)
+                    .putLong(appointmentsOffset).putLong(stringsOffset)
+                    .putInt(ledgerCount).putLong(ledgerOffset)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot straight into the stores (bypassing service-level
+     * validation, which the data already passed when it was written) and
+     * returns the number of records loaded. Ledger entries go through
+     * {@code ledger.save} like the rest, so a ledger's rollups follow.
+     */
+    public static int read(Path path,
+                           DataStore<Doctor> doctors,
+                           DataStore<Patient> patients,
+                           DataStore<Appointment> appointments,
+                           DataStore<LedgerEntry> ledger) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a MediTrack snapshot: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + path);
+        }
+        int doctorCount = buffer.getInt(8);
+        int patientCount = buffer.getInt(12);
+        int appointmentCount = buffer.getInt(16);
+        int doctorsOffset = checkedOffset(buffer.getLong(20));
+        int patientsOffset = checkedOffset(buffer.getLong(28));
+        int appointmentsOffset = checkedOffset(buffer.getLong(36));
+        int stringsOffset = checkedOffset(buffer.getLong(44));
+        int ledgerCount = version >= 2 ? buffer.getInt(V1_HEADER_BYTES) : 0;
+        int ledgerOffset = version >= 2 ? checkedOffset(buffer.getLong(V1_HEADER_BYTES + 4)) : 0;
+
+        String[] strings = readStrings(buffer, stringsOffset);
+        IdGenerator idGenerator = IdGenerator.getInstance();
+
+        for (int i = 0, at = doctorsOffset; i < doctorCount; i++, at += DOCTOR_BYTES) {
+            long id = buffer.getLong(at);
+            String text = EntityId.format(id);
+            doctors.save(text, new Doctor(text,
+                    strings[buffer.getInt(at + 8)],
+                    buffer.getInt(at + 12),
+                    strings[buffer.getInt(at + 16)],
+                    SPECIALIZATIONS[buffer.get(at + 20)],
+                    buffer.getDouble(at + 21)));
+            idGenerator.observe(id);
+        }
+        for (int i = 0, at = patientsOffset; i < patientCount; i++, at += PATIENT_BYTES) {
+            long id = buffer.getLong(at);
+            String text = EntityId.format(id);
+            patients.save(text, new Patient(text,
+                    strings[buffer.getInt(at + 8)],
+                    buffer.getInt(at + 12),
+                    strings[buffer.getInt(at + 16)]));
+            idGenerator.observe(id);
+        }
+        int loadedAppointments = 0;
+        for (int i = 0, at = appointmentsOffset; i < appointmentCount; i++, at += APPOINTMENT_BYTES) {
+            long id = buffer.getLong(at);
+            Patient patient = patients.findById(buffer.getLong(at + 8)).orElse(null);
+            Doctor doctor = doctors.findById(buffer.getLong(at + 16)).orElse(null);
+            idGenerator.observe(id);
+            if (patient == null || doctor == null) {
+                continue;
+            }
+            String text = EntityId.format(id);
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(buffer.getLong(at + 24), 0, ZoneOffset.UTC);
+            appointments.save(text, new Appointment(text, patient, doctor, dateTime, STATUSES[buffer.get(at + 32)]));
+            loadedAppointments++;
+        }
+        for (int i = 0, at = ledgerOffset; i < ledgerCount; i++, at += LEDGER_BYTES) {
+            long id = buffer.getLong(at);
+            String text = EntityId.format(id);
+            ledger.save(text, new LedgerEntry(text,
+                    EntityId.format(buffer.getLong(at + 8)),
+                    EntityId.format(buffer.getLong(at + 16)),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(at + 24), 0, ZoneOffset.UTC),
+                    strings[buffer.getInt(at + 32)],
+                    buffer.getDouble(at + 36),
+                    buffer.getDouble(at + 44)));
+            idGenerator.observe(id);
+        }
+        return doctorCount + patientCount + loadedAppointments + ledgerCount;
+    }
+
+    private static int checkedOffset(long offset) throws IOException {
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section offset out of range: " + offset);
+        }
+        return (int) offset;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int offset) {
+        int count = buffer.getInt(offset);
+        int endsAt = offset + 4;
+        int bytesAt = endsAt + count * 4;
+        String[] strings = new String[count];
+        byte[] scratch = new byte[256];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = buffer.getInt(endsAt + i * 4);
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            buffer.get(bytesAt + start, scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            start = end;
+        }
+        return strings;
+    }
+
+    // Deduplicating string table; stores cumulative end offsets so lookups are O(1).
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            String key = value != null ? value : "";
+            Integer index = indexes.get(key);
+            if (index == null) {
+                index = values.size();
+                indexes.put(key, index);
+                values.add(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            int end = 0;
+            for (byte[] value : values) {
+                end += value.length;
+                out.writeInt(end);
+            }
+            for (byte[] value : values) {
+                out.write(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.DataStore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+/**
+ * {@link RecordCodec}s for the core entities. Enums are stored by ordinal
+ * and timestamps as epoch seconds to keep records small.
+ */
+public final class EntityCodecs {
+
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private EntityCodecs() {
+    }
+
+    public static RecordCodec<Patient> patients() {
+        return new RecordCodec<>() {
+            @Override
+            public void write(DataOutput out, Patient p) throws IOException {
+                out.writeUTF(p.getName());
+                out.writeInt(p.getAge());
+                out.writeUTF(p.getPhone());
+            }
+
+            @Override
+            public Patient read(String id, DataInput in) throws IOException {
+                return new Patient(id, in.readUTF(), in.readInt(), in.readUTF());
+            }
+        };
+    }
+
+    public static RecordCodec<Doctor> doctors() {
+        return new RecordCodec<>() {
+            @Override
+            public void write(DataOutput out, Doctor d) throws IOException {
+                out.writeUTF(d.getName());
+                out.writeInt(d.getAge());
+                out.writeUTF(d.getPhone());
+                out.writeByte(d.getSpecialization().ordinal());
+                out.writeDouble(d.getConsultationFee());
+            }
+
+            @Override
+            public Doctor read(String id, DataInput in) throws IOException {
+                return new Doctor(id, in.readUTF(), in.readInt(), in.readUTF(),
+                        SPECIALIZATIONS[in.readUnsignedByte()], in.readDouble());
+            }
+        };
+    }
+
+    // References resolve against the live stores; a record whose patient or doctor is gone is skipped.
+    public static RecordCodec<Appointment> appointments(DataStore<Patient> patients, DataStore<Doctor> doctors) {
+        return appointments(id -> patients.findById(id).orElse(null), id -> doctors.findById(id).orElse(null));
+    }
+
+    // Patient and doctor are stored by ID and resolved on read; a null from either resolver skips the record.
+    public static RecordCodec<Appointment> appointments(Function<String, Patient> patients,
+                                                        Function<String, Doctor> doctors) {
+        return new RecordCodec<>() {
+            @Override
+            public void write(DataOutput out, Appointment a) throws IOException {
+                out.writeUTF(a.getPatient().getId());
+                out.writeUTF(a.getDoctor().getId());
+                out.writeLong(a.getDateTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeByte(a.getStatus().ordinal());
+            }
+
+            @Override
+            public Appointment read(String id, DataInput in) throws IOException {
+                Patient patient = patients.apply(in.readUTF());
+                Doctor doctor = doctors.apply(in.readUTF());
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                AppointmentStatus status = STATUSES[in.readUnsignedByte()];
+                if (patient == null || doctor == null) {
+                    return null;
+                }
+                return new Appointment(id, patient, doctor, dateTime, status);
+            }
+        };
+    }
+
+    public static RecordCodec<LedgerEntry> ledgerEntries() {
+        return new RecordCodec<>() {
+            @Override
+            public void write(DataOutput out, LedgerEntry e) throws IOException {
+                out.writeUTF(e.getAppointmentId());
+                out.writeUTF(e.getDoctorId());
+                out.writeLong(e.getAppointmentTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeUTF(e.getStrategy());
+                out.writeDouble(e.getBaseAmount());
+                out.writeDouble(e.getTotalAmount());
+            }
+
+            @Override
+            public LedgerEntry read(String id, DataInput in) throws IOException {
+                return new LedgerEntry(id, in.readUTF(), in.readUTF(),
+                        LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC),
+                        in.readUTF(), in.readDouble(), in.readDouble());
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wires one {@link WriteAheadLog} per store: replays them on startup (patients
+ * and doctors before appointments, which reference both; the bill ledger
+ * last), attaches them as store listeners and runs periodic checkpoints in
+ * the background.
+ */
+public class JournalManager implements AutoCloseable {
+
+    private final DataStore<Patient> patientStore;
+    private final DataStore<Doctor> doctorStore;
+    private final DataStore<Appointment> appointmentStore;
+    private final DataStore<LedgerEntry> ledgerStore;
+    private final WriteAheadLog<Patient> patientLog;
+    private final WriteAheadLog<Doctor> doctorLog;
+    private final WriteAheadLog<Appointment> appointmentLog;
+    private final WriteAheadLog<LedgerEntry> ledgerLog;
+    private ScheduledExecutorService checkpointer;
+
+    public JournalManager(DataStore<Patient> patientStore,
+                          DataStore<Doctor> doctorStore,
+                          DataStore<Appointment> appointmentStore,
+                          DataStore<LedgerEntry> ledgerStore) {
+        this(Path.of(Constants.JOURNAL_DIR), patientStore, doctorStore, appointmentStore, ledgerStore);
+    }
+
+    public JournalManager(Path directory,
+                          DataStore<Patient> patientStore,
+                          DataStore<Doctor> doctorStore,
+                          DataStore<Appointment> appointmentStore,
+                          DataStore<LedgerEntry> ledgerStore) {
+        this.patientStore = patientStore;
+        this.doctorStore = doctorStore;
+        this.appointmentStore = appointmentStore;
+        this.ledgerStore = ledgerStore;
+        this.patientLog = newLog("patients", directory, EntityCodecs.patients());
+        this.doctorLog = newLog("doctors", directory, EntityCodecs.doctors());
+        this.appointmentLog = newLog("appointments", directory,
+                EntityCodecs.appointments(patientStore, doctorStore));
+        this.ledgerLog = newLog("bills", directory, EntityCodecs.ledgerEntries());
+    }
+
+    private static <T> WriteAheadLog<T> newLog(String name, Path directory, RecordCodec<T> codec) {
+        return new WriteAheadLog<>(name, directory.resolve(name), codec,
+                Constants.JOURNAL_COMMIT_INTERVAL_MS, Constants.JOURNAL_COMMIT_BATCH_BYTES);
+    }
+
+    /**
+     * Replays the journal into the (empty) stores, then starts journaling
+     * every subsequent change and schedules checkpoints.
+     */
+    public void start() throws IOException {
+        int patients = patientLog.recover(patientStore);
+        int doctors = doctorLog.recover(doctorStore);
+        int appointments = appointmentLog.recover(appointmentStore);
+        int bills = ledgerLog.recover(ledgerStore);
+        System.out.println("Journal replayed: " + patients + " patient, " + doctors + " doctor, "
+                + appointments + " appointment, " + bills + " bill records.");
+
+        for (WriteAheadLog<?> log : logs()) {
+            log.open();
+        }
+        patientStore.addListener(patientLog);
+        doctorStore.addListener(doctorLog);
+        appointmentStore.addListener(appointmentLog);
+        ledgerStore.addListener(ledgerLog);
+
+        checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "meditrack-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Constants.JOURNAL_CHECKPOINT_INTERVAL_SECONDS;
+        checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public void checkpoint() throws IOException {
+        for (WriteAheadLog<?> log : logs()) {
+            log.checkpoint();
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.err.println("Journal checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            try {
+                checkpointer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        patientStore.removeListener(patientLog);
+        doctorStore.removeListener(doctorLog);
+        appointmentStore.removeListener(appointmentLog);
+        ledgerStore.removeListener(ledgerLog);
+        for (WriteAheadLog<?> log : logs()) {
+            log.close();
+        }
+    }
+
+    private List<WriteAheadLog<?>> logs() {
+        return List.of(patientLog, doctorLog, appointmentLog, ledgerLog);
+    }
+}
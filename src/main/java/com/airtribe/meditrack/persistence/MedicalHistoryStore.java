@@ -0,0 +1,271 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.entity.HistorySegment;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Medical history on disk: one append-only segment file per patient
+ * ({@code <id>.hist}), each entry an {@code int} byte length followed by
+ * the entry in UTF-8. On startup {@link #attachAll(DataStore)} gives every
+ * patient with a file a lazy {@link HistorySegment}, so history is only
+ * read when it is viewed. As a {@link StoreListener} on the patient store
+ * it queues the entries added since the last save, and the removal of the
+ * file when the patient is deleted.
+ *
+ * <p>Listeners run inside the store's per-id update, so no file IO happens
+ * there: a single writer thread applies the queued appends and deletes in
+ * order. {@link #flush()} waits for it; {@link #close()} drains it and
+ * reports the first write that failed.
+ *
+ * <p>Opening a segment scans the record headers once and remembers the
+ * byte offset of every {@value #INDEX_STRIDE}th entry, so reading a page
+ * seeks close to it instead of reading the file from the start. A torn
+ * last record (crash mid-append) is cut off, so later appends follow the
+ * last complete entry.
+ */
+public class MedicalHistoryStore implements StoreListener<Patient>, AutoCloseable {
+
+    private static final String SUFFIX = ".hist";
+    private static final int INDEX_STRIDE = 64;
+
+    private final Path directory;
+    // Entries written or queued per patient; saves append everything past this.
+    private final Map<String, Integer> persistedCounts = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "meditrack-history");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile IOException failure;
+
+    public MedicalHistoryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Attaches the segment file of every stored patient that has one.
+     * Call once after patients are loaded and before registering this
+     * store as a listener. Returns the number of patients attached.
+     */
+    public int attachAll(DataStore<Patient> patients) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int attached = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    continue;
+                }
+                String id = name.substring(0, name.length() - SUFFIX.length());
+                Patient patient = patients.findById(id).orElse(null);
+                if (patient == null) {
+                    continue;
+                }
+                Segment segment = Segment.open(file);
+                patient.attachPersistedHistory(segment);
+                persistedCounts.put(patient.getId(), segment.size());
+                attached++;
+            }
+        }
+        return attached;
+    }
+
+    @Override
+    public void onSave(String id, Patient previous, Patient current) {
+        Integer known = persistedCounts.get(id);
+        int persisted = known != null ? known : 0;
+        int total = current.getMedicalHistorySize();
+        if (total <= persisted) {
+            return;
+        }
+        // Unsaved entries are in memory, so this page never touches the file.
+        List<String> unsaved = current.getMedicalHistoryPage(persisted, total - persisted);
+        Path file = fileFor(id);
+        // A patient with no file yet starts a new one, replacing any leftover.
+        boolean fresh = known == null;
+        persistedCounts.put(id, total);
+        writer.execute(() -> write(id, () -> append(file, unsaved, fresh)));
+    }
+
+    @Override
+    public void onDelete(String id, Patient removed) {
+        persistedCounts.remove(id);
+        Path file = fileFor(id);
+        writer.execute(() -> write(id, () -> Files.deleteIfExists(file)));
+    }
+
+    /** Waits until every change queued so far is on disk (or has failed). */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Drains the queue and stops the writer; throws the first write failure, if any. */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private interface FileOperation {
+        void run() throws IOException;
+    }
+
+    private void write(String id, FileOperation operation) {
+        try {
+            operation.run();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = new IOException("Failed to write medical history for " + id, e);
+            }
+        }
+    }
+
+    private void append(Path file, List<String> entries, boolean fresh) throws IOException {
+        Files.createDirectories(directory);
+        StandardOpenOption mode = fresh ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+        try (OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, mode);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            for (String entry : entries) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private Path fileFor(String id) {
+        return directory.resolve(id + SUFFIX);
+    }
+
+    // The first size() entries of one patient's file, as they were when opened.
+    static final class Segment implements HistorySegment {
+
+        private final Path file;
+        private final int size;
+        private final long[] offsets;
+
+        private Segment(Path file, int size, long[] offsets) {
+            this.file = file;
+            this.size = size;
+            this.offsets = offsets;
+        }
+
+        // Indexes the complete records and truncates anything after the last one.
+        static Segment open(Path file) throws IOException {
+            long length = Files.size(file);
+            long[] offsets = new long[16];
+            int count = 0;
+            long position = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (position + 4 <= length) {
+                    int recordLength = in.readInt();
+                    if (recordLength < 0 || position + 4 + recordLength > length) {
+                        break;
+                    }
+                    if (count % INDEX_STRIDE == 0) {
+                        int slot = count / INDEX_STRIDE;
+                        if (slot == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, slot * 2);
+                        }
+                        offsets[slot] = position;
+                    }
+                    in.skipNBytes(recordLength);
+                    position += 4 + recordLength;
+                    count++;
+                }
+            }
+            if (position < length) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(position);
+                }
+            }
+            return new Segment(file, count, offsets);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public List<String> page(int from, int limit) {
+            int start = Math.max(from, 0);
+            int end = (int) Math.min(size, (long) start + Math.max(limit, 0));
+            if (start >= end) {
+                return Collections.emptyList();
+            }
+            List<String> entries = new ArrayList<>(end - start);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(offsets[start / INDEX_STRIDE]);
+                InputStream stream = Channels.newInputStream(channel);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+                for (int i = start - start % INDEX_STRIDE; i < start; i++) {
+                    in.skipNBytes(in.readInt());
+                }
+                for (int i = start; i < end; i++) {
+                    int length = in.readInt();
+                    byte[] bytes = in.readNBytes(length);
+                    if (bytes.length < length) {
+                        throw new EOFException();
+                    }
+                    entries.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+            } catch (EOFException e) {
+                throw new UncheckedIOException("Medical history file truncated: " + file, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read medical history: " + file, e);
+            }
+            return entries;
+        }
+
+        @Override
+        public List<String> readAll() {
+            return page(0, size);
+        }
+    }
+}
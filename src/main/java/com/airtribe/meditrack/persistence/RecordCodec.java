@@ -0,0 +1,19 @@
+package com.airtribe.meditrack.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary encoding of one entity type for the journal and its
+ * checkpoints. The entity ID is framed by the journal itself, so codecs
+ * only encode the remaining fields. {@link #read(String, DataInput)} may return {@code null} when a
+ * record refers to something that no longer exists (e.g. an appointment
+ * whose patient was deleted); such records are skipped on replay.
+ */
+public interface RecordCodec<T> {
+
+    void write(DataOutput out, T entity) throws IOException;
+
+    T read(String id, DataInput in) throws IOException;
+}
@@ -0,0 +1,472 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.jfr.JournalCommitEvent;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal for one {@link DataStore}. Every save/delete is
+ * encoded as a small framed record ({@code [length][crc32][op][id][fields]})
+ * into an in-memory batch; a committer thread writes and {@code fsync}s the
+ * batch every few milliseconds (group commit), so write cost is
+ * proportional to what changed and a crash loses at most one batch.
+ *
+ * <p>The log is split into numbered segments. A checkpoint seals the
+ * current segment and compacts the previous checkpoint plus all sealed
+ * segments into a new checkpoint file (latest record per ID wins), then
+ * deletes those segments. Compaction reads the journal rather than the
+ * live store, so it never races with in-flight writes. Recovery loads the
+ * checkpoint and replays the remaining segments in order, stopping at the
+ * first torn record.
+ *
+ * <p>A batch whose write or {@code fsync} fails is kept and retried on a
+ * fresh segment (part of it may have reached the old one, where replay sees
+ * a torn tail), so an I/O error delays durability instead of dropping
+ * changes; {@link #close()} reports it if the last attempt fails too.
+ */
+public class WriteAheadLog<T> implements StoreListener<T>, AutoCloseable {
+
+    private static final byte OP_SAVE = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int CHECKPOINT_MAGIC = 0x4D545743; // "MTWC"
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+    // Far above any real record; a larger length read back is a torn or corrupt frame.
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private final String name;
+    private final Path directory;
+    private final RecordCodec<T> codec;
+    private final long commitIntervalMillis;
+    private final int commitBatchBytes;
+
+    // Guards the pending batch; appenders only ever hold this briefly.
+    private final Object batchLock = new Object();
+    // Serialises file I/O (committer writes vs. segment rotation). Order: ioLock -> batchLock.
+    private final Object ioLock = new Object();
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel channel;
+    private long segmentNumber;
+    private volatile boolean running;
+    private Thread committer;
+    private IOException failure;
+
+    public WriteAheadLog(String name, Path directory, RecordCodec<T> codec,
+                         long commitIntervalMillis, int commitBatchBytes) {
+        this.name = name;
+        this.directory = directory;
+        this.codec = codec;
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.commitBatchBytes = commitBatchBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Replays the checkpoint and log segments into {@code store}. Must be
+     * called before {@link #open()} and before this log is attached as a
+     * listener, so replayed entities are not journaled again.
+     */
+    public int recover(DataStore<T> store) throws IOException {
+        Files.createDirectories(directory);
+        int[] applied = new int[1];
+        RecordSink sink = (op, id, fields) -> {
+            if (op == OP_DELETE) {
+                store.delete(id);
+            } else {
+                T entity = codec.read(id, new DataInputStream(new ByteArrayInputStream(fields)));
+                if (entity == null) {
+                    return;
+                }
+                store.save(id, entity);
+                long key = EntityId.tryParse(id);
+                if (key != EntityId.NONE) {
+                    IdGenerator.getInstance().observe(key);
+                }
+            }
+            applied[0]++;
+        };
+        readCheckpoint(sink);
+        for (Path segment : listSegments(Long.MAX_VALUE)) {
+            readRecords(segment, sink);
+        }
+        return applied[0];
+    }
+
+    /**
+     * Starts a fresh segment and the group-commit thread. A new segment is
+     * used on every start so nothing is ever appended after a torn tail.
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments(Long.MAX_VALUE);
+        segmentNumber = existing.isEmpty() ? 1 : segmentNumberOf(existing.get(existing.size() - 1)) + 1;
+        channel = openSegment(segmentNumber);
+        running = true;
+        committer = new Thread(this::commitLoop, "meditrack-wal-" + name);
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @Override
+    public void onSave(String id, T previous, T current) {
+        append(OP_SAVE, id, current);
+    }
+
+    @Override
+    public void onDelete(String id, T removed) {
+        append(OP_DELETE, id, null);
+    }
+
+    // An evicted entity still exists in another tier: the journal keeps its last saved
+    // copy, so a restart without that tier still has it (and a tiering pass moves it again).
+    @Override
+    public void onEvict(String id, T evicted) {
+    }
+
+    private void append(byte op, String id, T entity) {
+        RecordBuffer record = RecordBuffer.forCurrentThread();
+        try {
+            DataOutputStream out = record.begin();
+            out.writeByte(op);
+            out.writeUTF(id);
+            if (entity != null) {
+                codec.write(out, entity);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode journal record for " + id, e);
+        }
+        if (record.size() > MAX_FRAME_BYTES) {
+            throw new UncheckedIOException(new IOException("Journal record for " + id + " is too large"));
+        }
+        synchronized (batchLock) {
+            record.frameInto(pending);
+            if (pending.size() >= commitBatchBytes) {
+                batchLock.notifyAll();
+            }
+        }
+    }
+
+    private void commitLoop() {
+        while (running) {
+            try {
+                synchronized (batchLock) {
+                    if (pending.size() < commitBatchBytes) {
+                        batchLock.wait(commitIntervalMillis);
+                    }
+                }
+                commit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                synchronized (batchLock) {
+                    failure = e;
+                }
+                System.err.println("Journal " + name + " commit failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes and fsyncs whatever is pending. Returns once the batch is
+     * durable; if it throws, the batch is still pending and the next commit
+     * retries it on a new segment.
+     */
+    public void commit() throws IOException {
+        synchronized (ioLock) {
+            ByteArrayOutputStream batch;
+            synchronized (batchLock) {
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = new ByteArrayOutputStream(Math.max(batch.size(), 256));
+            }
+            // Empty ticks return above, so only real batches are recorded.
+            JournalCommitEvent event = new JournalCommitEvent();
+            event.begin();
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            try {
+                if (channel == null) {
+                    channel = openSegment(segmentNumber);
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                requeue(batch);
+                abandonSegment();
+                throw e;
+            }
+            synchronized (batchLock) {
+                failure = null;
+            }
+            if (event.shouldCommit()) {
+                event.journal = name;
+                event.bytes = buffer.capacity();
+                event.commit();
+            }
+        }
+    }
+
+    // Puts a failed batch back in front of whatever was appended since it was taken.
+    private void requeue(ByteArrayOutputStream batch) {
+        synchronized (batchLock) {
+            batch.write(pending.toByteArray(), 0, pending.size());
+            pending = batch;
+        }
+    }
+
+    // After a failed write the segment may end in part of a frame; later batches go to the next one.
+    private void abandonSegment() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The segment is given up either way.
+            }
+            channel = null;
+        }
+        segmentNumber++;
+    }
+
+    /**
+     * Seals the current segment and compacts checkpoint + sealed segments
+     * into a new checkpoint. Appends continue into the next segment while
+     * compaction runs.
+     */
+    public void checkpoint() throws IOException {
+        long sealed;
+        synchronized (ioLock) {
+            commit();
+            channel.close();
+            sealed = segmentNumber;
+            segmentNumber++;
+            channel = openSegment(segmentNumber);
+        }
+
+        Map<String, byte[]> live = new LinkedHashMap<>();
+        RecordSink compactor = (op, id, fields) -> {
+            if (op == OP_DELETE) {
+                live.remove(id);
+            } else {
+                live.put(id, fields);
+            }
+        };
+        readCheckpoint(compactor);
+        List<Path> sealedSegments = listSegments(sealed);
+        for (Path segment : sealedSegments) {
+            readRecords(segment, compactor);
+        }
+
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(out)))) {
+            data.writeInt(CHECKPOINT_MAGIC);
+            data.writeInt(CHECKPOINT_VERSION);
+            RecordBuffer record = RecordBuffer.forCurrentThread();
+            for (Map.Entry<String, byte[]> entry : live.entrySet()) {
+                DataOutputStream body = record.begin();
+                body.writeByte(OP_SAVE);
+                body.writeUTF(entry.getKey());
+                body.write(entry.getValue());
+                body.flush();
+                record.frameInto(data);
+            }
+            data.flush();
+            out.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path segment : sealedSegments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (committer != null) {
+            synchronized (batchLock) {
+                batchLock.notifyAll();
+            }
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (segmentNumber > 0) {
+            commit();
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        synchronized (batchLock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(directory.resolve(segmentFileName(number)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listSegments(long upTo) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .filter(p -> segmentNumberOf(p) <= upTo)
+                    .sorted((a, b) -> Long.compare(segmentNumberOf(a), segmentNumberOf(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String segmentFileName(long number) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumberOf(Path segment) {
+        String file = segment.getFileName().toString();
+        return Long.parseLong(file.substring(SEGMENT_PREFIX.length(), file.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void readCheckpoint(RecordSink sink) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Unrecognised journal checkpoint: " + checkpoint);
+            }
+            readFrames(in, Files.size(checkpoint) - 8, sink);
+        }
+    }
+
+    private void readRecords(Path segment, RecordSink sink) throws IOException {
+        try (InputStream raw = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            readFrames(in, Files.size(segment), sink);
+        }
+    }
+
+    // Applies frames until EOF or the first torn/corrupt frame (the tail of a crashed batch).
+    // A length past the bytes left in the file, or beyond any real record, counts as torn.
+    private void readFrames(DataInputStream in, long remaining, RecordSink sink) throws IOException {
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            int checksum;
+            byte[] body;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                remaining -= 8;
+                if (length <= 0 || length > MAX_FRAME_BYTES || length > remaining) {
+                    return;
+                }
+                remaining -= length;
+                body = new byte[length];
+                in.readFully(body);
+            } catch (EOFException e) {
+                return;
+            }
+            crc.reset();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+            byte op = record.readByte();
+            String id = record.readUTF();
+            byte[] fields = record.readAllBytes();
+            sink.accept(op, id, fields);
+        }
+    }
+
+    private interface RecordSink {
+        void accept(byte op, String id, byte[] fields) throws IOException;
+    }
+
+    // Per-thread scratch buffer so encoding a record allocates nothing beyond growth.
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        private static final ThreadLocal<RecordBuffer> LOCAL = ThreadLocal.withInitial(RecordBuffer::new);
+
+        private final DataOutputStream data = new DataOutputStream(this);
+        private final CRC32 crc = new CRC32();
+
+        static RecordBuffer forCurrentThread() {
+            return LOCAL.get();
+        }
+
+        DataOutputStream begin() {
+            reset();
+            return data;
+        }
+
+        void frameInto(OutputStream target) {
+            crc.reset();
+            crc.update(buf, 0, count);
+            try {
+                writeInt(target, count);
+                writeInt(target, (int) crc.getValue());
+                target.write(buf, 0, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void writeInt(OutputStream target, int v) throws IOException {
+            target.write((v >>> 24) & 0xFF);
+            target.write((v >>> 16) & 0xFF);
+            target.write((v >>> 8) & 0xFF);
+            target.write(v & 0xFF);
+        }
+    }
+}
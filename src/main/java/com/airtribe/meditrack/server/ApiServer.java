@@ -0,0 +1,563 @@
+package com.airtribe.meditrack.server;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AvailableSlot;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillingRunResult;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.DoctorRank;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.AppointmentAlreadyBilledException;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.exception.InvalidStatusTransitionException;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.AIHelper;
+import com.airtribe.meditrack.util.DateUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless mode: the patient, doctor, appointment, billing and
+ * recommendation operations as a JSON API on the JDK's built-in
+ * {@link HttpServer}. Requests go straight to the same services the
+ * console menus use, so both share one set of {@code DataStore}s.
+ *
+ * <p>Each request runs on its own virtual thread when the JVM has them
+ * (JDK 21+); a request blocked on a lock or on disk then parks instead of
+ * holding a platform thread, so thousands of terminals can be connected
+ * at once. Older JVMs fall back to a cached thread pool. Responses are
+ * streamed with {@link JsonWriter} (chunked), so listing every patient
+ * never builds the whole body in memory.
+ *
+ * <pre>
+ * GET    /patients[?name=|prefix=|fuzzy=|phone=|age=|minAge=&amp;maxAge=][&amp;limit=]
+ * POST   /patients                      {name, age, phone}
+ * GET    /patients/{id}                 DELETE /patients/{id}
+ * GET    /patients/{id}/history[?from=&amp;limit=]
+ * POST   /patients/{id}/history         {entry}
+ * GET    /patients/{id}/appointments
+ * GET    /doctors[?specialization=]     POST /doctors {name, age, phone, specialization, fee}
+ * GET    /doctors/{id}                  DELETE /doctors/{id}
+ * GET    /appointments[?doctorId=&amp;date=|patientId=]
+ * POST   /appointments                  {patientId, doctorId, dateTime}
+ * GET    /appointments/{id}
+ * POST   /appointments/{id}/confirm     POST /appointments/{id}/cancel
+ * POST   /appointments/{id}/complete    POST /appointments/{id}/bill
+ * GET    /bills                         GET /bills/{id}
+ * POST   /bills/run                     {from, to}
+ * GET    /recommendations?symptom=[&amp;limit=]
+ * GET    /metrics
+ * </pre>
+ *
+ * Errors are {@code {"status": ..., "error": ...}}: 400 for invalid input,
+ * 404 for unknown IDs, 409 for a double booking, a status change the
+ * appointment's current status does not allow, or billing an appointment twice.
+ */
+public class ApiServer implements AutoCloseable {
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final AIHelper aiHelper;
+
+    public ApiServer(InetSocketAddress address,
+                     DoctorService doctorService,
+                     PatientService patientService,
+                     AppointmentService appointmentService,
+                     AIHelper aiHelper) throws IOException {
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.aiHelper = aiHelper;
+        this.server = HttpServer.create(address, Constants.SERVER_BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        route("/patients", this::patients);
+        route("/doctors", this::doctors);
+        route("/appointments", this::appointments);
+        route("/bills", this::bills);
+        route("/recommendations", this::recommendations);
+        route("/metrics", this::metrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Waits up to SERVER_STOP_DELAY_SECONDS for in-flight requests.
+    @Override
+    public void close() {
+        server.stop(Constants.SERVER_STOP_DELAY_SECONDS);
+        executor.shutdown();
+    }
+
+    /**
+     * One virtual thread per request on JDK 21+, looked up reflectively so
+     * the project still builds and runs on a JDK 17 toolchain.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public static boolean usesVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private void patients(Request request) throws IOException {
+        List<String> path = request.path;
+        if (path.isEmpty()) {
+            if (request.is("GET")) {
+                listPatients(request);
+            } else if (request.is("POST")) {
+                JsonBody body = request.body();
+                Patient patient = patientService.createPatient(body.string("name"), body.integer("age"),
+                        body.string("phone"));
+                request.respond(201, json -> EntityJson.patient(json, patient));
+            } else {
+                throw HttpError.methodNotAllowed();
+            }
+            return;
+        }
+        Patient patient = patientService.getPatientById(path.get(0))
+                .orElseThrow(() -> HttpError.notFound("Patient not found: " + path.get(0)));
+        if (path.size() == 1) {
+            if (request.is("GET")) {
+                request.respond(200, json -> EntityJson.patient(json, patient));
+            } else if (request.is("DELETE")) {
+                patientService.deletePatient(patient.getId());
+                request.noContent();
+            } else {
+                throw HttpError.methodNotAllowed();
+            }
+        } else if (path.size() == 2 && path.get(1).equals("history")) {
+            if (request.is("GET")) {
+                List<String> page = patientService.getMedicalHistoryPage(patient.getId(),
+                        request.intParam("from", 0), request.intParam("limit", Constants.HISTORY_PAGE_SIZE));
+                request.respond(200, json -> {
+                    json.beginObject().field("total", patient.getMedicalHistorySize()).name("entries").beginArray();
+                    for (String entry : page) {
+                        json.value(entry);
+                    }
+                    json.endArray().endObject();
+                });
+            } else if (request.is("POST")) {
+                Patient updated = patientService.addMedicalHistoryEntry(patient.getId(), request.body().string("entry"));
+                request.respond(201, json -> EntityJson.patient(json, updated));
+            } else {
+                throw HttpError.methodNotAllowed();
+            }
+        } else if (path.size() == 2 && path.get(1).equals("appointments")) {
+            request.requireMethod("GET");
+            request.respondArray(appointmentService.getPatientAppointments(patient.getId()), Integer.MAX_VALUE,
+                    EntityJson::appointment);
+        } else {
+            throw HttpError.notFound("No such resource: " + request.exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void listPatients(Request request) throws IOException {
+        int limit = request.intParam("limit", Integer.MAX_VALUE);
+        Iterable<Patient> patients;
+        if (request.param("name") != null) {
+            patients = patientService.searchPatientByName(request.param("name"));
+        } else if (request.param("prefix") != null) {
+            patients = patientService.completePatientName(request.param("prefix"), Math.min(limit, 100));
+        } else if (request.param("fuzzy") != null) {
+            patients = patientService.fuzzySearchPatientByName(request.param("fuzzy"), Math.min(limit, 100));
+        } else if (request.param("phone") != null) {
+            patients = patientService.searchPatientByPhone(request.param("phone"));
+        } else if (request.param("age") != null) {
+            patients = patientService.searchPatient(request.intParam("age", 0));
+        } else if (request.param("minAge") != null || request.param("maxAge") != null) {
+            patients = patientService.searchPatientByAgeRange(request.intParam("minAge", 0),
+                    request.intParam("maxAge", Integer.MAX_VALUE));
+        } else {
+            patients = patientService.getPatientSnapshot();
+        }
+        request.respondArray(patients, limit, EntityJson::patient);
+    }
+
+    private void doctors(Request request) throws IOException {
+        List<String> path = request.path;
+        if (path.isEmpty()) {
+            if (request.is("GET")) {
+                String specialization = request.param("specialization");
+                Iterable<Doctor> doctors = specialization != null
+                        ? doctorService.filterBySpecialization(specialization(specialization))
+                        : doctorService.getDoctorSnapshot();
+                request.respondArray(doctors, request.intParam("limit", Integer.MAX_VALUE), EntityJson::doctor);
+            } else if (request.is("POST")) {
+                JsonBody body = request.body();
+                Doctor doctor = doctorService.createDoctor(body.string("name"), body.integer("age"),
+                        body.string("phone"), specialization(body.string("specialization")), body.decimal("fee"));
+                request.respond(201, json -> EntityJson.doctor(json, doctor));
+            } else {
+                throw HttpError.methodNotAllowed();
+            }
+            return;
+        }
+        if (path.size() != 1) {
+            throw HttpError.notFound("No such resource: " + request.exchange.getRequestURI().getPath());
+        }
+        Doctor doctor = doctorService.getDoctorById(path.get(0))
+                .orElseThrow(() -> HttpError.notFound("Doctor not found: " + path.get(0)));
+        if (request.is("GET")) {
+            request.respond(200, json -> EntityJson.doctor(json, doctor));
+        } else if (request.is("DELETE")) {
+            doctorService.deleteDoctor(doctor.getId());
+            request.noContent();
+        } else {
+            throw HttpError.methodNotAllowed();
+        }
+    }
+
+    private void appointments(Request request) throws IOException {
+        List<String> path = request.path;
+        if (path.isEmpty()) {
+            if (request.is("GET")) {
+                listAppointments(request);
+            } else if (request.is("POST")) {
+                JsonBody body = request.body();
+                Patient patient = patientService.getPatientById(body.string("patientId"))
+                        .orElseThrow(() -> HttpError.notFound("Patient not found: " + body.string("patientId")));
+                Doctor doctor = doctorService.getDoctorById(body.string("doctorId"))
+                        .orElseThrow(() -> HttpError.notFound("Doctor not found: " + body.string("doctorId")));
+                LocalDateTime dateTime = DateUtil.parse(body.string("dateTime"));
+                Appointment appointment = appointmentService.createAppointment(patient, doctor, dateTime);
+                request.respond(201, json -> EntityJson.appointment(json, appointment));
+            } else {
+                throw HttpError.methodNotAllowed();
+            }
+            return;
+        }
+        String id = path.get(0);
+        if (path.size() == 1) {
+            request.requireMethod("GET");
+            Appointment appointment = appointmentService.getAppointmentById(id)
+                    .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + id));
+            request.respond(200, json -> EntityJson.appointment(json, appointment));
+            return;
+        }
+        if (path.size() != 2) {
+            throw HttpError.notFound("No such resource: " + request.exchange.getRequestURI().getPath());
+        }
+        request.requireMethod("POST");
+        switch (path.get(1)) {
+            case "confirm" -> {
+                appointmentService.confirmAppointment(id);
+                respondAppointment(request, id);
+            }
+            case "cancel" -> {
+                appointmentService.cancelAppointment(id);
+                respondAppointment(request, id);
+            }
+            case "complete" -> {
+                appointmentService.completeAppointment(id);
+                respondAppointment(request, id);
+            }
+            case "bill" -> {
+                Bill bill = appointmentService.generateBill(id);
+                request.respond(201, json -> EntityJson.bill(json, bill));
+            }
+            default -> throw HttpError.notFound("No such resource: " + request.exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void listAppointments(Request request) throws IOException {
+        int limit = request.intParam("limit", Integer.MAX_VALUE);
+        String doctorId = request.param("doctorId");
+        String patientId = request.param("patientId");
+        Iterable<Appointment> appointments;
+        if (doctorId != null) {
+            String date = request.param("date");
+            if (date == null) {
+                throw new InvalidDataException("date (yyyy-MM-dd) is required with doctorId");
+            }
+            appointments = appointmentService.getDoctorAppointmentsOn(doctorId, LocalDate.parse(date));
+        } else if (patientId != null) {
+            appointments = appointmentService.getPatientAppointments(patientId);
+        } else {
+            appointments = appointmentService.getAppointmentSnapshot();
+        }
+        request.respondArray(appointments, limit, EntityJson::appointment);
+    }
+
+    private void respondAppointment(Request request, String id) throws IOException {
+        Appointment appointment = appointmentService.getAppointmentById(id)
+                .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + id));
+        request.respond(200, json -> EntityJson.appointment(json, appointment));
+    }
+
+    private void bills(Request request) throws IOException {
+        List<String> path = request.path;
+        if (path.isEmpty()) {
+            request.requireMethod("GET");
+            request.respondArray(appointmentService.getBillLedger().getSnapshot(),
+                    request.intParam("limit", Integer.MAX_VALUE), EntityJson::ledgerEntry);
+        } else if (path.size() == 1 && path.get(0).equals("run")) {
+            request.requireMethod("POST");
+            JsonBody body = request.body();
+            BillingRunResult result = appointmentService.billCompletedAppointments(LocalDate.parse(body.string("from")),
+                    LocalDate.parse(body.string("to")));
+            request.respond(200, json -> EntityJson.billingRun(json, result));
+        } else if (path.size() == 1) {
+            request.requireMethod("GET");
+            LedgerEntry entry = appointmentService.getBillLedger().findById(path.get(0))
+                    .orElseThrow(() -> HttpError.notFound("Bill not found: " + path.get(0)));
+            request.respond(200, json -> EntityJson.ledgerEntry(json, entry));
+        } else {
+            throw HttpError.notFound("No such resource: " + request.exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void recommendations(Request request) throws IOException {
+        request.requireMethod("GET");
+        String symptom = request.param("symptom");
+        if (symptom == null || symptom.isBlank()) {
+            throw new InvalidDataException("symptom is required");
+        }
+        int limit = request.intParam("limit", Constants.RANKING_TOP_K);
+        Optional<Specialization> specialization = aiHelper.recommendSpecialization(symptom);
+        List<DoctorRank> doctors = aiHelper.recommendRankedDoctors(symptom, appointmentService);
+        List<AvailableSlot> slots = aiHelper.recommendSlots(symptom, appointmentService, LocalDateTime.now(), limit);
+        request.respond(200, json -> {
+            json.beginObject().field("specialization", specialization.map(Enum::name).orElse(null));
+            json.name("doctors").beginArray();
+            for (int i = 0; i < doctors.size() && i < limit; i++) {
+                EntityJson.doctorRank(json, doctors.get(i));
+            }
+            json.endArray().name("slots").beginArray();
+            for (AvailableSlot slot : slots) {
+                EntityJson.slot(json, slot);
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private void metrics(Request request) throws IOException {
+        request.requireMethod("GET");
+        request.respondArray(METRICS.getTimers(), Integer.MAX_VALUE, EntityJson::timer);
+    }
+
+    private static Specialization specialization(String name) {
+        try {
+            return Specialization.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Unknown specialization: " + name);
+        }
+    }
+
+    private interface Route {
+        void handle(Request request) throws IOException;
+    }
+
+    private interface JsonContent {
+        void writeTo(JsonWriter json) throws IOException;
+    }
+
+    private interface ItemWriter<T> {
+        void write(JsonWriter json, T item) throws IOException;
+    }
+
+    private void route(String context, Route route) {
+        OperationTimer timer = METRICS.timer("http" + context.replace('/', '.'));
+        HttpHandler handler = exchange -> {
+            long start = timer.start();
+            Request request = new Request(exchange, context);
+            try {
+                route.handle(request);
+            } catch (HttpError e) {
+                request.fail(e.status, e.getMessage());
+            } catch (AppointmentConflictException | InvalidStatusTransitionException
+                     | AppointmentAlreadyBilledException e) {
+                request.fail(409, e.getMessage());
+            } catch (AppointmentNotFoundException e) {
+                request.fail(404, e.getMessage());
+            } catch (InvalidDataException | IllegalArgumentException | DateTimeException e) {
+                request.fail(400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Request failed: " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI() + ": " + e);
+                request.fail(500, "Internal error");
+            } finally {
+                exchange.close();
+                timer.stop(start);
+            }
+        };
+        server.createContext(context, handler);
+    }
+
+    // An HTTP status to return as-is.
+    private static final class HttpError extends RuntimeException {
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        static HttpError notFound(String message) {
+            return new HttpError(404, message);
+        }
+
+        static HttpError methodNotAllowed() {
+            return new HttpError(405, "Method not allowed");
+        }
+    }
+
+    // One exchange: decoded path segments below the context, query parameters and the response side.
+    private static final class Request {
+
+        private final HttpExchange exchange;
+        private final List<String> path = new ArrayList<>();
+        private final Map<String, String> query = new HashMap<>();
+        private boolean responded;
+
+        Request(HttpExchange exchange, String context) {
+            this.exchange = exchange;
+            String rawPath = exchange.getRequestURI().getRawPath();
+            for (String segment : rawPath.substring(Math.min(context.length(), rawPath.length())).split("/")) {
+                if (!segment.isEmpty()) {
+                    path.add(decode(segment));
+                }
+            }
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String pair : rawQuery.split("&")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+                    }
+                }
+            }
+        }
+
+        boolean is(String method) {
+            return exchange.getRequestMethod().equalsIgnoreCase(method);
+        }
+
+        void requireMethod(String method) {
+            if (!is(method)) {
+                throw HttpError.methodNotAllowed();
+            }
+        }
+
+        String param(String name) {
+            return query.get(name);
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = query.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidDataException("Query parameter " + name + " must be an integer");
+            }
+        }
+
+        JsonBody body() throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readNBytes(Constants.SERVER_MAX_BODY_BYTES + 1);
+                if (bytes.length > Constants.SERVER_MAX_BODY_BYTES) {
+                    throw new HttpError(413, "Request body larger than " + Constants.SERVER_MAX_BODY_BYTES + " bytes");
+                }
+                return JsonBody.parse(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        // Chunked response: the body is written while the content is produced.
+        void respond(int status, JsonContent content) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, 0);
+            responded = true;
+            try (JsonWriter json = new JsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+                content.writeTo(json);
+            }
+        }
+
+        <T> void respondArray(Iterable<T> items, int limit, ItemWriter<T> writer) throws IOException {
+            respond(200, json -> {
+                json.beginArray();
+                int written = 0;
+                for (T item : items) {
+                    if (written++ == limit) {
+                        break;
+                    }
+                    writer.write(json, item);
+                }
+                json.endArray();
+            });
+        }
+
+        void noContent() throws IOException {
+            exchange.sendResponseHeaders(204, -1);
+            responded = true;
+        }
+
+        // Too late once a (streamed) response has started; the connection is just closed.
+        void fail(int status, String message) throws IOException {
+            if (responded) {
+                return;
+            }
+            respond(status, json -> json.beginObject()
+                    .field("status", status)
+                    .field("error", message)
+                    .endObject());
+        }
+
+        private static String decode(String value) {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.airtribe.meditrack.server;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AvailableSlot;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillingRunResult;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.DoctorRank;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.metrics.LatencySnapshot;
+import com.airtribe.meditrack.metrics.OperationTimer;
+import com.airtribe.meditrack.util.DateUtil;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * JSON representations of the domain objects served by {@link ApiServer}.
+ * Dates use the same {@code yyyy-MM-dd HH:mm} format as the console and
+ * CSV files; related entities are referenced by ID.
+ */
+final class EntityJson {
+
+    private EntityJson() {
+    }
+
+    static void patient(JsonWriter json, Patient patient) throws IOException {
+        json.beginObject()
+                .field("id", patient.getId())
+                .field("name", patient.getName())
+                .field("age", patient.getAge())
+                .field("phone", patient.getPhone())
+                .field("medicalHistorySize", patient.getMedicalHistorySize())
+                .endObject();
+    }
+
+    static void doctor(JsonWriter json, Doctor doctor) throws IOException {
+        json.beginObject()
+                .field("id", doctor.getId())
+                .field("name", doctor.getName())
+                .field("age", doctor.getAge())
+                .field("phone", doctor.getPhone())
+                .field("specialization", doctor.getSpecialization().name())
+                .field("consultationFee", doctor.getConsultationFee())
+                .endObject();
+    }
+
+    static void appointment(JsonWriter json, Appointment appointment) throws IOException {
+        json.beginObject()
+                .field("id", appointment.getId())
+                .field("patientId", appointment.getPatient().getId())
+                .field("doctorId", appointment.getDoctor().getId())
+                .field("dateTime", DateUtil.format(appointment.getDateTime()))
+                .field("status", appointment.getStatus().name())
+                .endObject();
+    }
+
+    static void bill(JsonWriter json, Bill bill) throws IOException {
+        json.beginObject()
+                .field("id", bill.getId())
+                .field("appointmentId", bill.getAppointment().getId())
+                .field("strategy", bill.getBillingStrategy().getName())
+                .field("baseAmount", bill.getBaseAmount())
+                .field("totalAmount", bill.calculateTotalAmount())
+                .endObject();
+    }
+
+    static void ledgerEntry(JsonWriter json, LedgerEntry entry) throws IOException {
+        json.beginObject()
+                .field("id", entry.getBillId())
+                .field("appointmentId", entry.getAppointmentId())
+                .field("doctorId", entry.getDoctorId())
+                .field("appointmentTime", DateUtil.format(entry.getAppointmentTime()))
+                .field("strategy", entry.getStrategy())
+                .field("baseAmount", entry.getBaseAmount())
+                .field("totalAmount", entry.getTotalAmount())
+                .endObject();
+    }
+
+    static void billingRun(JsonWriter json, BillingRunResult result) throws IOException {
+        json.beginObject()
+                .field("bills", result.getBills().size())
+                .field("grandTotal", result.getGrandTotal())
+                .name("totalsByDoctor").beginObject();
+        for (Map.Entry<Doctor, Double> total : result.getTotalsByDoctor().entrySet()) {
+            json.field(total.getKey().getId(), total.getValue());
+        }
+        json.endObject().endObject();
+    }
+
+    static void doctorRank(JsonWriter json, DoctorRank rank) throws IOException {
+        json.beginObject()
+                .name("doctor");
+        doctor(json, rank.getDoctor());
+        json.field("upcomingAppointments", rank.getUpcomingAppointments())
+                .field("nextAvailable", format(rank.getNextAvailable()))
+                .endObject();
+    }
+
+    static void slot(JsonWriter json, AvailableSlot slot) throws IOException {
+        json.beginObject()
+                .field("doctorId", slot.getDoctor().getId())
+                .field("doctorName", slot.getDoctor().getName())
+                .field("start", DateUtil.format(slot.getStart()))
+                .endObject();
+    }
+
+    // Latencies in nanoseconds, as recorded.
+    static void timer(JsonWriter json, OperationTimer timer) throws IOException {
+        LatencySnapshot latency = timer.getLatency();
+        json.beginObject()
+                .field("name", timer.getName())
+                .field("count", latency.getCount())
+                .field("meanNanos", latency.getMean())
+                .field("p50Nanos", latency.getP50())
+                .field("p90Nanos", latency.getP90())
+                .field("p99Nanos", latency.getP99())
+                .field("p999Nanos", latency.getP999())
+                .field("maxNanos", latency.getMax())
+                .endObject();
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? DateUtil.format(dateTime) : null;
+    }
+}
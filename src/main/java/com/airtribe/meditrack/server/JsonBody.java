@@ -0,0 +1,201 @@
+package com.airtribe.meditrack.server;
+
+import com.airtribe.meditrack.exception.InvalidDataException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request body of the JSON API: a single flat object whose values are
+ * strings, numbers, booleans or null. That is all the create and update
+ * requests need, so nested objects and arrays are rejected rather than
+ * parsed. Malformed input and missing or mistyped fields raise
+ * {@link InvalidDataException} (HTTP 400).
+ */
+public final class JsonBody {
+
+    private final Map<String, String> fields;
+
+    private JsonBody(Map<String, String> fields) {
+        this.fields = fields;
+    }
+
+    public static JsonBody parse(String json) {
+        return new Parser(json).parseObject();
+    }
+
+    public boolean has(String name) {
+        return fields.get(name) != null;
+    }
+
+    public String string(String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new InvalidDataException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    public String string(String name, String defaultValue) {
+        String value = fields.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public int integer(String name) {
+        try {
+            return Integer.parseInt(string(name));
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException("Field " + name + " must be an integer");
+        }
+    }
+
+    public double decimal(String name) {
+        try {
+            return Double.parseDouble(string(name));
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException("Field " + name + " must be a number");
+        }
+    }
+
+    // Recursive descent over one object; values are kept as their text.
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        JsonBody parseObject() {
+            Map<String, String> fields = new HashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String name = parseString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    fields.put(name, parseValue());
+                    skipWhitespace();
+                    char c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("Unexpected content after the object");
+            }
+            return new JsonBody(fields);
+        }
+
+        private String parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested objects and arrays are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || isNumber(literal)) {
+                return literal;
+            }
+            throw error("Invalid value '" + literal + "'");
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("Invalid escape '\\" + escaped + "'");
+                }
+            }
+        }
+
+        private static boolean isNumber(String literal) {
+            if (literal.isEmpty()) {
+                return false;
+            }
+            try {
+                Double.parseDouble(literal);
+                return Character.isDigit(literal.charAt(literal.length() - 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private InvalidDataException error(String message) {
+            return new InvalidDataException("Malformed JSON at offset " + pos + ": " + message);
+        }
+    }
+}
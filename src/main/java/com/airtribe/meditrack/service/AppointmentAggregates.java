@@ -0,0 +1,240 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStats;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Incrementally maintained appointment counts per doctor, status,
+ * specialization and calendar day. Registered as a {@link StoreListener}
+ * on the appointment store, so creates, cancellations and any other status
+ * change are counted no matter which path wrote them.
+ *
+ * <p>Counters are {@link LongAdder}s, so concurrent bookings update them
+ * without contending on a shared cache line. Per-day counts are plain
+ * values merged atomically per day, so a day whose count drops to zero is
+ * removed rather than kept. Because status changes are made in place, the
+ * listener remembers what it counted for each appointment and applies the
+ * difference on every save.
+ *
+ * <p>{@link #snapshot()} is consistent across all counters without blocking
+ * bookings: writers count themselves in and out around each update, and a
+ * snapshot sums only while no update is in flight, retrying if one started
+ * meanwhile. Only if updates never pause for {@value #OPTIMISTIC_ATTEMPTS}
+ * attempts does it take the exclusive side of a {@link StampedLock} whose
+ * shared side writers hold (they never block each other). The result is
+ * cached until the next change, so polling an unchanged dashboard is O(1)
+ * and never touches the store.
+ *
+ * <p>Appointments moved to the archive count as removed, so the counters
+ * describe the hot tier.
+ */
+public class AppointmentAggregates implements StoreListener<Appointment> {
+
+    private static final int OPTIMISTIC_ATTEMPTS = 64;
+
+    private final StampedLock lock = new StampedLock();
+    // Updates begun and finished; equal when none is in flight.
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder total = new LongAdder();
+    private final Map<Doctor, LongAdder> byDoctor = new ConcurrentHashMap<>();
+    private final Map<AppointmentStatus, LongAdder> byStatus = new EnumMap<>(AppointmentStatus.class);
+    private final Map<Specialization, LongAdder> bySpecialization = new EnumMap<>(Specialization.class);
+    private final Map<LocalDate, Long> byDay = new ConcurrentHashMap<>();
+    private final Map<String, Counted> countedById = new ConcurrentHashMap<>();
+    private volatile CachedStats cached;
+
+    public AppointmentAggregates() {
+        // Enum-keyed counters exist up front so the maps are never written after construction.
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            byStatus.put(status, new LongAdder());
+        }
+        for (Specialization specialization : Specialization.values()) {
+            bySpecialization.put(specialization, new LongAdder());
+        }
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long countForDoctor(Doctor doctor) {
+        LongAdder adder = byDoctor.get(doctor);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public long countForStatus(AppointmentStatus status) {
+        return byStatus.get(status).sum();
+    }
+
+    public long countForSpecialization(Specialization specialization) {
+        return bySpecialization.get(specialization).sum();
+    }
+
+    public long countForDay(LocalDate day) {
+        return byDay.getOrDefault(day, 0L);
+    }
+
+    /**
+     * Consistent point-in-time view of every counter; zero entries are omitted
+     * from the per-doctor and per-day maps.
+     */
+    public AppointmentStats snapshot() {
+        CachedStats current = cached;
+        long seen = version.get();
+        if (current != null && current.version == seen) {
+            return current.stats;
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            seen = version.get();
+            if (started.get() != seen) {
+                Thread.onSpinWait();
+                continue;
+            }
+            AppointmentStats stats = sum();
+            if (started.get() == seen) {
+                cached = new CachedStats(seen, stats);
+                return stats;
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            seen = version.get();
+            AppointmentStats stats = sum();
+            cached = new CachedStats(seen, stats);
+            return stats;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private AppointmentStats sum() {
+        return new AppointmentStats(total.sum(),
+                sums(byDoctor, new HashMap<>()),
+                sums(byStatus, new EnumMap<>(AppointmentStatus.class)),
+                sums(bySpecialization, new EnumMap<>(Specialization.class)),
+                new HashMap<>(byDay));
+    }
+
+    @Override
+    public void onSave(String id, Appointment previous, Appointment current) {
+        Counted next = Counted.of(current);
+        Counted before = countedById.put(id, next);
+        if (next.equals(before)) {
+            return;
+        }
+        long stamp = lock.readLock();
+        started.incrementAndGet();
+        try {
+            if (before != null) {
+                before.apply(this, -1);
+            }
+            next.apply(this, 1);
+        } finally {
+            version.incrementAndGet();
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void onDelete(String id, Appointment removed) {
+        Counted before = countedById.remove(id);
+        if (before == null) {
+            return;
+        }
+        long stamp = lock.readLock();
+        started.incrementAndGet();
+        try {
+            before.apply(this, -1);
+        } finally {
+            version.incrementAndGet();
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static <K, M extends Map<K, Long>> M sums(Map<K, LongAdder> counters, M target) {
+        counters.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                target.put(key, sum);
+            }
+        });
+        return target;
+    }
+
+    // The keys an appointment was counted under when last saved.
+    private static final class Counted {
+
+        private final Doctor doctor;
+        private final Specialization specialization;
+        private final AppointmentStatus status;
+        private final LocalDate day;
+
+        private Counted(Doctor doctor, Specialization specialization, AppointmentStatus status, LocalDate day) {
+            this.doctor = doctor;
+            this.specialization = specialization;
+            this.status = status;
+            this.day = day;
+        }
+
+        static Counted of(Appointment appointment) {
+            Doctor doctor = appointment.getDoctor();
+            return new Counted(doctor, doctor.getSpecialization(), appointment.getStatus(),
+                    appointment.getDateTime().toLocalDate());
+        }
+
+        void apply(AppointmentAggregates aggregates, int delta) {
+            aggregates.total.add(delta);
+            aggregates.byDoctor.computeIfAbsent(doctor, d -> new LongAdder()).add(delta);
+            aggregates.byStatus.get(status).add(delta);
+            if (specialization != null) {
+                aggregates.bySpecialization.get(specialization).add(delta);
+            }
+            // A count that reaches zero removes the day.
+            aggregates.byDay.merge(day, (long) delta, (count, change) -> count + change != 0 ? count + change : null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Counted)) {
+                return false;
+            }
+            Counted other = (Counted) o;
+            return doctor.equals(other.doctor) && specialization == other.specialization
+                    && status == other.status && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctor, specialization, status, day);
+        }
+    }
+
+    private static final class CachedStats {
+
+        private final long version;
+        private final AppointmentStats stats;
+
+        private CachedStats(long version, AppointmentStats stats) {
+            this.version = version;
+            this.stats = stats;
+        }
+    }
+}
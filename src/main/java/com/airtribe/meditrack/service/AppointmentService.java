@@ -1,37 +1,132 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.cdc.ChangeStream;
 import com.airtribe.meditrack.entity.*;
+import com.airtribe.meditrack.exception.AppointmentAlreadyBilledException;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
 import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.exception.InvalidStatusTransitionException;
+import com.airtribe.meditrack.jfr.AppointmentEvent;
+import com.airtribe.meditrack.jfr.BillEvent;
+import com.airtribe.meditrack.jfr.BillingRunEvent;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
+import com.airtribe.meditrack.persistence.AppointmentArchive;
 import com.airtribe.meditrack.util.DataStore;
 import com.airtribe.meditrack.util.DateUtil;
+import com.airtribe.meditrack.util.HashIndex;
 import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.Snapshot;
+import com.airtribe.meditrack.util.SortedIndex;
+import com.airtribe.meditrack.util.StoreListener;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class AppointmentService {
 
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    // Entries read per page while merging medical histories.
+    private static final int MERGE_HISTORY_PAGE = 512;
+
     private final DataStore<Appointment> store;
     private final DoctorService doctorService;
     private final PatientService patientService;
     private final IdGenerator idGenerator = IdGenerator.getInstance();
+    // Per-doctor start-time index, kept current by listening to the store.
+    private final DoctorSchedule schedule = new DoctorSchedule();
+    private final AvailabilityEngine availability;
+    private final AppointmentAggregates aggregates = new AppointmentAggregates();
+    private final DoctorRanking ranking;
+    private final SortedIndex<Appointment, LocalDateTime> dateTimeIndex;
+    private final HashIndex<Appointment, String> patientIndex;
+    private final BillLedger billLedger;
+    private volatile AppointmentArchive archive;
+    private final OperationTimer createTimer = METRICS.timer("appointment.create");
+    private final OperationTimer cancelTimer = METRICS.timer("appointment.cancel");
+    private final OperationTimer completeTimer = METRICS.timer("appointment.complete");
+    private final OperationTimer confirmTimer = METRICS.timer("appointment.confirm");
+    private final OperationTimer mergeTimer = METRICS.timer("appointment.mergePatients");
+    private final OperationTimer doctorDayTimer = METRICS.timer("appointment.doctorDay");
+    private final OperationTimer slotsTimer = METRICS.timer("appointment.earliestSlots");
+    private final OperationTimer topDoctorsTimer = METRICS.timer("appointment.topDoctors");
+    private final OperationTimer billTimer = METRICS.timer("appointment.generateBill");
+    private final OperationTimer billingRunTimer = METRICS.timer("appointment.billingRun");
+    private final OperationTimer statsTimer = METRICS.timer("appointment.stats");
+    private final OperationTimer archiveTimer = METRICS.timer("appointment.archive");
 
     public AppointmentService(DataStore<Appointment> store,
                               DoctorService doctorService,
                               PatientService patientService) {
+        this(store, doctorService, patientService, new BillLedger(new DataStore<>()));
+    }
+
+    public AppointmentService(DataStore<Appointment> store,
+                              DoctorService doctorService,
+                              PatientService patientService,
+                              BillLedger billLedger) {
         this.store = store;
+        this.billLedger = billLedger;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.dateTimeIndex = store.addSortedIndex("appointment.dateTime", Appointment::getDateTime);
+        this.patientIndex = store.addHashIndex("appointment.patient", a -> a.getPatient().getId());
+        store.forEach(a -> schedule.onSave(a.getId(), null, a));
+        store.addListener(schedule);
+        // Registered after the schedule: it rebuilds freed days from the schedule index.
+        this.availability = new AvailabilityEngine(doctorService, schedule);
+        store.forEach(a -> availability.onSave(a.getId(), null, a));
+        store.addListener(availability);
+        store.forEach(a -> aggregates.onSave(a.getId(), null, a));
+        store.addListener(aggregates);
+        // After availability: ranking reads each doctor's next free slot from it.
+        this.ranking = new DoctorRanking(doctorService, availability);
+        doctorService.addDoctorListener(ranking.doctorListener());
+        StoreListener<Appointment> rankingListener = ranking.appointmentListener();
+        store.forEach(a -> rankingListener.onSave(a.getId(), null, a));
+        store.addListener(rankingListener);
     }
 
-    // Appointments: create operation (CONFIRMED by default)
+    // Appointments: create operation (CONFIRMED by default). Rejects double-booking:
+    // the conflict check and the insert happen under the doctor's schedule lock, so
+    // only bookings for the same doctor wait for each other.
     public Appointment createAppointment(Patient patient, Doctor doctor, LocalDateTime dateTime) {
-        String id = idGenerator.nextAppointmentId();
-        return createAppointmentWithId(id, patient, doctor, dateTime, AppointmentStatus.CONFIRMED);
+        long start = createTimer.start();
+        AppointmentEvent event = new AppointmentEvent();
+        event.begin();
+        Lock lock = schedule.lockFor(doctor.getId());
+        lock.lock();
+        try {
+            Optional<Appointment> conflict = schedule.findConflict(doctor.getId(), dateTime);
+            if (conflict.isPresent()) {
+                event.outcome = "CONFLICT";
+                throw new AppointmentConflictException("Doctor " + doctor.getId() + " is already booked at "
+                        + DateUtil.format(conflict.get().getDateTime())
+                        + " (appointment " + conflict.get().getId() + ")", conflict.get());
+            }
+            String id = idGenerator.nextAppointmentId();
+            Appointment appointment = createAppointmentWithId(id, patient, doctor, dateTime,
+                    AppointmentStatus.CONFIRMED);
+            event.appointmentId = id;
+            event.outcome = "OK";
+            return appointment;
+        } finally {
+            lock.unlock();
+            createTimer.stop(start);
+            commit(event, "create", doctor.getId(), patient.getId());
+        }
     }
 
+    // Used by loaders: existing records are authoritative, so no conflict check here.
     public Appointment createAppointmentWithId(String id, Patient patient, Doctor doctor,
                                                LocalDateTime dateTime, AppointmentStatus status) {
         Appointment appointment = new Appointment(id, patient, doctor, dateTime, status);
@@ -39,34 +134,425 @@ public class AppointmentService {
         return appointment;
     }
 
+    // Hot tier first, then the archive (if attached).
     public Optional<Appointment> getAppointmentById(String id) {
-        return store.findById(id);
+        Optional<Appointment> hot = store.findById(id);
+        AppointmentArchive cold = archive;
+        return hot.isPresent() || cold == null ? hot : cold.findById(id);
+    }
+
+    /**
+     * Appointments dated {@code from} to {@code to} (inclusive) in time order,
+     * from both tiers. A record present in both (archived but not yet evicted,
+     * or re-saved since) is taken from the hot tier.
+     */
+    public List<Appointment> getAppointmentsBetween(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> hot = dateTimeIndex.range(from, to);
+        AppointmentArchive cold = archive;
+        if (cold == null) {
+            return hot;
+        }
+        List<Appointment> archived = cold.range(from, to);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Appointment> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        for (Appointment appointment : archived) {
+            if (store.findById(appointment.getId()).isEmpty()) {
+                merged.add(appointment);
+            }
+        }
+        merged.sort(Comparator.comparing(Appointment::getDateTime));
+        return merged;
+    }
+
+    /**
+     * Enables the cold tier: ID lookups and date-range queries fall through
+     * to {@code archive}, and {@link #archiveBefore(LocalDate)} moves old
+     * appointments into it.
+     */
+    public void attachArchive(AppointmentArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Tiering policy: moves COMPLETED and CANCELLED appointments dated before
+     * {@code cutoff} out of the heap into the archive, one day segment at a
+     * time. Pending and confirmed appointments stay hot however old they are.
+     * Each day's segment is on disk before its appointments are evicted, and
+     * an appointment re-saved in the meantime (e.g. by a patient merge) stays
+     * hot until the next pass. Returns the number of appointments moved.
+     */
+    public int archiveBefore(LocalDate cutoff) throws IOException {
+        AppointmentArchive target = archive;
+        if (target == null) {
+            throw new IllegalStateException("No appointment archive attached");
+        }
+        long start = archiveTimer.start();
+        try {
+            Map<LocalDate, List<Appointment>> byDay = new TreeMap<>();
+            for (Appointment appointment : dateTimeIndex.range(LocalDateTime.MIN, cutoff.atStartOfDay().minusNanos(1))) {
+                AppointmentStatus status = appointment.getStatus();
+                if (status == AppointmentStatus.COMPLETED || status == AppointmentStatus.CANCELLED) {
+                    byDay.computeIfAbsent(appointment.getDateTime().toLocalDate(), d -> new ArrayList<>())
+                            .add(appointment);
+                }
+            }
+            int moved = 0;
+            for (Map.Entry<LocalDate, List<Appointment>> day : byDay.entrySet()) {
+                target.archive(day.getKey(), day.getValue());
+                for (Appointment appointment : day.getValue()) {
+                    if (store.evict(appointment.getId(), appointment)) {
+                        moved++;
+                    }
+                }
+            }
+            return moved;
+        } finally {
+            archiveTimer.stop(start);
+        }
     }
 
-    // Appointments: read-all operation
+    // Appointments: read-all operation (copies; prefer getAppointmentSnapshot() for bulk reads)
     public List<Appointment> getAllAppointments() {
         return store.findAll();
     }
 
-    // Appointments: cancel operation using AppointmentStatus enum
+    public Snapshot<Appointment> getAppointmentSnapshot() {
+        return store.snapshot();
+    }
+
+    // Change events for asynchronous subscribers. Detail is the status as of the
+    // save, so subscribers see every status change even though it happens in place.
+    public void publishChanges(ChangeStream stream) {
+        store.publishTo(stream, appointment -> appointment.getStatus().name());
+    }
+
+    // Appointments: status operations. Only the transitions allowed by
+    // AppointmentStatus are accepted; anything else (e.g. completing a cancelled
+    // appointment) throws InvalidStatusTransitionException.
+    public void confirmAppointment(String id) {
+        changeStatus(id, AppointmentStatus.CONFIRMED, confirmTimer, "confirm");
+    }
+
     public void cancelAppointment(String id) {
-        Appointment appointment = getAppointmentById(id)
-                .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + id));
-        appointment.setStatus(AppointmentStatus.CANCELLED);
+        changeStatus(id, AppointmentStatus.CANCELLED, cancelTimer, "cancel");
+    }
+
+    public void completeAppointment(String id) {
+        changeStatus(id, AppointmentStatus.COMPLETED, completeTimer, "complete");
+    }
+
+    // The transition itself is a compare-and-set on the appointment; the doctor's
+    // lock keeps the re-save ordered with bookings, so a slot freed by a cancel
+    // reaches the schedule before the next booking for that doctor checks it.
+    private void changeStatus(String id, AppointmentStatus next, OperationTimer timer, String operation) {
+        long start = timer.start();
+        AppointmentEvent event = new AppointmentEvent();
+        event.begin();
+        event.appointmentId = id;
+        Appointment appointment = null;
+        try {
+            appointment = getAppointmentById(id)
+                    .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + id));
+            Lock lock = schedule.lockFor(appointment.getDoctor().getId());
+            lock.lock();
+            try {
+                // Re-read: a merge may have replaced the record since the lookup.
+                appointment = getAppointmentById(id)
+                        .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + id));
+                AppointmentStatus previous = appointment.transitionTo(next);
+                // Re-save so the status change reaches store listeners (journal, indexes).
+                try {
+                    store.save(id, appointment);
+                } catch (RuntimeException e) {
+                    revert(id, appointment, next, previous, e);
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+            event.outcome = "OK";
+        } catch (InvalidStatusTransitionException e) {
+            event.outcome = "INVALID_TRANSITION";
+            throw e;
+        } finally {
+            timer.stop(start);
+            commit(event, operation, appointment);
+        }
+    }
+
+    // The store rolled its indexes and listeners back onto the same (in-place
+    // changed) instance, so they may still see the new status: restore the old
+    // one and save again to bring them back in line. Caller holds the doctor's lock.
+    private void revert(String id, Appointment appointment, AppointmentStatus next,
+                        AppointmentStatus previous, RuntimeException cause) {
+        if (!appointment.revertTransition(next, previous)) {
+            return;
+        }
+        try {
+            store.save(id, appointment);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void commit(AppointmentEvent event, String operation, Appointment appointment) {
+        commit(event, operation,
+                appointment != null ? appointment.getDoctor().getId() : null,
+                appointment != null ? appointment.getPatient().getId() : null);
+    }
+
+    // JFR: fields are only filled in when the event is enabled and over its threshold.
+    private static void commit(AppointmentEvent event, String operation, String doctorId, String patientId) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.doctorId = doctorId;
+            event.patientId = patientId;
+            if (event.outcome == null) {
+                event.outcome = "FAILED";
+            }
+            event.commit();
+        }
+    }
+
+    public List<Appointment> getPatientAppointments(String patientId) {
+        return patientIndex.find(patientId);
+    }
+
+    /**
+     * Merges a duplicate registration into the surviving patient: the
+     * duplicate's appointments are re-pointed to the survivor (same IDs,
+     * times and statuses), the entries of its medical history that the
+     * survivor lacks are appended to the survivor's, and the duplicate is
+     * deleted. Returns the number of appointments moved.
+     */
+    public int mergePatients(String survivorId, String duplicateId) {
+        long start = mergeTimer.start();
+        try {
+            if (survivorId.equalsIgnoreCase(duplicateId)) {
+                throw new InvalidDataException("Cannot merge patient " + survivorId + " into itself");
+            }
+            Patient survivor = patientService.getPatientById(survivorId)
+                    .orElseThrow(() -> new InvalidDataException("Patient not found: " + survivorId));
+            Patient duplicate = patientService.getPatientById(duplicateId)
+                    .orElseThrow(() -> new InvalidDataException("Patient not found: " + duplicateId));
+            int moved = repoint(duplicate, survivor) + repointArchived(duplicate, survivor);
+            mergeHistory(duplicate, survivor);
+            patientService.updatePatient(survivor);
+            patientService.deletePatient(duplicate.getId());
+            // Catch appointments booked for the duplicate while the merge was running.
+            return moved + repoint(duplicate, survivor);
+        } finally {
+            mergeTimer.stop(start);
+        }
+    }
+
+    // Both histories are read page by page rather than paged in whole; the new entries
+    // are appended in memory and written to the survivor's history file when it is saved.
+    private static void mergeHistory(Patient from, Patient to) {
+        Set<String> known = new HashSet<>();
+        forEachHistoryEntry(to, known::add);
+        forEachHistoryEntry(from, entry -> {
+            if (known.add(entry)) {
+                to.addMedicalHistoryEntry(entry);
+            }
+        });
+    }
+
+    private static void forEachHistoryEntry(Patient patient, Consumer<String> action) {
+        int size = patient.getMedicalHistorySize();
+        for (int from = 0; from < size; from += MERGE_HISTORY_PAGE) {
+            patient.getMedicalHistoryPage(from, MERGE_HISTORY_PAGE).forEach(action);
+        }
+    }
+
+    // Before the duplicate is deleted, so a failed rewrite leaves both patients in place.
+    private int repointArchived(Patient from, Patient to) {
+        AppointmentArchive cold = archive;
+        if (cold == null) {
+            return 0;
+        }
+        try {
+            return cold.repointPatient(from.getId(), to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to repoint archived appointments of " + from.getId(), e);
+        }
+    }
+
+    private int repoint(Patient from, Patient to) {
+        int moved = 0;
+        for (Appointment found : patientIndex.find(from.getId())) {
+            Lock lock = schedule.lockFor(found.getDoctor().getId());
+            lock.lock();
+            try {
+                // Under the doctor's lock no status change can slip in between the
+                // read and the replacement, so the copied status is the current one.
+                Appointment appointment = store.findById(found.getId()).orElse(null);
+                if (appointment == null || !appointment.getPatient().getId().equals(from.getId())) {
+                    continue;
+                }
+                // Patient is final on Appointment; replace the record under the same ID.
+                store.save(appointment.getId(), new Appointment(appointment.getId(), to, appointment.getDoctor(),
+                        appointment.getDateTime(), appointment.getStatus()));
+                moved++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return moved;
+    }
+
+    public Optional<Appointment> findConflict(String doctorId, LocalDateTime dateTime) {
+        return schedule.findConflict(doctorId, dateTime);
+    }
+
+    // Doctor's day: a sub-range read of the schedule index, in time order.
+    public List<Appointment> getDoctorAppointmentsOn(String doctorId, LocalDate day) {
+        long start = doctorDayTimer.start();
+        try {
+            List<Appointment> appointments = schedule.onDay(doctorId, day);
+            AppointmentArchive cold = archive;
+            if (cold == null) {
+                return appointments;
+            }
+            // An archived day: the schedule no longer holds it (cancelled ones never occupied it).
+            List<Appointment> result = new ArrayList<>(appointments);
+            for (Appointment appointment : cold.range(day.atStartOfDay(), day.atTime(LocalTime.MAX))) {
+                if (appointment.getDoctor().getId().equals(doctorId)
+                        && appointment.getStatus() != AppointmentStatus.CANCELLED
+                        && store.findById(appointment.getId()).isEmpty()) {
+                    result.add(appointment);
+                }
+            }
+            result.sort(Comparator.comparing(Appointment::getDateTime));
+            return result;
+        } finally {
+            doctorDayTimer.stop(start);
+        }
+    }
+
+    // Earliest bookable start times across every doctor with the specialization.
+    public List<AvailableSlot> findEarliestSlots(Specialization specialization, LocalDateTime after, int limit) {
+        long start = slotsTimer.start();
+        try {
+            return availability.earliestSlots(specialization, after, limit);
+        } finally {
+            slotsTimer.stop(start);
+        }
+    }
+
+    // Least-loaded, soonest-available, cheapest doctors first; precomputed per specialization.
+    public List<DoctorRank> getTopDoctors(Specialization specialization) {
+        long start = topDoctorsTimer.start();
+        try {
+            return ranking.topDoctors(specialization);
+        } finally {
+            topDoctorsTimer.stop(start);
+        }
     }
 
     public Bill generateBill(String appointmentId) {
-        Appointment appointment = getAppointmentById(appointmentId)
-                .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + appointmentId));
-        String billId = idGenerator.nextBillId();
-        // Design pattern (Factory): delegates to BillFactory, which in turn
-        // selects the appropriate BillingStrategy for this bill.
-        return BillFactory.standardBill(billId, appointment);
+        long start = billTimer.start();
+        BillEvent event = new BillEvent();
+        event.begin();
+        try {
+            Appointment appointment = getAppointmentById(appointmentId)
+                    .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found: " + appointmentId));
+            // Claimed like a billing run does, so an appointment is billed (and counted as revenue) once.
+            if (!billLedger.claim(appointment.getId())) {
+                throw new AppointmentAlreadyBilledException("Appointment " + appointment.getId()
+                        + " is already billed or being billed");
+            }
+            Bill bill;
+            try {
+                String billId = idGenerator.nextBillId();
+                // Design pattern (Factory): delegates to BillFactory, which in turn
+                // selects the appropriate BillingStrategy for this bill.
+                bill = BillFactory.standardBill(billId, appointment);
+                billLedger.record(bill);
+            } finally {
+                billLedger.release(appointment.getId());
+            }
+            if (event.shouldCommit()) {
+                event.billId = bill.getId();
+                event.appointmentId = appointmentId;
+                event.strategy = bill.getBillingStrategy().getName();
+                event.totalAmount = bill.calculateTotalAmount();
+                event.commit();
+            }
+            return bill;
+        } finally {
+            billTimer.stop(start);
+        }
+    }
+
+    public BillLedger getBillLedger() {
+        return billLedger;
+    }
+
+    /**
+     * End-of-day settlement: bills every {@code COMPLETED} appointment dated
+     * {@code from} to {@code to} (inclusive) at the standard rate. Appointments
+     * already in the bill ledger, or claimed by a concurrent run, are skipped,
+     * and new bills are recorded there.
+     */
+    public BillingRunResult billCompletedAppointments(LocalDate from, LocalDate to) {
+        return billCompletedAppointments(from, to, a -> BillFactory.standardStrategy());
+    }
+
+    // The selector should return shared strategy instances (see BillFactory) so bills group well.
+    public BillingRunResult billCompletedAppointments(LocalDate from, LocalDate to,
+                                                      Function<Appointment, BillingStrategy> strategySelector) {
+        long start = billingRunTimer.start();
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+        try {
+            List<Appointment> billable = new ArrayList<>();
+            BillingRunResult result;
+            try {
+                for (Appointment appointment : getAppointmentsBetween(from.atStartOfDay(), to.atTime(LocalTime.MAX))) {
+                    if (appointment.getStatus() == AppointmentStatus.COMPLETED && billLedger.claim(appointment.getId())) {
+                        billable.add(appointment);
+                    }
+                }
+                BillingRun run = new BillingRun(billable, strategySelector);
+                long firstBillKey = billable.isEmpty() ? 0 : idGenerator.reserveBillKeys(billable.size());
+                result = run.execute(firstBillKey);
+                for (Bill bill : result.getBills()) {
+                    billLedger.record(bill);
+                }
+            } finally {
+                for (Appointment appointment : billable) {
+                    billLedger.release(appointment.getId());
+                }
+            }
+            if (event.shouldCommit()) {
+                event.from = from.toString();
+                event.to = to.toString();
+                event.bills = result.getBills().size();
+                event.grandTotal = result.getGrandTotal();
+                event.commit();
+            }
+            return result;
+        } finally {
+            billingRunTimer.stop(start);
+        }
     }
 
+    // Served from the incrementally maintained counters; no scan of the store.
     public Map<Doctor, Long> getAppointmentsPerDoctor() {
-        return getAllAppointments().stream()
-                .collect(Collectors.groupingBy(Appointment::getDoctor, Collectors.counting()));
+        return getAppointmentStats().getByDoctor();
+    }
+
+    public AppointmentStats getAppointmentStats() {
+        long start = statsTimer.start();
+        try {
+            return aggregates.snapshot();
+        } finally {
+            statsTimer.stop(start);
+        }
     }
 
     public void handleAppointmentMenu(Scanner scanner) {
@@ -77,6 +563,11 @@ public class AppointmentService {
             System.out.println("2. View all appointments");
             System.out.println("3. Cancel appointment");
             System.out.println("4. Generate bill");
+            System.out.println("5. View doctor's day");
+            System.out.println("6. Complete appointment");
+            System.out.println("7. End-of-day billing run");
+            System.out.println("8. Revenue report");
+            System.out.println("9. Merge duplicate patients");
             System.out.println("0. Back");
             System.out.print("Enter choice: ");
             String choice = scanner.nextLine();
@@ -85,6 +576,11 @@ public class AppointmentService {
                 case "2" -> listAppointments();
                 case "3" -> cancelFromInput(scanner);
                 case "4" -> billFromInput(scanner);
+                case "5" -> doctorDayFromInput(scanner);
+                case "6" -> completeFromInput(scanner);
+                case "7" -> billingRunFromInput(scanner);
+                case "8" -> revenueFromInput(scanner);
+                case "9" -> mergeFromInput(scanner);
                 case "0" -> back = true;
                 default -> System.out.println("Invalid choice.");
             }
@@ -112,12 +608,129 @@ public class AppointmentService {
         String dtStr = scanner.nextLine();
         LocalDateTime dateTime = DateUtil.parse(dtStr);
 
-        Appointment appointment = createAppointment(patientOpt.get(), doctorOpt.get(), dateTime);
-        System.out.println("Created appointment: " + appointment);
+        try {
+            Appointment appointment = createAppointment(patientOpt.get(), doctorOpt.get(), dateTime);
+            System.out.println("Created appointment: " + appointment);
+        } catch (AppointmentConflictException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    private void doctorDayFromInput(Scanner scanner) {
+        System.out.print("Enter doctor ID: ");
+        String doctorId = scanner.nextLine();
+        Optional<Doctor> doctorOpt = doctorService.getDoctorById(doctorId);
+        if (doctorOpt.isEmpty()) {
+            System.out.println("Doctor not found.");
+            return;
+        }
+        LocalDate day = readDate(scanner, "Enter date (yyyy-MM-dd): ");
+        if (day == null) {
+            return;
+        }
+        List<Appointment> appointments = getDoctorAppointmentsOn(doctorOpt.get().getId(), day);
+        if (appointments.isEmpty()) {
+            System.out.println("No appointments.");
+        } else {
+            appointments.forEach(System.out::println);
+        }
+    }
+
+    private void completeFromInput(Scanner scanner) {
+        System.out.print("Enter appointment ID: ");
+        String id = scanner.nextLine();
+        try {
+            completeAppointment(id);
+            System.out.println("Appointment completed.");
+        } catch (AppointmentNotFoundException | InvalidStatusTransitionException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    private void billingRunFromInput(Scanner scanner) {
+        LocalDate from = readDate(scanner, "Enter from date (yyyy-MM-dd): ");
+        LocalDate to = from != null ? readDate(scanner, "Enter to date (yyyy-MM-dd): ") : null;
+        if (to == null) {
+            return;
+        }
+        BillingRunResult result = billCompletedAppointments(from, to);
+        System.out.println("Billed " + result.getBills().size() + " appointments, total "
+                + String.format("%.2f", result.getGrandTotal()));
+        result.getTotalsByDoctor().forEach((doctor, total) ->
+                System.out.println("  " + doctor.getName() + " (" + doctor.getId() + "): "
+                        + String.format("%.2f", total)));
+    }
+
+    // Asks until the answer parses; a blank answer returns null so the caller can back out.
+    private static LocalDate readDate(Scanner scanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(input);
+            } catch (DateTimeParseException ex) {
+                System.out.println("Invalid date. Expected yyyy-MM-dd (blank to go back).");
+            }
+        }
+    }
+
+    // Like readDate: asks until the answer is a whole number of at least one day; blank backs out.
+    private static Integer readDays(Scanner scanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                int days = Integer.parseInt(input);
+                if (days >= 1) {
+                    return days;
+                }
+            } catch (NumberFormatException ex) {
+                // re-prompt below
+            }
+            System.out.println("Invalid number of days. Expected a whole number of at least 1 (blank to go back).");
+        }
+    }
+
+    private void revenueFromInput(Scanner scanner) {
+        Integer days = readDays(scanner, "Number of days up to today (e.g. 30): ");
+        if (days == null) {
+            return;
+        }
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1L);
+        System.out.println("Revenue " + from + " to " + to + ": "
+                + String.format("%.2f", billLedger.revenueBetween(from, to))
+                + " (" + billLedger.billCountBetween(from, to) + " bills)");
+        System.out.println("By doctor:");
+        billLedger.revenueByDoctor(from, to).forEach((doctorId, total) ->
+                System.out.println("  " + doctorId + ": " + String.format("%.2f", total)));
+        System.out.println("By billing strategy:");
+        billLedger.revenueByStrategy(from, to).forEach((strategy, total) ->
+                System.out.println("  " + strategy + ": " + String.format("%.2f", total)));
+    }
+
+    private void mergeFromInput(Scanner scanner) {
+        System.out.print("Enter ID of the patient to keep: ");
+        String survivorId = scanner.nextLine().trim();
+        System.out.print("Enter ID of the duplicate to merge and remove: ");
+        String duplicateId = scanner.nextLine().trim();
+        try {
+            int moved = mergePatients(survivorId, duplicateId);
+            System.out.println("Merged " + duplicateId + " into " + survivorId + "; "
+                    + moved + " appointments moved.");
+        } catch (InvalidDataException ex) {
+            System.out.println(ex.getMessage());
+        }
     }
 
     private void listAppointments() {
-        getAllAppointments().forEach(System.out::println);
+        store.forEach(System.out::println);
     }
 
     private void cancelFromInput(Scanner scanner) {
@@ -126,7 +739,7 @@ public class AppointmentService {
         try {
             cancelAppointment(id);
             System.out.println("Appointment cancelled.");
-        } catch (AppointmentNotFoundException ex) {
+        } catch (AppointmentNotFoundException | InvalidStatusTransitionException ex) {
             System.out.println(ex.getMessage());
         }
     }
@@ -138,7 +751,7 @@ public class AppointmentService {
             Bill bill = generateBill(id);
             System.out.println("Bill total: " + bill.calculateTotalAmount());
             System.out.println("Summary: " + bill.toSummary());
-        } catch (AppointmentNotFoundException ex) {
+        } catch (AppointmentNotFoundException | AppointmentAlreadyBilledException ex) {
             System.out.println(ex.getMessage());
         }
     }
@@ -0,0 +1,67 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link AppointmentService#archiveBefore(LocalDate)} in the background:
+ * once at start-up and then every {@link Constants#ARCHIVE_INTERVAL_HOURS},
+ * with the cut-off a fixed number of days before today, so the hot tier
+ * holds only the recent working set however much history accumulates.
+ */
+public class AppointmentTiering implements AutoCloseable {
+
+    private final AppointmentService appointmentService;
+    private final int afterDays;
+    private ScheduledExecutorService scheduler;
+
+    public AppointmentTiering(AppointmentService appointmentService, int afterDays) {
+        if (afterDays < 1) {
+            throw new IllegalArgumentException("Archive age must be at least one day: " + afterDays);
+        }
+        this.appointmentService = appointmentService;
+        this.afterDays = afterDays;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "meditrack-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, Constants.ARCHIVE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    // One pass; returns the number of appointments moved to the archive.
+    public int runOnce() throws IOException {
+        return appointmentService.archiveBefore(LocalDate.now().minusDays(afterDays));
+    }
+
+    // On a background thread: nothing is printed over the console menu unless a pass fails;
+    // passes are timed under appointment.archive.
+    private void runQuietly() {
+        try {
+            runOnce();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Appointment archiving failed: " + e.getMessage());
+        }
+    }
+
+    // Waits for a running pass so its evictions reach the journal before it closes.
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
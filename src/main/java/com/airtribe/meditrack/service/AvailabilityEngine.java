@@ -0,0 +1,268 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.AvailableSlot;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Availability calendar: every doctor-day is a 96-bit bitset of
+ * fifteen-minute slots (two {@code long}s), with a bit set when an
+ * appointment occupies the slot. Free start times are found with
+ * word-level operations: {@code working & ~busy}, AND-ed with itself
+ * shifted once per extra slot an appointment needs, leaves exactly the
+ * bits where a full appointment fits.
+ *
+ * <p>Bits are set as appointments are added; when one is removed the
+ * affected day is rebuilt from {@link DoctorSchedule} (a one-day range
+ * read), so legacy overlapping appointments never free each other's slots.
+ * Must be registered as a store listener after the schedule.
+ *
+ * <p>Only today and later days are kept: the first change or search on a
+ * new date drops every earlier day from all calendars, and appointments in
+ * the past never create one, so memory follows the booking horizon rather
+ * than the whole appointment history.
+ */
+public class AvailabilityEngine implements StoreListener<Appointment> {
+
+    private static final int SLOTS_PER_DAY = 24 * 60 / Constants.SLOT_MINUTES;
+
+    private final DoctorService doctorService;
+    private final DoctorSchedule schedule;
+    private final int slotsPerAppointment;
+    private final long workingLow;
+    private final long workingHigh;
+    private final Map<String, NavigableMap<LocalDate, DayBits>> calendars = new ConcurrentHashMap<>();
+    // Earliest day still tracked; advanced (and earlier days pruned) when the date changes.
+    private volatile LocalDate firstDay = LocalDate.MIN;
+
+    public AvailabilityEngine(DoctorService doctorService, DoctorSchedule schedule) {
+        this.doctorService = doctorService;
+        this.schedule = schedule;
+        this.slotsPerAppointment = (int) Math.max(1,
+                (schedule.getDurationMinutes() + Constants.SLOT_MINUTES - 1) / Constants.SLOT_MINUTES);
+        if (slotsPerAppointment >= 64) {
+            throw new IllegalArgumentException("Appointments longer than 16 hours are not supported");
+        }
+        int firstWorking = Constants.WORKDAY_START_HOUR * 60 / Constants.SLOT_MINUTES;
+        int endWorking = Constants.WORKDAY_END_HOUR * 60 / Constants.SLOT_MINUTES;
+        long[] working = new long[2];
+        for (int slot = firstWorking; slot < endWorking; slot++) {
+            working[slot >>> 6] |= 1L << slot;
+        }
+        // An appointment must also end by closing time.
+        long[] fits = working.clone();
+        for (int shift = 1; shift < slotsPerAppointment; shift++) {
+            andShifted(fits, working, shift);
+        }
+        this.workingLow = fits[0];
+        this.workingHigh = fits[1];
+    }
+
+    /**
+     * Earliest {@code limit} free start times, at or after {@code after},
+     * across every doctor with the given specialization. Doctors are
+     * searched in parallel; each contributes at most {@code limit} slots.
+     * Past days are not tracked, so a search never starts before today.
+     */
+    public List<AvailableSlot> earliestSlots(Specialization specialization, LocalDateTime after, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        return doctorService.filterBySpecialization(specialization).parallelStream()
+                .flatMap(doctor -> earliestSlots(doctor, after, limit).stream())
+                .sorted(Comparator.comparing(AvailableSlot::getStart)
+                        .thenComparing(slot -> slot.getDoctor().getId()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<AvailableSlot> earliestSlots(Doctor doctor, LocalDateTime after, int limit) {
+        List<AvailableSlot> result = new ArrayList<>(limit);
+        LocalDate today = today();
+        if (after.toLocalDate().isBefore(today)) {
+            after = today.atStartOfDay();
+        }
+        Map<LocalDate, DayBits> calendar = calendars.get(doctor.getId());
+        LocalDate day = after.toLocalDate();
+        int firstSlot = (after.getHour() * 60 + after.getMinute() + Constants.SLOT_MINUTES - 1) / Constants.SLOT_MINUTES;
+        for (int d = 0; d < Constants.AVAILABILITY_HORIZON_DAYS && result.size() < limit; d++, day = day.plusDays(1)) {
+            long[] free = {workingLow, workingHigh};
+            DayBits bits = calendar != null ? calendar.get(day) : null;
+            if (bits != null) {
+                long[] busy = bits.read();
+                // A start is free only if all slots the appointment spans are free.
+                long[] open = {~busy[0], ~busy[1]};
+                long[] fits = open.clone();
+                for (int shift = 1; shift < slotsPerAppointment; shift++) {
+                    andShifted(fits, open, shift);
+                }
+                free[0] &= fits[0];
+                free[1] &= fits[1];
+            }
+            if (d == 0) {
+                clearBelow(free, firstSlot);
+            }
+            for (int w = 0; w < 2 && result.size() < limit; w++) {
+                long word = free[w];
+                while (word != 0 && result.size() < limit) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    result.add(new AvailableSlot(doctor, day.atStartOfDay()
+                            .plusMinutes((long) slot * Constants.SLOT_MINUTES)));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onSave(String id, Appointment previous, Appointment current) {
+        if (previous != null && previous != current) {
+            rebuild(previous);
+        }
+        if (current.getStatus() != AppointmentStatus.CANCELLED) {
+            mark(current);
+        } else {
+            rebuild(current);
+        }
+    }
+
+    @Override
+    public void onDelete(String id, Appointment removed) {
+        rebuild(removed);
+    }
+
+    private void mark(Appointment appointment) {
+        String doctorId = appointment.getDoctor().getId();
+        LocalDate today = today();
+        forEachOccupiedSlot(appointment, (day, slot) -> {
+            if (!day.isBefore(today)) {
+                dayBits(doctorId, day).set(slot);
+            }
+        });
+    }
+
+    // Every slot the appointment touches, from its start rounded down to its end rounded up.
+    private void forEachOccupiedSlot(Appointment appointment, BiConsumer<LocalDate, Integer> action) {
+        LocalDateTime start = appointment.getDateTime();
+        long startMinute = start.getHour() * 60L + start.getMinute();
+        long first = startMinute / Constants.SLOT_MINUTES;
+        long end = (startMinute + schedule.getDurationMinutes() + Constants.SLOT_MINUTES - 1) / Constants.SLOT_MINUTES;
+        for (long slot = first; slot < end; slot++) {
+            action.accept(start.toLocalDate().plusDays(slot / SLOTS_PER_DAY), (int) (slot % SLOTS_PER_DAY));
+        }
+    }
+
+    // Recomputes the day(s) an appointment touched from the schedule index.
+    private void rebuild(Appointment appointment) {
+        String doctorId = appointment.getDoctor().getId();
+        LocalDate day = appointment.getDateTime().toLocalDate();
+        rebuildDay(doctorId, day);
+        if (appointment.getDateTime().plusMinutes(schedule.getDurationMinutes()).isAfter(day.plusDays(1).atStartOfDay())) {
+            rebuildDay(doctorId, day.plusDays(1));
+        }
+    }
+
+    // Holding the day's monitor while reading the schedule means a concurrent
+    // mark() either lands after the rebuild or is already reflected in it.
+    private void rebuildDay(String doctorId, LocalDate day) {
+        if (day.isBefore(today())) {
+            return;
+        }
+        DayBits bits = dayBits(doctorId, day);
+        synchronized (bits) {
+            long[] busy = new long[2];
+            List<Appointment> overlapping = schedule.between(doctorId,
+                    day.atStartOfDay().minusMinutes(schedule.getDurationMinutes()), day.plusDays(1).atStartOfDay());
+            for (Appointment appointment : overlapping) {
+                forEachOccupiedSlot(appointment, (slotDay, slot) -> {
+                    if (slotDay.equals(day)) {
+                        busy[slot >>> 6] |= 1L << slot;
+                    }
+                });
+            }
+            bits.replace(busy);
+        }
+    }
+
+    private DayBits dayBits(String doctorId, LocalDate day) {
+        return calendars.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(day, d -> new DayBits());
+    }
+
+    private LocalDate today() {
+        LocalDate today = LocalDate.now();
+        if (today.isAfter(firstDay)) {
+            pruneBefore(today);
+        }
+        return today;
+    }
+
+    // Runs about once a day; ordered calendars make each doctor's cut a head-map clear.
+    private synchronized void pruneBefore(LocalDate today) {
+        if (!today.isAfter(firstDay)) {
+            return;
+        }
+        firstDay = today;
+        for (NavigableMap<LocalDate, DayBits> calendar : calendars.values()) {
+            calendar.headMap(today).clear();
+        }
+    }
+
+    // target &= (source >>> shift), treating the two words as one 128-bit value.
+    private static void andShifted(long[] target, long[] source, int shift) {
+        long low = (source[0] >>> shift) | (source[1] << (64 - shift));
+        long high = source[1] >>> shift;
+        target[0] &= low;
+        target[1] &= high;
+    }
+
+    private static void clearBelow(long[] bits, int slot) {
+        if (slot >= 64) {
+            bits[0] = 0;
+            bits[1] &= slot >= 128 ? 0 : -1L << (slot - 64);
+        } else if (slot > 0) {
+            bits[0] &= -1L << slot;
+        }
+    }
+
+    // One doctor-day; writers synchronise, readers take a consistent pair of words.
+    private static final class DayBits {
+
+        private long low;
+        private long high;
+
+        synchronized void set(int slot) {
+            if (slot < 64) {
+                low |= 1L << slot;
+            } else {
+                high |= 1L << (slot - 64);
+            }
+        }
+
+        synchronized void replace(long[] busy) {
+            low = busy[0];
+            high = busy[1];
+        }
+
+        synchronized long[] read() {
+            return new long[]{low, high};
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.HashIndex;
+import com.airtribe.meditrack.util.Snapshot;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only record of issued bills, keyed by bill ID, with revenue
+ * rolled up per day, doctor and billing strategy as entries are written.
+ * Revenue queries are answered from those buckets; bills are never
+ * re-priced or rescanned.
+ *
+ * <p>The backing {@link DataStore} can be journaled like the entity stores;
+ * the buckets follow it as a store listener, so a replayed ledger comes
+ * back with its rollups.
+ */
+public class BillLedger {
+
+    private final DataStore<LedgerEntry> store;
+    private final HashIndex<LedgerEntry, String> appointmentIndex;
+    private final RevenueBuckets buckets = new RevenueBuckets();
+    // Appointments a billing run is pricing right now.
+    private final Set<String> claims = ConcurrentHashMap.newKeySet();
+
+    public BillLedger(DataStore<LedgerEntry> store) {
+        this.store = store;
+        this.appointmentIndex = store.addHashIndex("bill.appointment", LedgerEntry::getAppointmentId);
+        store.forEach(entry -> buckets.onSave(entry.getBillId(), null, entry));
+        store.addListener(buckets);
+    }
+
+    public LedgerEntry record(Bill bill) {
+        return append(LedgerEntry.of(bill));
+    }
+
+    /**
+     * Adds an entry; bill IDs are write-once, so an existing ID is rejected
+     * rather than overwritten.
+     */
+    public LedgerEntry append(LedgerEntry entry) {
+        if (store.findById(entry.getBillId()).isPresent()) {
+            throw new InvalidDataException("Bill already recorded: " + entry.getBillId());
+        }
+        store.save(entry.getBillId(), entry);
+        return entry;
+    }
+
+    public Optional<LedgerEntry> findById(String billId) {
+        return store.findById(billId);
+    }
+
+    public boolean isBilled(String appointmentId) {
+        return !appointmentIndex.find(appointmentId).isEmpty();
+    }
+
+    /**
+     * Reserves an appointment for billing. Returns {@code true} to exactly
+     * one caller until it {@link #release releases} the claim, and
+     * {@code false} once a bill for the appointment is recorded; claimants
+     * record the bill before releasing, so the two checks leave no gap.
+     */
+    public boolean claim(String appointmentId) {
+        if (!claims.add(appointmentId)) {
+            return false;
+        }
+        if (isBilled(appointmentId)) {
+            claims.remove(appointmentId);
+            return false;
+        }
+        return true;
+    }
+
+    public void release(String appointmentId) {
+        claims.remove(appointmentId);
+    }
+
+    public Snapshot<LedgerEntry> getSnapshot() {
+        return store.snapshot();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    // Revenue queries: date ranges are inclusive and refer to the service date.
+    public double revenueBetween(LocalDate from, LocalDate to) {
+        return toAmount(buckets.totalCents(from, to));
+    }
+
+    public long billCountBetween(LocalDate from, LocalDate to) {
+        return buckets.billCount(from, to);
+    }
+
+    public Map<String, Double> revenueByDoctor(LocalDate from, LocalDate to) {
+        return toAmounts(buckets.centsByDoctor(from, to));
+    }
+
+    public Map<String, Double> revenueByStrategy(LocalDate from, LocalDate to) {
+        return toAmounts(buckets.centsByStrategy(from, to));
+    }
+
+    public Map<LocalDate, Double> revenueByDay(LocalDate from, LocalDate to) {
+        return toAmounts(buckets.centsByDay(from, to));
+    }
+
+    // e.g. revenueByDoctorLastDays(30): the 30 days ending today.
+    public Map<String, Double> revenueByDoctorLastDays(int days) {
+        LocalDate today = LocalDate.now();
+        return revenueByDoctor(today.minusDays(days - 1L), today);
+    }
+
+    private static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    private static <K> Map<K, Double> toAmounts(Map<K, Long> cents) {
+        Map<K, Double> result = new LinkedHashMap<>();
+        cents.forEach((key, value) -> result.put(key, toAmount(value)));
+        return result;
+    }
+}
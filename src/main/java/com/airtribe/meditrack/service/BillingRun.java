@@ -0,0 +1,146 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillingRunResult;
+import com.airtribe.meditrack.entity.BillingStrategy;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.util.EntityId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * One batch billing run. Appointments are grouped by (shared) strategy
+ * instance; each group is laid out as parallel primitive arrays (base
+ * amount, dense doctor index, bill key) and priced through
+ * {@link BillingStrategy#calculateTotals} in fork/join chunks of
+ * {@link Constants#BILLING_CHUNK_SIZE}. Every leaf also sums its totals
+ * into a per-doctor {@code double[]}, merged as tasks join, so per-doctor
+ * totals come out of the same pass.
+ */
+final class BillingRun {
+
+    private final List<Doctor> doctors = new ArrayList<>();
+    private final Map<Doctor, Integer> doctorIndex = new HashMap<>();
+    private final Map<BillingStrategy, List<Appointment>> groups = new IdentityHashMap<>();
+
+    BillingRun(List<Appointment> billable, Function<Appointment, BillingStrategy> strategyFor) {
+        for (Appointment appointment : billable) {
+            doctorIndex.computeIfAbsent(appointment.getDoctor(), doctor -> {
+                doctors.add(doctor);
+                return doctors.size() - 1;
+            });
+            groups.computeIfAbsent(strategyFor.apply(appointment), s -> new ArrayList<>()).add(appointment);
+        }
+    }
+
+    /**
+     * Prices every group; {@code firstBillKey} is the first of a block of
+     * consecutive packed bill IDs, one per appointment.
+     */
+    BillingRunResult execute(long firstBillKey) {
+        List<PriceTask> tasks = new ArrayList<>(groups.size());
+        long nextKey = firstBillKey;
+        for (Map.Entry<BillingStrategy, List<Appointment>> group : groups.entrySet()) {
+            Batch batch = new Batch(group.getKey(), group.getValue(), nextKey);
+            nextKey += batch.size;
+            tasks.add(new PriceTask(batch, 0, batch.size));
+        }
+
+        double[] perDoctor = new double[doctors.size()];
+        for (PriceTask task : ForkJoinTask.invokeAll(tasks)) {
+            add(perDoctor, task.join());
+        }
+
+        List<Bill> bills = new ArrayList<>();
+        for (PriceTask task : tasks) {
+            bills.addAll(Arrays.asList(task.batch.bills));
+        }
+        Map<Doctor, Double> totalsByDoctor = new LinkedHashMap<>();
+        double grandTotal = 0;
+        for (int i = 0; i < perDoctor.length; i++) {
+            totalsByDoctor.put(doctors.get(i), perDoctor[i]);
+            grandTotal += perDoctor[i];
+        }
+        return new BillingRunResult(bills, totalsByDoctor, grandTotal);
+    }
+
+    private static void add(double[] into, double[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+    }
+
+    // One strategy's appointments as parallel arrays; leaves write disjoint ranges.
+    private final class Batch {
+
+        final BillingStrategy strategy;
+        final int size;
+        final Appointment[] appointments;
+        final double[] baseAmounts;
+        final double[] totals;
+        final int[] doctorSlots;
+        final long[] billKeys;
+        final Bill[] bills;
+
+        Batch(BillingStrategy strategy, List<Appointment> group, long firstKey) {
+            this.strategy = strategy;
+            this.size = group.size();
+            this.appointments = group.toArray(new Appointment[0]);
+            this.baseAmounts = new double[size];
+            this.totals = new double[size];
+            this.doctorSlots = new int[size];
+            this.billKeys = new long[size];
+            this.bills = new Bill[size];
+            for (int i = 0; i < size; i++) {
+                Doctor doctor = appointments[i].getDoctor();
+                baseAmounts[i] = doctor.getConsultationFee();
+                doctorSlots[i] = doctorIndex.get(doctor);
+                billKeys[i] = firstKey + i;
+            }
+        }
+    }
+
+    private final class PriceTask extends RecursiveTask<double[]> {
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        PriceTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > Constants.BILLING_CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                PriceTask left = new PriceTask(batch, from, mid);
+                left.fork();
+                double[] right = new PriceTask(batch, mid, to).compute();
+                add(right, left.join());
+                return right;
+            }
+            batch.strategy.calculateTotals(batch.baseAmounts, batch.totals, from, to);
+            double[] perDoctor = new double[doctors.size()];
+            for (int i = from; i < to; i++) {
+                perDoctor[batch.doctorSlots[i]] += batch.totals[i];
+                batch.bills[i] = new Bill(EntityId.format(batch.billKeys[i]), batch.appointments[i],
+                        batch.baseAmounts[i], batch.strategy);
+            }
+            return perDoctor;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.AvailableSlot;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.DoctorRank;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load-aware doctor ranking per specialization: fewest upcoming
+ * (pending/confirmed, not yet started) appointments first, then earliest
+ * next free slot, then lowest consultation fee, then doctor ID. The
+ * doctor's specialization and fee come from the doctor store (register
+ * {@link #doctorListener()}); load comes from the appointment store
+ * ({@link #appointmentListener()}).
+ *
+ * <p>Each specialization keeps every doctor in an ordered set (a heap that
+ * also supports removing an arbitrary doctor) and publishes its first
+ * {@link Constants#RANKING_TOP_K} as an immutable list. Store events run
+ * inside the store's update, so they only adjust the doctor's load or
+ * record and re-place it using the next-free time computed last; the
+ * board is marked dirty and rebuilt by the next
+ * {@link #topDoctors(Specialization)}. Between changes a read is a single
+ * volatile read.
+ *
+ * <p>Everything that needs the {@link AvailabilityEngine} or the clock runs
+ * in a {@link #refresh() refresh pass} on a shared background thread,
+ * never under a store lock or on a reading thread: recomputing next-free
+ * times of doctors whose appointments changed, dropping appointments whose
+ * start time has passed from the load, and re-ranking a specialization
+ * once its earliest published next-free time has passed. Store events
+ * queue a pass; a read that finds the published list stale queues one and
+ * returns the current list. Appointment events must reach this class after
+ * {@link AvailabilityEngine}, so a queued pass sees the updated calendar.
+ */
+public class DoctorRanking {
+
+    private static final Comparator<Ranked> ORDER = Comparator
+            .comparingInt((Ranked r) -> r.rank.getUpcomingAppointments())
+            .thenComparing(r -> r.rank.getNextAvailable(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingDouble((Ranked r) -> r.fee)
+            .thenComparing(r -> r.doctorId);
+
+    // Upcoming appointments in start order, so the ones that have started are cut from the front.
+    private static final Comparator<Outstanding> BY_START = Comparator
+            .comparing((Outstanding o) -> o.start)
+            .thenComparing(o -> o.appointmentId);
+
+    // One daemon thread shared by all rankings; passes are short and coalesce.
+    private static final Executor REFRESHER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "meditrack-ranking");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final DoctorService doctorService;
+    private final AvailabilityEngine availability;
+    private final int k;
+    private final Map<String, DoctorState> doctors = new ConcurrentHashMap<>();
+    private final Map<String, Outstanding> outstandingById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Outstanding> outstandingByStart = new ConcurrentSkipListSet<>(BY_START);
+    private final Set<String> pendingDoctorIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final Map<Specialization, Board> boards = new EnumMap<>(Specialization.class);
+
+    public DoctorRanking(DoctorService doctorService, AvailabilityEngine availability) {
+        this(doctorService, availability, Constants.RANKING_TOP_K);
+    }
+
+    public DoctorRanking(DoctorService doctorService, AvailabilityEngine availability, int k) {
+        this.doctorService = doctorService;
+        this.availability = availability;
+        this.k = k;
+        for (Specialization specialization : Specialization.values()) {
+            boards.put(specialization, new Board());
+        }
+        doctorService.getDoctorSnapshot().forEach(doctor -> doctorListener().onSave(doctor.getId(), null, doctor));
+    }
+
+    /**
+     * The current top K for a specialization, best first. Constant time; if
+     * the list has gone stale (see class comment) a refresh is queued and
+     * the current list returned.
+     */
+    public List<DoctorRank> topDoctors(Specialization specialization) {
+        Published published = boards.get(specialization).current();
+        LocalDateTime now = LocalDateTime.now();
+        if ((published.staleAfter != null && now.isAfter(published.staleAfter)) || hasStarted(now)) {
+            requestRefresh();
+        }
+        return published.top;
+    }
+
+    /**
+     * One refresh pass on the calling thread: expires appointments that have
+     * started, re-ranks specializations whose published next-free times have
+     * passed, and recomputes the next-free time of every doctor marked since
+     * the last pass. Normally run in the background.
+     */
+    public void refresh() {
+        refreshQueued.set(false);
+        LocalDateTime now = LocalDateTime.now();
+        for (Outstanding first; (first = outstandingByStart.pollFirst()) != null; ) {
+            if (!first.start.isBefore(now)) {
+                outstandingByStart.add(first);
+                break;
+            }
+            // Fails if a newer save already replaced it; that save adjusted the load.
+            if (outstandingById.remove(first.appointmentId, first)) {
+                update(first.doctorId, -1);
+            }
+        }
+        for (Map.Entry<Specialization, Board> entry : boards.entrySet()) {
+            LocalDateTime staleAfter = entry.getValue().current().staleAfter;
+            if (staleAfter != null && now.isAfter(staleAfter)) {
+                for (Doctor doctor : doctorService.filterBySpecialization(entry.getKey())) {
+                    pendingDoctorIds.add(doctor.getId());
+                }
+            }
+        }
+        for (String doctorId : pendingDoctorIds) {
+            pendingDoctorIds.remove(doctorId);
+            DoctorState state = state(doctorId);
+            Doctor doctor = state.doctor;
+            if (doctor == null) {
+                continue;
+            }
+            List<AvailableSlot> slot = availability.earliestSlots(doctor, LocalDateTime.now(), 1);
+            synchronized (state) {
+                state.nextAvailable = slot.isEmpty() ? null : slot.get(0).getStart();
+                place(state);
+            }
+        }
+    }
+
+    // Listens to the appointment store: tracks each doctor's upcoming load.
+    public StoreListener<Appointment> appointmentListener() {
+        return new StoreListener<>() {
+            @Override
+            public void onSave(String id, Appointment previous, Appointment current) {
+                Outstanding after = isUpcoming(current) ? new Outstanding(current) : null;
+                Outstanding before = after != null
+                        ? outstandingById.put(id, after)
+                        : outstandingById.remove(id);
+                if (before != null) {
+                    outstandingByStart.remove(before);
+                }
+                if (after != null) {
+                    outstandingByStart.add(after);
+                }
+                String beforeDoctor = before != null ? before.doctorId : null;
+                String afterDoctor = after != null ? after.doctorId : null;
+                if (beforeDoctor != null && !beforeDoctor.equals(afterDoctor)) {
+                    update(beforeDoctor, -1);
+                }
+                if (afterDoctor != null && !afterDoctor.equals(beforeDoctor)) {
+                    update(afterDoctor, 1);
+                }
+                // Any booking change can move the doctor's next free slot.
+                markPending(current.getDoctor().getId());
+                if (previous != null && previous != current) {
+                    markPending(previous.getDoctor().getId());
+                }
+            }
+
+            @Override
+            public void onDelete(String id, Appointment removed) {
+                Outstanding before = outstandingById.remove(id);
+                if (before != null) {
+                    outstandingByStart.remove(before);
+                    update(before.doctorId, -1);
+                }
+                markPending(removed.getDoctor().getId());
+            }
+        };
+    }
+
+    // Listens to the doctor store: new doctors, fee or specialization changes, removals.
+    public StoreListener<Doctor> doctorListener() {
+        return new StoreListener<>() {
+            @Override
+            public void onSave(String id, Doctor previous, Doctor current) {
+                DoctorState state = state(id);
+                synchronized (state) {
+                    state.doctor = current;
+                    place(state);
+                }
+                if (previous == null) {
+                    markPending(id);
+                }
+            }
+
+            @Override
+            public void onDelete(String id, Doctor removed) {
+                DoctorState state = state(id);
+                synchronized (state) {
+                    state.doctor = null;
+                    place(state);
+                }
+            }
+        };
+    }
+
+    private static boolean isUpcoming(Appointment appointment) {
+        return (appointment.getStatus() == AppointmentStatus.PENDING
+                || appointment.getStatus() == AppointmentStatus.CONFIRMED)
+                && !appointment.getDateTime().isBefore(LocalDateTime.now());
+    }
+
+    private boolean hasStarted(LocalDateTime now) {
+        Outstanding first = outstandingByStart.isEmpty() ? null : outstandingByStart.first();
+        return first != null && first.start.isBefore(now);
+    }
+
+    private DoctorState state(String doctorId) {
+        return doctors.computeIfAbsent(doctorId, id -> new DoctorState());
+    }
+
+    private void update(String doctorId, int loadDelta) {
+        DoctorState state = state(doctorId);
+        synchronized (state) {
+            state.load += loadDelta;
+            place(state);
+        }
+    }
+
+    private void markPending(String doctorId) {
+        pendingDoctorIds.add(doctorId);
+        requestRefresh();
+    }
+
+    private void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            REFRESHER.execute(this::refresh);
+        }
+    }
+
+    // Re-keys one doctor from its current load and last computed next-free time and
+    // moves it between/within the boards. Caller holds the state's monitor.
+    private void place(DoctorState state) {
+        Doctor doctor = state.doctor;
+        Ranked next = null;
+        if (doctor != null && doctor.getSpecialization() != null) {
+            next = new Ranked(new DoctorRank(doctor, Math.max(0, state.load), state.nextAvailable));
+        }
+        Ranked previous = state.ranked;
+        state.ranked = next;
+        if (previous != null) {
+            boards.get(previous.specialization).remove(previous);
+        }
+        if (next != null) {
+            boards.get(next.specialization).add(next);
+        }
+    }
+
+    private final class Board {
+
+        private final ConcurrentSkipListSet<Ranked> ranked = new ConcurrentSkipListSet<>(ORDER);
+        private volatile Published published = new Published(List.of(), null);
+        private volatile boolean dirty;
+
+        // Writers only touch the concurrent set; the flag is raised after the change is visible.
+        void add(Ranked entry) {
+            ranked.add(entry);
+            dirty = true;
+        }
+
+        void remove(Ranked entry) {
+            ranked.remove(entry);
+            dirty = true;
+        }
+
+        Published current() {
+            if (dirty) {
+                synchronized (this) {
+                    if (dirty) {
+                        // Cleared before the rebuild: a change landing mid-iteration marks it dirty again.
+                        dirty = false;
+                        publish();
+                    }
+                }
+            }
+            return published;
+        }
+
+        private void publish() {
+            List<DoctorRank> top = new ArrayList<>(k);
+            LocalDateTime staleAfter = null;
+            Iterator<Ranked> it = ranked.iterator();
+            while (it.hasNext() && top.size() < k) {
+                DoctorRank rank = it.next().rank;
+                top.add(rank);
+                LocalDateTime next = rank.getNextAvailable();
+                if (next != null && (staleAfter == null || next.isBefore(staleAfter))) {
+                    staleAfter = next;
+                }
+            }
+            published = new Published(List.copyOf(top), staleAfter);
+        }
+    }
+
+    private static final class Published {
+
+        private final List<DoctorRank> top;
+        private final LocalDateTime staleAfter;
+
+        private Published(List<DoctorRank> top, LocalDateTime staleAfter) {
+            this.top = top;
+            this.staleAfter = staleAfter;
+        }
+    }
+
+    // Sort key fields are copied so an in-place edit of the doctor cannot reorder the set.
+    private static final class Ranked {
+
+        private final DoctorRank rank;
+        private final Specialization specialization;
+        private final double fee;
+        private final String doctorId;
+
+        private Ranked(DoctorRank rank) {
+            this.rank = rank;
+            this.specialization = rank.getDoctor().getSpecialization();
+            this.fee = rank.getDoctor().getConsultationFee();
+            this.doctorId = rank.getDoctor().getId();
+        }
+    }
+
+    // An upcoming appointment counted in its doctor's load.
+    private static final class Outstanding {
+
+        private final String appointmentId;
+        private final String doctorId;
+        private final LocalDateTime start;
+
+        private Outstanding(Appointment appointment) {
+            this.appointmentId = appointment.getId();
+            this.doctorId = appointment.getDoctor().getId();
+            this.start = appointment.getDateTime();
+        }
+    }
+
+    // Guarded by its own monitor; 'doctor' is also read without it by the refresh pass.
+    private static final class DoctorState {
+        volatile Doctor doctor;
+        int load;
+        LocalDateTime nextAvailable;
+        Ranked ranked;
+    }
+}
@@ -0,0 +1,165 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-doctor schedule index: for each doctor, the appointments that occupy
+ * a slot (anything not {@code CANCELLED}) ordered by start time in a
+ * {@link ConcurrentSkipListMap}. Kept current as a {@link StoreListener} on
+ * the appointment store, so conflict checks and "doctor's day" queries are
+ * logarithmic range reads instead of scans over every appointment.
+ *
+ * <p>Every appointment is assumed to last
+ * {@link Constants#APPOINTMENT_DURATION_MINUTES}. Callers that need an
+ * atomic check-then-book, or that change an existing appointment, hold
+ * {@link #lockFor(String)} for the doctor.
+ */
+public class DoctorSchedule implements StoreListener<Appointment> {
+
+    private final long durationMinutes;
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+
+    public DoctorSchedule() {
+        this(Constants.APPOINTMENT_DURATION_MINUTES);
+    }
+
+    public DoctorSchedule(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public long getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    /**
+     * Lock guarding check-and-book and status changes for one doctor. There
+     * is one per doctor rather than a fixed set of stripes, so bookings for
+     * different doctors never share a lock. A {@link ReentrantLock} rather
+     * than a monitor, so a virtual thread waiting on it (server mode)
+     * unmounts from its carrier thread instead of pinning it.
+     */
+    public Lock lockFor(String doctorId) {
+        return timeline(doctorId).lock;
+    }
+
+    /**
+     * Returns an existing appointment whose slot overlaps
+     * {@code [start, start + duration)}, if any.
+     */
+    public Optional<Appointment> findConflict(String doctorId, LocalDateTime start) {
+        Timeline timeline = timelines.get(doctorId);
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        NavigableMap<Slot, Appointment> overlapping = timeline.slots.subMap(
+                Slot.after(start.minusMinutes(durationMinutes)), false,
+                Slot.before(start.plusMinutes(durationMinutes)), false);
+        Map.Entry<Slot, Appointment> first = overlapping.firstEntry();
+        return first != null ? Optional.of(first.getValue()) : Optional.empty();
+    }
+
+    /**
+     * Slot-occupying appointments for the doctor starting in {@code [from, to)}, in time order.
+     */
+    public List<Appointment> between(String doctorId, LocalDateTime from, LocalDateTime to) {
+        Timeline timeline = timelines.get(doctorId);
+        if (timeline == null || !from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(timeline.slots.subMap(Slot.before(from), true, Slot.before(to), false).values());
+    }
+
+    public List<Appointment> onDay(String doctorId, LocalDate day) {
+        return between(doctorId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    @Override
+    public void onSave(String id, Appointment previous, Appointment current) {
+        if (previous != null && previous != current) {
+            remove(previous);
+        }
+        if (occupiesSlot(current)) {
+            timeline(current.getDoctor().getId()).slots.put(Slot.of(current), current);
+        } else {
+            remove(current);
+        }
+    }
+
+    @Override
+    public void onDelete(String id, Appointment removed) {
+        remove(removed);
+    }
+
+    private void remove(Appointment appointment) {
+        Timeline timeline = timelines.get(appointment.getDoctor().getId());
+        if (timeline != null) {
+            timeline.slots.remove(Slot.of(appointment), appointment);
+        }
+    }
+
+    private static boolean occupiesSlot(Appointment appointment) {
+        return appointment.getStatus() != AppointmentStatus.CANCELLED;
+    }
+
+    private Timeline timeline(String doctorId) {
+        return timelines.computeIfAbsent(doctorId, id -> new Timeline());
+    }
+
+    private static final class Timeline {
+        final ConcurrentSkipListMap<Slot, Appointment> slots = new ConcurrentSkipListMap<>();
+        final ReentrantLock lock = new ReentrantLock();
+    }
+
+    // Ordered by start time, then appointment ID, so legacy overlapping records can coexist.
+    private static final class Slot implements Comparable<Slot> {
+
+        private final LocalDateTime start;
+        private final String appointmentId;
+        private final int bound; // -1 sorts before every ID at this start, +1 after
+
+        private Slot(LocalDateTime start, String appointmentId, int bound) {
+            this.start = start;
+            this.appointmentId = appointmentId;
+            this.bound = bound;
+        }
+
+        static Slot of(Appointment appointment) {
+            return new Slot(appointment.getDateTime(), appointment.getId(), 0);
+        }
+
+        static Slot before(LocalDateTime start) {
+            return new Slot(start, null, -1);
+        }
+
+        static Slot after(LocalDateTime start) {
+            return new Slot(start, null, 1);
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = start.compareTo(other.start);
+            if (byStart != 0) {
+                return byStart;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return appointmentId.compareTo(other.appointmentId);
+        }
+    }
+}
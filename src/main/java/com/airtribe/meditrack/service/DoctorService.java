@@ -1,10 +1,17 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.cdc.ChangeStream;
 import com.airtribe.meditrack.entity.Doctor;
 import com.airtribe.meditrack.entity.Specialization;
 import com.airtribe.meditrack.interfacepkg.Searchable;
+import com.airtribe.meditrack.jfr.DoctorEvent;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EnumIndex;
 import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.Snapshot;
+import com.airtribe.meditrack.util.StoreListener;
 import com.airtribe.meditrack.util.Validator;
 
 import java.util.DoubleSummaryStatistics;
@@ -12,16 +19,26 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DoctorService implements Searchable<Doctor> {
 
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     // SOLID (Single Responsibility): encapsulates all doctor-specific logic,
     // while relying on the injected DataStore abstraction for persistence.
     private final DataStore<Doctor> store;
     private final IdGenerator idGenerator = IdGenerator.getInstance();
+    private final EnumIndex<Doctor, Specialization> specializationIndex;
+    private final OperationTimer createTimer = METRICS.timer("doctor.create");
+    private final OperationTimer specializationTimer = METRICS.timer("doctor.filterBySpecialization");
+    private final OperationTimer feeStatisticsTimer = METRICS.timer("doctor.feeStatistics");
+    private final OperationTimer deleteTimer = METRICS.timer("doctor.delete");
 
     public DoctorService(DataStore<Doctor> store) {
         this.store = store;
+        this.specializationIndex = store.addEnumIndex("doctor.specialization",
+                Specialization.class, Doctor::getSpecialization);
     }
 
     // CRUD: create operation for Doctor (used by UI and CSV loader)
@@ -33,38 +50,97 @@ public class DoctorService implements Searchable<Doctor> {
 
     public Doctor createDoctorWithId(String id, String name, int age, String phone,
                                      Specialization specialization, double fee) {
-        Validator.requireNonBlank(name, "Name");
-        Validator.requirePositive(age, "Age");
-        Validator.requireNonBlank(phone, "Phone");
-        Validator.requireNonNegative(fee, "Consultation fee");
-        Doctor doctor = new Doctor(id, name, age, phone, specialization, fee);
-        store.save(id, doctor);
-        return doctor;
+        long start = createTimer.start();
+        DoctorEvent event = new DoctorEvent();
+        event.begin();
+        boolean created = false;
+        try {
+            Validator.requireNonBlank(name, "Name");
+            Validator.requirePositive(age, "Age");
+            Validator.requireNonBlank(phone, "Phone");
+            Validator.requireNonNegative(fee, "Consultation fee");
+            Doctor doctor = new Doctor(id, name, age, phone, specialization, fee);
+            store.save(id, doctor);
+            created = true;
+            return doctor;
+        } finally {
+            createTimer.stop(start);
+            commit(event, "create", id, specialization, created);
+        }
     }
 
     public Optional<Doctor> getDoctorById(String id) {
         return store.findById(id);
     }
 
-    // CRUD: read-all operation for Doctor
+    public Optional<Doctor> getDoctorById(long id) {
+        return store.findById(id);
+    }
+
+    // CRUD: read-all operation for Doctor (copies; prefer getDoctorSnapshot() for bulk reads)
     public List<Doctor> getAllDoctors() {
         return store.findAll();
     }
 
+    public Snapshot<Doctor> getDoctorSnapshot() {
+        return store.snapshot();
+    }
+
     public List<Doctor> filterBySpecialization(Specialization specialization) {
-        return getAllDoctors().stream()
-                .filter(d -> d.getSpecialization() == specialization)
-                .collect(Collectors.toList());
+        long start = specializationTimer.start();
+        try {
+            return specializationIndex.find(specialization);
+        } finally {
+            specializationTimer.stop(start);
+        }
+    }
+
+    // Lets derived views (e.g. doctor ranking) follow doctor changes.
+    public void addDoctorListener(StoreListener<Doctor> listener) {
+        store.addListener(listener);
+    }
+
+    // Change events for asynchronous subscribers; detail is the specialization.
+    public void publishChanges(ChangeStream stream) {
+        store.publishTo(stream, doctor -> doctor.getSpecialization() != null
+                ? doctor.getSpecialization().name() : null);
     }
 
     public DoubleSummaryStatistics feeStatistics() {
-        return getAllDoctors().stream()
-                .collect(Collectors.summarizingDouble(Doctor::getConsultationFee));
+        long start = feeStatisticsTimer.start();
+        try {
+            return store.stream()
+                    .collect(Collectors.summarizingDouble(Doctor::getConsultationFee));
+        } finally {
+            feeStatisticsTimer.stop(start);
+        }
     }
 
     // CRUD: delete operation for Doctor
     public boolean deleteDoctor(String id) {
-        return store.delete(id);
+        long start = deleteTimer.start();
+        DoctorEvent event = new DoctorEvent();
+        event.begin();
+        boolean deleted = false;
+        try {
+            deleted = store.delete(id);
+            return deleted;
+        } finally {
+            deleteTimer.stop(start);
+            commit(event, "delete", id, null, deleted);
+        }
+    }
+
+    // JFR: fields are only filled in when the event is enabled and over its threshold.
+    private static void commit(DoctorEvent event, String operation, String id,
+                               Specialization specialization, boolean succeeded) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.doctorId = id;
+            event.specialization = specialization != null ? specialization.name() : null;
+            event.succeeded = succeeded;
+            event.commit();
+        }
     }
 
     @Override
@@ -72,6 +148,11 @@ public class DoctorService implements Searchable<Doctor> {
         return getAllDoctors();
     }
 
+    @Override
+    public Stream<Doctor> stream() {
+        return store.stream();
+    }
+
     public void handleDoctorMenu(Scanner scanner) {
         boolean back = false;
         while (!back) {
@@ -119,7 +200,7 @@ public class DoctorService implements Searchable<Doctor> {
     }
 
     private void listDoctors() {
-        getAllDoctors().forEach(System.out::println);
+        store.forEach(System.out::println);
     }
 
     private void filterBySpecializationFromInput(Scanner scanner) {
@@ -0,0 +1,183 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.DuplicateCandidate;
+import com.airtribe.meditrack.entity.DuplicatePair;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.BlockingKeys;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.HashIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds patients registered more than once. Instead of comparing every pair
+ * of records, patients are grouped ("blocked") by two keys held in hash
+ * indexes on the patient store: the normalized phone number and the
+ * phonetic code of the name. Only records sharing a block are scored, so a
+ * single registration is checked against a handful of candidates and the
+ * bulk report costs the sum of the squared block sizes, not n squared.
+ *
+ * <p>Scoring: same phone 0.5, same phonetic name 0.35, identical spelling
+ * 0.15, age within a year 0.15. A shared phone alone (family members) or a
+ * similar name alone (common names) stays below
+ * {@link Constants#DUPLICATE_SCORE_THRESHOLD}.
+ */
+public class DuplicateDetector {
+
+    private static final double PHONE_WEIGHT = 0.5;
+    private static final double PHONETIC_WEIGHT = 0.35;
+    private static final double EXACT_NAME_WEIGHT = 0.15;
+    private static final double AGE_WEIGHT = 0.15;
+    private static final int AGE_TOLERANCE = 1;
+    // A phone shared by more records than this is a placeholder, not an identifier.
+    private static final int MAX_PHONE_BLOCK = 64;
+
+    private static final Comparator<Patient> BY_AGE = Comparator.comparingInt(Patient::getAge);
+
+    private final HashIndex<Patient, String> phoneKeyIndex;
+    private final HashIndex<Patient, String> nameKeyIndex;
+    private final double threshold;
+
+    public DuplicateDetector(DataStore<Patient> store) {
+        this(store, Constants.DUPLICATE_SCORE_THRESHOLD);
+    }
+
+    public DuplicateDetector(DataStore<Patient> store, double threshold) {
+        this.phoneKeyIndex = store.addHashIndex("patient.phone.key", p -> BlockingKeys.phoneKey(p.getPhone()));
+        this.nameKeyIndex = store.addHashIndex("patient.name.phonetic", p -> BlockingKeys.nameKey(p.getName()));
+        this.threshold = threshold;
+    }
+
+    /**
+     * Registered patients that may be the person described by the given
+     * details, best match first. Two index lookups plus scoring the members
+     * of the two blocks.
+     */
+    public List<DuplicateCandidate> findPossibleDuplicates(String name, int age, String phone) {
+        String phoneKey = BlockingKeys.phoneKey(phone);
+        String nameKey = BlockingKeys.nameKey(name);
+        Map<String, Patient> candidates = new LinkedHashMap<>();
+        for (Patient patient : phoneKeyIndex.find(phoneKey)) {
+            candidates.put(patient.getId(), patient);
+        }
+        for (Patient patient : nameKeyIndex.find(nameKey)) {
+            candidates.put(patient.getId(), patient);
+        }
+        String normalizedName = normalize(name);
+        List<DuplicateCandidate> result = new ArrayList<>();
+        for (Patient patient : candidates.values()) {
+            double score = score(phoneKey, nameKey, normalizedName, age, patient);
+            if (score >= threshold) {
+                result.add(new DuplicateCandidate(patient, score));
+            }
+        }
+        result.sort(Comparator.comparingDouble(DuplicateCandidate::getScore).reversed());
+        return result;
+    }
+
+    public List<DuplicateCandidate> findPossibleDuplicates(Patient patient) {
+        List<DuplicateCandidate> result = findPossibleDuplicates(patient.getName(), patient.getAge(),
+                patient.getPhone());
+        result.removeIf(c -> c.getPatient().getId().equals(patient.getId()));
+        return result;
+    }
+
+    /**
+     * Every likely duplicate pair in the store, best first. Blocks are scored
+     * in parallel and independently; a pair found in both its phone block and
+     * its name block is reported once.
+     *
+     * <p>Within a name block only patients whose ages are within tolerance
+     * can reach the threshold without also sharing a phone (and those pairs
+     * are found in the phone block), so name blocks are sorted by age and
+     * scanned with a sliding window rather than all-pairs.
+     */
+    public List<DuplicatePair> duplicateReport() {
+        Map<String, DuplicatePair> pairs = new ConcurrentHashMap<>();
+        phoneKeyIndex.keys().parallelStream().forEach(key -> {
+            List<Patient> block = phoneKeyIndex.find(key);
+            if (block.size() > MAX_PHONE_BLOCK) {
+                return;
+            }
+            for (int i = 0; i < block.size(); i++) {
+                for (int j = i + 1; j < block.size(); j++) {
+                    consider(block.get(i), block.get(j), pairs);
+                }
+            }
+        });
+        nameKeyIndex.keys().parallelStream().forEach(key -> {
+            List<Patient> block = nameKeyIndex.find(key);
+            if (block.size() < 2) {
+                return;
+            }
+            block.sort(BY_AGE);
+            for (int i = 0; i < block.size(); i++) {
+                int age = block.get(i).getAge();
+                for (int j = i + 1; j < block.size() && block.get(j).getAge() - age <= AGE_TOLERANCE; j++) {
+                    consider(block.get(i), block.get(j), pairs);
+                }
+            }
+        });
+        List<DuplicatePair> result = new ArrayList<>(pairs.values());
+        result.sort(Comparator.comparingDouble(DuplicatePair::getScore).reversed()
+                .thenComparing(p -> p.getFirst().getId(), DuplicateDetector::compareIds));
+        return result;
+    }
+
+    // Pair score between two stored patients; symmetric.
+    public double score(Patient a, Patient b) {
+        return score(BlockingKeys.phoneKey(a.getPhone()), BlockingKeys.nameKey(a.getName()),
+                normalize(a.getName()), a.getAge(), b);
+    }
+
+    private void consider(Patient a, Patient b, Map<String, DuplicatePair> pairs) {
+        double score = score(a, b);
+        if (score < threshold) {
+            return;
+        }
+        boolean aFirst = compareIds(a.getId(), b.getId()) <= 0;
+        Patient first = aFirst ? a : b;
+        Patient second = aFirst ? b : a;
+        pairs.putIfAbsent(first.getId() + '|' + second.getId(), new DuplicatePair(first, second, score));
+    }
+
+    private static double score(String phoneKey, String nameKey, String normalizedName, int age, Patient other) {
+        double score = 0;
+        if (phoneKey != null && phoneKey.equals(BlockingKeys.phoneKey(other.getPhone()))) {
+            score += PHONE_WEIGHT;
+        }
+        if (nameKey != null && nameKey.equals(BlockingKeys.nameKey(other.getName()))) {
+            score += PHONETIC_WEIGHT;
+            if (normalizedName.equals(normalize(other.getName()))) {
+                score += EXACT_NAME_WEIGHT;
+            }
+        }
+        if (Math.abs(age - other.getAge()) <= AGE_TOLERANCE) {
+            score += AGE_WEIGHT;
+        }
+        return score;
+    }
+
+    // Whitespace- and case-insensitive spelling.
+    private static String normalize(String name) {
+        return name == null ? "" : String.join(" ", name.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+    }
+
+    // Numeric order for packed IDs ("P9" before "P10"), text order otherwise.
+    private static int compareIds(String a, String b) {
+        long x = EntityId.tryParse(a);
+        long y = EntityId.tryParse(b);
+        if (x != EntityId.NONE && y != EntityId.NONE) {
+            return Long.compare(x, y);
+        }
+        return a.compareTo(b);
+    }
+}
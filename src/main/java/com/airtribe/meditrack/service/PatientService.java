@@ -1,25 +1,67 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.cdc.ChangeStream;
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.DuplicateCandidate;
+import com.airtribe.meditrack.entity.DuplicatePair;
 import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.InvalidDataException;
 import com.airtribe.meditrack.interfacepkg.Searchable;
+import com.airtribe.meditrack.jfr.PatientEvent;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.HashIndex;
 import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.NameSearchIndex;
+import com.airtribe.meditrack.util.Snapshot;
+import com.airtribe.meditrack.util.SortedIndex;
 import com.airtribe.meditrack.util.Validator;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PatientService implements Searchable<Patient> {
 
+    private static final int NAME_SUGGESTIONS = 10;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     // SOLID (Single Responsibility): coordinates patient-related operations only,
     // delegating persistence to the generic DataStore abstraction.
     private final DataStore<Patient> store;
     private final IdGenerator idGenerator = IdGenerator.getInstance();
 
+    // Secondary indexes so searches cost the number of matches, not a full scan.
+    private final HashIndex<Patient, String> phoneIndex;
+    private final SortedIndex<Patient, Integer> ageIndex;
+    private final NameSearchIndex<Patient> nameSearchIndex;
+    private final DuplicateDetector duplicateDetector;
+    private final OperationTimer createTimer = METRICS.timer("patient.create");
+    private final OperationTimer historyTimer = METRICS.timer("patient.addHistoryEntry");
+    private final OperationTimer duplicateCheckTimer = METRICS.timer("patient.duplicateCheck");
+    private final OperationTimer duplicateReportTimer = METRICS.timer("patient.duplicateReport");
+    private final OperationTimer nameSearchTimer = METRICS.timer("patient.searchByName");
+    private final OperationTimer completeTimer = METRICS.timer("patient.completeName");
+    private final OperationTimer fuzzySearchTimer = METRICS.timer("patient.fuzzySearch");
+    private final OperationTimer phoneSearchTimer = METRICS.timer("patient.searchByPhone");
+    private final OperationTimer ageSearchTimer = METRICS.timer("patient.searchByAge");
+    private final OperationTimer ageRangeTimer = METRICS.timer("patient.searchByAgeRange");
+    private final OperationTimer deleteTimer = METRICS.timer("patient.delete");
+
     public PatientService(DataStore<Patient> store) {
         this.store = store;
+        this.phoneIndex = store.addHashIndex("patient.phone", p -> normalize(p.getPhone()));
+        this.ageIndex = store.addSortedIndex("patient.age", Patient::getAge);
+        this.nameSearchIndex = store.addNameSearchIndex("patient.name.search", Patient::getName);
+        this.duplicateDetector = new DuplicateDetector(store);
+    }
+
+    // Change events for asynchronous subscribers (audit, caches).
+    public void publishChanges(ChangeStream stream) {
+        store.publishTo(stream, null);
     }
 
     // CRUD: create operation for Patient (public API used by UI and CSV loader)
@@ -29,43 +71,182 @@ public class PatientService implements Searchable<Patient> {
     }
 
     public Patient createPatientWithId(String id, String name, int age, String phone) {
-        Validator.requireNonBlank(name, "Name");
-        Validator.requirePositive(age, "Age");
-        Validator.requireNonBlank(phone, "Phone");
-        Patient patient = new Patient(id, name, age, phone);
-        store.save(id, patient);
-        return patient;
+        long start = createTimer.start();
+        PatientEvent event = new PatientEvent();
+        event.begin();
+        boolean created = false;
+        try {
+            Validator.requireNonBlank(name, "Name");
+            Validator.requirePositive(age, "Age");
+            Validator.requireNonBlank(phone, "Phone");
+            Patient patient = new Patient(id, name, age, phone);
+            store.save(id, patient);
+            created = true;
+            return patient;
+        } finally {
+            createTimer.stop(start);
+            commit(event, "create", id, created);
+        }
+    }
+
+    // Re-save after an in-place change (e.g. medical history) so indexes and listeners follow.
+    public void updatePatient(Patient patient) {
+        PatientEvent event = new PatientEvent();
+        event.begin();
+        store.save(patient.getId(), patient);
+        commit(event, "update", patient.getId(), true);
+    }
+
+    // Registration-time check: existing patients that look like the same person.
+    public List<DuplicateCandidate> findPossibleDuplicates(String name, int age, String phone) {
+        long start = duplicateCheckTimer.start();
+        try {
+            return duplicateDetector.findPossibleDuplicates(name, age, phone);
+        } finally {
+            duplicateCheckTimer.stop(start);
+        }
+    }
+
+    public List<DuplicatePair> findDuplicatePatients() {
+        long start = duplicateReportTimer.start();
+        try {
+            return duplicateDetector.duplicateReport();
+        } finally {
+            duplicateReportTimer.stop(start);
+        }
+    }
+
+    public DuplicateDetector getDuplicateDetector() {
+        return duplicateDetector;
+    }
+
+    // Appends to the patient's history and re-saves so the history file follows.
+    public Patient addMedicalHistoryEntry(String patientId, String entry) {
+        long start = historyTimer.start();
+        try {
+            Validator.requireNonBlank(entry, "History entry");
+            Patient patient = getPatientById(patientId)
+                    .orElseThrow(() -> new InvalidDataException("Patient not found: " + patientId));
+            patient.addMedicalHistoryEntry(entry);
+            updatePatient(patient);
+            return patient;
+        } finally {
+            historyTimer.stop(start);
+        }
+    }
+
+    public List<String> getMedicalHistoryPage(String patientId, int from, int limit) {
+        return getPatientById(patientId)
+                .map(p -> p.getMedicalHistoryPage(from, limit))
+                .orElseThrow(() -> new InvalidDataException("Patient not found: " + patientId));
     }
 
     public Optional<Patient> getPatientById(String id) {
         return store.findById(id);
     }
 
-    // CRUD: read-all operation for Patient
+    public Optional<Patient> getPatientById(long id) {
+        return store.findById(id);
+    }
+
+    // CRUD: read-all operation for Patient (copies; prefer getPatientSnapshot() for bulk reads)
     public List<Patient> getAllPatients() {
         return store.findAll();
     }
 
+    public Snapshot<Patient> getPatientSnapshot() {
+        return store.snapshot();
+    }
+
     // Overloaded search methods for polymorphism demonstration
     public Optional<Patient> searchPatient(String id) {
         return getPatientById(id);
     }
 
     public List<Patient> searchPatientByName(String name) {
-        return getAllPatients().stream()
-                .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(name))
-                .collect(Collectors.toList());
+        long start = nameSearchTimer.start();
+        try {
+            // Exact match on the normalised full name (case and spacing ignored).
+            return nameSearchIndex.find(name);
+        } finally {
+            nameSearchTimer.stop(start);
+        }
+    }
+
+    // Name completion for partial input, e.g. "john sm" -> "John Smith".
+    public List<Patient> completePatientName(String prefix, int limit) {
+        long start = completeTimer.start();
+        try {
+            return nameSearchIndex.complete(prefix, limit);
+        } finally {
+            completeTimer.stop(start);
+        }
+    }
+
+    // Typo-tolerant, ranked name search (exact spellings first).
+    public List<Patient> fuzzySearchPatientByName(String query, int limit) {
+        long start = fuzzySearchTimer.start();
+        try {
+            return nameSearchIndex.search(query, limit);
+        } finally {
+            fuzzySearchTimer.stop(start);
+        }
+    }
+
+    public List<Patient> searchPatientByPhone(String phone) {
+        long start = phoneSearchTimer.start();
+        try {
+            return phoneIndex.find(normalize(phone));
+        } finally {
+            phoneSearchTimer.stop(start);
+        }
     }
 
     public List<Patient> searchPatient(int age) {
-        return getAllPatients().stream()
-                .filter(p -> p.getAge() == age)
-                .collect(Collectors.toList());
+        long start = ageSearchTimer.start();
+        try {
+            return ageIndex.find(age);
+        } finally {
+            ageSearchTimer.stop(start);
+        }
+    }
+
+    public List<Patient> searchPatientByAgeRange(int minAge, int maxAge) {
+        long start = ageRangeTimer.start();
+        try {
+            return ageIndex.range(minAge, maxAge);
+        } finally {
+            ageRangeTimer.stop(start);
+        }
     }
 
     // CRUD: delete operation for Patient
     public boolean deletePatient(String id) {
-        return store.delete(id);
+        long start = deleteTimer.start();
+        PatientEvent event = new PatientEvent();
+        event.begin();
+        boolean deleted = false;
+        try {
+            deleted = store.delete(id);
+            return deleted;
+        } finally {
+            deleteTimer.stop(start);
+            commit(event, "delete", id, deleted);
+        }
+    }
+
+    // JFR: fields are only filled in when the event is enabled and over its threshold.
+    private static void commit(PatientEvent event, String operation, String id, boolean succeeded) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.patientId = id;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
     }
 
     @Override
@@ -73,6 +254,11 @@ public class PatientService implements Searchable<Patient> {
         return getAllPatients();
     }
 
+    @Override
+    public Stream<Patient> stream() {
+        return store.stream();
+    }
+
     public void handlePatientMenu(Scanner scanner) {
         boolean back = false;
         while (!back) {
@@ -83,6 +269,9 @@ public class PatientService implements Searchable<Patient> {
             System.out.println("4. Search patient by name");
             System.out.println("5. Search patient by age");
             System.out.println("6. Delete patient");
+            System.out.println("7. Duplicate patient report");
+            System.out.println("8. Add medical history entry");
+            System.out.println("9. View medical history");
             System.out.println("0. Back");
             System.out.print("Enter choice: ");
             String choice = scanner.nextLine();
@@ -93,6 +282,9 @@ public class PatientService implements Searchable<Patient> {
                 case "4" -> searchByNameFromInput(scanner);
                 case "5" -> searchByAgeFromInput(scanner);
                 case "6" -> deleteFromInput(scanner);
+                case "7" -> duplicateReport();
+                case "8" -> addHistoryFromInput(scanner);
+                case "9" -> viewHistoryFromInput(scanner);
                 case "0" -> back = true;
                 default -> System.out.println("Invalid choice.");
             }
@@ -106,12 +298,75 @@ public class PatientService implements Searchable<Patient> {
         int age = Integer.parseInt(scanner.nextLine());
         System.out.print("Phone: ");
         String phone = scanner.nextLine();
+        List<DuplicateCandidate> duplicates = findPossibleDuplicates(name, age, phone);
+        if (!duplicates.isEmpty()) {
+            System.out.println("Possible existing registrations:");
+            duplicates.forEach(c -> System.out.println("  " + c.getPatient()
+                    + " (score " + String.format("%.2f", c.getScore()) + ")"));
+            System.out.print("Register as a new patient anyway? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                System.out.println("Registration cancelled.");
+                return;
+            }
+        }
         Patient patient = createPatient(name, age, phone);
         System.out.println("Created patient: " + patient);
     }
 
+    private void duplicateReport() {
+        List<DuplicatePair> pairs = findDuplicatePatients();
+        if (pairs.isEmpty()) {
+            System.out.println("No likely duplicates found.");
+            return;
+        }
+        pairs.forEach(p -> System.out.println(p.getFirst().getId() + " " + p.getFirst().getName()
+                + " <-> " + p.getSecond().getId() + " " + p.getSecond().getName()
+                + " (score " + String.format("%.2f", p.getScore()) + ")"));
+        System.out.println(pairs.size() + " likely duplicate pairs. Merge them from the appointment menu.");
+    }
+
+    private void addHistoryFromInput(Scanner scanner) {
+        System.out.print("Enter patient ID: ");
+        String id = scanner.nextLine();
+        System.out.print("Entry: ");
+        String entry = scanner.nextLine();
+        try {
+            Patient patient = addMedicalHistoryEntry(id, entry);
+            System.out.println("Recorded; " + patient.getMedicalHistorySize() + " entries.");
+        } catch (InvalidDataException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    // Pages through the history so long histories are never loaded in full.
+    private void viewHistoryFromInput(Scanner scanner) {
+        System.out.print("Enter patient ID: ");
+        Optional<Patient> patient = getPatientById(scanner.nextLine());
+        if (patient.isEmpty()) {
+            System.out.println("Patient not found.");
+            return;
+        }
+        int total = patient.get().getMedicalHistorySize();
+        if (total == 0) {
+            System.out.println("No medical history recorded.");
+            return;
+        }
+        for (int from = 0; from < total; from += Constants.HISTORY_PAGE_SIZE) {
+            List<String> page = patient.get().getMedicalHistoryPage(from, Constants.HISTORY_PAGE_SIZE);
+            for (int i = 0; i < page.size(); i++) {
+                System.out.println((from + i + 1) + ". " + page.get(i));
+            }
+            if (from + page.size() < total) {
+                System.out.print("-- " + (from + page.size()) + "/" + total + ", Enter for more, q to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
+            }
+        }
+    }
+
     private void listPatients() {
-        getAllPatients().forEach(System.out::println);
+        store.forEach(System.out::println);
     }
 
     private void searchByIdFromInput(Scanner scanner) {
@@ -127,10 +382,16 @@ public class PatientService implements Searchable<Patient> {
         System.out.print("Enter name: ");
         String name = scanner.nextLine();
         List<Patient> result = searchPatientByName(name);
-        if (result.isEmpty()) {
+        if (!result.isEmpty()) {
+            result.forEach(System.out::println);
+            return;
+        }
+        List<Patient> suggestions = fuzzySearchPatientByName(name, NAME_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
             System.out.println("No patients found.");
         } else {
-            result.forEach(System.out::println);
+            System.out.println("No exact match. Closest names:");
+            suggestions.forEach(System.out::println);
         }
     }
 
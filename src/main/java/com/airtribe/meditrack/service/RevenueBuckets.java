@@ -0,0 +1,118 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-aggregated revenue: one bucket per service day, each holding the day
+ * total plus per-doctor and per-strategy totals. Maintained as a
+ * {@link StoreListener} on the ledger store, so journal replay and CSV
+ * loads fill it the same way live billing does.
+ *
+ * <p>Amounts are kept as whole cents in {@link LongAdder}s, so sums are
+ * exact and independent of the order bills arrive in. A range query
+ * visits one bucket per day in the range and never touches the bills.
+ */
+class RevenueBuckets implements StoreListener<LedgerEntry> {
+
+    private final ConcurrentSkipListMap<LocalDate, DayBucket> days = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void onSave(String id, LedgerEntry previous, LedgerEntry current) {
+        if (previous == current) {
+            return;
+        }
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(current, 1);
+    }
+
+    @Override
+    public void onDelete(String id, LedgerEntry removed) {
+        apply(removed, -1);
+    }
+
+    long totalCents(LocalDate from, LocalDate to) {
+        long cents = 0;
+        for (DayBucket bucket : range(from, to).values()) {
+            cents += bucket.total.sum();
+        }
+        return cents;
+    }
+
+    long billCount(LocalDate from, LocalDate to) {
+        long count = 0;
+        for (DayBucket bucket : range(from, to).values()) {
+            count += bucket.bills.sum();
+        }
+        return count;
+    }
+
+    Map<String, Long> centsByDoctor(LocalDate from, LocalDate to) {
+        Map<String, Long> result = new TreeMap<>();
+        for (DayBucket bucket : range(from, to).values()) {
+            merge(bucket.byDoctor, result);
+        }
+        return result;
+    }
+
+    Map<String, Long> centsByStrategy(LocalDate from, LocalDate to) {
+        Map<String, Long> result = new TreeMap<>();
+        for (DayBucket bucket : range(from, to).values()) {
+            merge(bucket.byStrategy, result);
+        }
+        return result;
+    }
+
+    NavigableMap<LocalDate, Long> centsByDay(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Long> result = new TreeMap<>();
+        range(from, to).forEach((day, bucket) -> {
+            long sum = bucket.total.sum();
+            if (sum != 0) {
+                result.put(day, sum);
+            }
+        });
+        return result;
+    }
+
+    private NavigableMap<LocalDate, DayBucket> range(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return new TreeMap<>();
+        }
+        return days.subMap(from, true, to, true);
+    }
+
+    private void apply(LedgerEntry entry, int sign) {
+        long cents = sign * Math.round(entry.getTotalAmount() * 100);
+        DayBucket bucket = days.computeIfAbsent(entry.getServiceDate(), d -> new DayBucket());
+        bucket.total.add(cents);
+        bucket.bills.add(sign);
+        bucket.byDoctor.computeIfAbsent(entry.getDoctorId(), k -> new LongAdder()).add(cents);
+        bucket.byStrategy.computeIfAbsent(entry.getStrategy(), k -> new LongAdder()).add(cents);
+    }
+
+    private static void merge(Map<String, LongAdder> from, Map<String, Long> into) {
+        from.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                into.merge(key, sum, Long::sum);
+            }
+        });
+    }
+
+    private static final class DayBucket {
+        final LongAdder total = new LongAdder();
+        final LongAdder bills = new LongAdder();
+        final Map<String, LongAdder> byDoctor = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> byStrategy = new ConcurrentHashMap<>();
+    }
+}
@@ -1,13 +1,23 @@
 package com.airtribe.meditrack.util;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStats;
+import com.airtribe.meditrack.entity.AvailableSlot;
 import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.DoctorRank;
 import com.airtribe.meditrack.entity.Patient;
 import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.jfr.RecommendationEvent;
 import com.airtribe.meditrack.service.AppointmentService;
 import com.airtribe.meditrack.service.DoctorService;
 import com.airtribe.meditrack.service.PatientService;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -16,32 +26,136 @@ import java.util.stream.Collectors;
 
 public class AIHelper {
 
+    private static final int SUGGESTED_SLOTS = 5;
+
+    // Swapped as a whole on reload, so each lookup sees one complete dictionary.
+    private volatile SymptomMatcher matcher;
+
+    public AIHelper() {
+        this(loadDefaultMatcher());
+    }
+
+    public AIHelper(SymptomMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    public SymptomMatcher getMatcher() {
+        return matcher;
+    }
+
+    public void setMatcher(SymptomMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    // Builds the new automaton first; the live one keeps serving until the swap.
+    public SymptomMatcher reloadDictionary(Path path) throws IOException {
+        SymptomMatcher loaded = SymptomMatcher.load(path);
+        matcher = loaded;
+        return loaded;
+    }
+
+    // Highest-weighted specialization among the dictionary matches; general physician otherwise.
     public Optional<Specialization> recommendSpecialization(String symptom) {
         if (symptom == null) {
             return Optional.empty();
         }
-        String lower = symptom.toLowerCase();
-        if (lower.contains("heart") || lower.contains("chest")) {
-            return Optional.of(Specialization.CARDIOLOGIST);
-        } else if (lower.contains("skin") || lower.contains("rash")) {
-            return Optional.of(Specialization.DERMATOLOGIST);
-        } else if (lower.contains("child") || lower.contains("pediatric")) {
-            return Optional.of(Specialization.PEDIATRICIAN);
-        } else if (lower.contains("bone") || lower.contains("joint")) {
-            return Optional.of(Specialization.ORTHOPEDIC);
-        } else if (lower.contains("headache") || lower.contains("neuro")) {
-            return Optional.of(Specialization.NEUROLOGIST);
+        return Optional.of(recommend(matcher, symptom));
+    }
+
+    /**
+     * Batch triage for a queue of intake forms: one result per form, in
+     * order, all scored against the same dictionary even if it is swapped
+     * mid-batch. Forms are scored on the calling thread; the matcher is a
+     * single pass per form, so sharing the common pool would buy little.
+     */
+    public List<Specialization> triage(List<String> intakeForms) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
+        SymptomMatcher current = matcher;
+        List<Specialization> results = intakeForms.stream()
+                .map(form -> recommend(current, form))
+                .collect(Collectors.toList());
+        commit(event, "triage", null, Optional.empty(), results.size());
+        return results;
+    }
+
+    private static Specialization recommend(SymptomMatcher matcher, String symptom) {
+        return matcher.bestMatch(symptom).orElse(Specialization.GENERAL_PHYSICIAN);
+    }
+
+    private static SymptomMatcher loadDefaultMatcher() {
+        Path override = Path.of(Constants.SYMPTOM_DICTIONARY);
+        try {
+            if (Files.exists(override)) {
+                return SymptomMatcher.load(override);
+            }
+            return SymptomMatcher.loadResource(Constants.SYMPTOM_DICTIONARY_RESOURCE);
+        } catch (IOException | InvalidDataException e) {
+            System.err.println("Failed to load symptom dictionary: " + e.getMessage());
+            return SymptomMatcher.of(List.of());
         }
-        return Optional.of(Specialization.GENERAL_PHYSICIAN);
     }
 
     public List<Doctor> recommendDoctors(String symptom, List<Doctor> allDoctors) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
         Optional<Specialization> specializationOpt = recommendSpecialization(symptom);
-        return specializationOpt
+        List<Doctor> doctors = specializationOpt
                 .map(spec -> allDoctors.stream()
                         .filter(d -> d.getSpecialization() == spec)
                         .collect(Collectors.toList()))
                 .orElseGet(List::of);
+        commit(event, "doctors", symptom, specializationOpt, doctors.size());
+        return doctors;
+    }
+
+    // Uses the doctor specialization index instead of copying every doctor first.
+    public List<Doctor> recommendDoctors(String symptom, DoctorService doctorService) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
+        Optional<Specialization> specializationOpt = recommendSpecialization(symptom);
+        List<Doctor> doctors = specializationOpt
+                .map(doctorService::filterBySpecialization)
+                .orElseGet(List::of);
+        commit(event, "doctors", symptom, specializationOpt, doctors.size());
+        return doctors;
+    }
+
+    // Load-aware ranking: a read of the precomputed top K for the recommended specialization.
+    public List<DoctorRank> recommendRankedDoctors(String symptom, AppointmentService appointmentService) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
+        Optional<Specialization> specializationOpt = recommendSpecialization(symptom);
+        List<DoctorRank> ranked = specializationOpt
+                .map(appointmentService::getTopDoctors)
+                .orElseGet(List::of);
+        commit(event, "rankedDoctors", symptom, specializationOpt, ranked.size());
+        return ranked;
+    }
+
+    // Earliest bookable slots with any doctor matching the recommended specialization.
+    public List<AvailableSlot> recommendSlots(String symptom, AppointmentService appointmentService,
+                                              LocalDateTime after, int limit) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
+        Optional<Specialization> specializationOpt = recommendSpecialization(symptom);
+        List<AvailableSlot> slots = specializationOpt
+                .map(spec -> appointmentService.findEarliestSlots(spec, after, limit))
+                .orElseGet(List::of);
+        commit(event, "slots", symptom, specializationOpt, slots.size());
+        return slots;
+    }
+
+    // JFR: records the symptom length only; the text itself stays out of recordings.
+    private static void commit(RecommendationEvent event, String kind, String symptom,
+                               Optional<Specialization> specialization, int results) {
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.symptomLength = symptom != null ? symptom.length() : 0;
+            event.specialization = specialization.map(Specialization::name).orElse(null);
+            event.results = results;
+            event.commit();
+        }
     }
 
     public void handleAiMenu(Scanner scanner,
@@ -51,12 +165,16 @@ public class AIHelper {
         System.out.println("\n=== AI Helper ===");
         System.out.println("1. Recommend doctor by symptom");
         System.out.println("2. Appointment analytics (per doctor)");
+        System.out.println("3. Appointment dashboard (status, specialization, day)");
+        System.out.println("4. Reload symptom dictionary");
         System.out.println("0. Back");
         System.out.print("Enter choice: ");
         String choice = scanner.nextLine();
         switch (choice) {
             case "1" -> handleDoctorRecommendation(scanner, doctorService, appointmentService, patientService);
             case "2" -> handleAnalytics(appointmentService);
+            case "3" -> handleDashboard(appointmentService);
+            case "4" -> handleDictionaryReload(scanner);
             case "0" -> {
             }
             default -> System.out.println("Invalid choice.");
@@ -78,35 +196,94 @@ public class AIHelper {
         System.out.print("Describe symptoms: ");
         String symptoms = scanner.nextLine();
 
-        List<Doctor> recommended = recommendDoctors(symptoms, doctorService.getAllDoctors());
+        List<DoctorRank> recommended = recommendRankedDoctors(symptoms, appointmentService);
         if (recommended.isEmpty()) {
             System.out.println("No suitable doctors found.");
             return;
         }
 
-        System.out.println("Recommended doctors:");
-        for (Doctor d : recommended) {
-            System.out.println(d.getId() + " - " + d.getName() + " (" + d.getSpecialization() + ")");
+        System.out.println("Recommended doctors (least busy first):");
+        for (DoctorRank rank : recommended) {
+            Doctor d = rank.getDoctor();
+            System.out.println(d.getId() + " - " + d.getName() + " (" + d.getSpecialization() + ")"
+                    + ", upcoming: " + rank.getUpcomingAppointments()
+                    + ", fee: " + d.getConsultationFee()
+                    + ", next free: " + (rank.getNextAvailable() != null
+                    ? DateUtil.format(rank.getNextAvailable()) : "none"));
         }
 
-        System.out.print("Enter doctor ID to book appointment (or blank to cancel): ");
-        String doctorId = scanner.nextLine();
-        if (doctorId.isBlank()) {
-            return;
+        List<AvailableSlot> slots = recommendSlots(symptoms, appointmentService, LocalDateTime.now(), SUGGESTED_SLOTS);
+        if (!slots.isEmpty()) {
+            System.out.println("Earliest available slots:");
+            for (int i = 0; i < slots.size(); i++) {
+                AvailableSlot slot = slots.get(i);
+                System.out.println((i + 1) + ". " + DateUtil.format(slot.getStart()) + " with "
+                        + slot.getDoctor().getName() + " (" + slot.getDoctor().getId() + ")");
+            }
         }
 
-        Optional<Doctor> doctorOpt = doctorService.getDoctorById(doctorId);
-        if (doctorOpt.isEmpty()) {
-            System.out.println("Doctor not found.");
+        System.out.print("Enter slot number, or doctor ID to pick a time (blank to cancel): ");
+        String selection = scanner.nextLine().trim();
+        if (selection.isBlank()) {
             return;
         }
 
-        System.out.print("Enter appointment date/time (yyyy-MM-dd HH:mm): ");
-        String dtStr = scanner.nextLine();
-        LocalDateTime dateTime = DateUtil.parse(dtStr);
+        Doctor doctor;
+        LocalDateTime dateTime;
+        Optional<AvailableSlot> chosen = slotAt(slots, selection);
+        if (chosen.isPresent()) {
+            doctor = chosen.get().getDoctor();
+            dateTime = chosen.get().getStart();
+        } else {
+            Optional<Doctor> doctorOpt = doctorService.getDoctorById(selection);
+            if (doctorOpt.isEmpty()) {
+                System.out.println("Doctor not found.");
+                return;
+            }
+            doctor = doctorOpt.get();
+            System.out.print("Enter appointment date/time (yyyy-MM-dd HH:mm): ");
+            dateTime = DateUtil.parse(scanner.nextLine());
+        }
+
+        try {
+            Appointment appointment = appointmentService.createAppointment(patientOpt.get(), doctor, dateTime);
+            System.out.println("Created appointment: " + appointment);
+        } catch (AppointmentConflictException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    private static Optional<AvailableSlot> slotAt(List<AvailableSlot> slots, String selection) {
+        try {
+            int index = Integer.parseInt(selection) - 1;
+            return index >= 0 && index < slots.size() ? Optional.of(slots.get(index)) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void handleDictionaryReload(Scanner scanner) {
+        System.out.print("Dictionary file (blank for " + Constants.SYMPTOM_DICTIONARY + "): ");
+        String input = scanner.nextLine().trim();
+        Path path = Path.of(input.isEmpty() ? Constants.SYMPTOM_DICTIONARY : input);
+        try {
+            SymptomMatcher loaded = reloadDictionary(path);
+            System.out.println("Loaded " + loaded.getKeywordCount() + " keywords.");
+        } catch (IOException | InvalidDataException e) {
+            System.out.println("Failed to load dictionary: " + e.getMessage());
+        }
+    }
 
-        Appointment appointment = appointmentService.createAppointment(patientOpt.get(), doctorOpt.get(), dateTime);
-        System.out.println("Created appointment: " + appointment);
+    private void handleDashboard(AppointmentService appointmentService) {
+        AppointmentStats stats = appointmentService.getAppointmentStats();
+        System.out.println("\n=== Appointment Dashboard ===");
+        System.out.println("Total appointments: " + stats.getTotal());
+        System.out.println("By status:");
+        stats.getByStatus().forEach((status, count) -> System.out.println("  " + status + ": " + count));
+        System.out.println("By specialization:");
+        stats.getBySpecialization().forEach((spec, count) -> System.out.println("  " + spec + ": " + count));
+        System.out.println("By day:");
+        stats.getByDay().forEach((day, count) -> System.out.println("  " + day + ": " + count));
     }
 
     private void handleAnalytics(AppointmentService appointmentService) {
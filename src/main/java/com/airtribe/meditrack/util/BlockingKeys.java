@@ -0,0 +1,83 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Blocking keys for duplicate detection: records that could describe the
+ * same person must land under the same key, so only records sharing a key
+ * are ever compared.
+ */
+public final class BlockingKeys {
+
+    // Soundex digit per letter a-z; '0' marks letters that are not coded.
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+    private static final int PHONE_DIGITS = 10;
+
+    private BlockingKeys() {
+    }
+
+    /**
+     * Digits only, keeping the last ten so country prefixes and formatting
+     * ("+91 98765-43210" vs "9876543210") collapse to one key. Returns
+     * {@code null} when fewer than seven digits remain.
+     */
+    public static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < 7) {
+            return null;
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits.toString();
+    }
+
+    /**
+     * Soundex code of every name token, sorted, so spelling variants
+     * ("Jon Smyth" / "John Smith") and swapped first/last names share a key.
+     */
+    public static String nameKey(String name) {
+        if (name == null) {
+            return null;
+        }
+        List<String> codes = new ArrayList<>();
+        for (String token : name.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+            if (!token.isEmpty()) {
+                codes.add(soundex(token));
+            }
+        }
+        if (codes.isEmpty()) {
+            return null;
+        }
+        Collections.sort(codes);
+        return String.join(" ", codes);
+    }
+
+    // American Soundex over a lower-case a-z token: first letter plus three digits.
+    public static String soundex(String token) {
+        char[] code = {Character.toUpperCase(token.charAt(0)), '0', '0', '0'};
+        char previous = SOUNDEX_CODES.charAt(token.charAt(0) - 'a');
+        int length = 1;
+        for (int i = 1; i < token.length() && length < code.length; i++) {
+            char c = token.charAt(i);
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            // 'h' and 'w' do not separate letters with the same code; vowels do.
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        return new String(code);
+    }
+}
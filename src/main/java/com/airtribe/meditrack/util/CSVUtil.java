@@ -2,160 +2,205 @@ package com.airtribe.meditrack.util;
 
 import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.*;
+import com.airtribe.meditrack.jfr.CsvFileEvent;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
 import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BillLedger;
 import com.airtribe.meditrack.service.DoctorService;
 import com.airtribe.meditrack.service.PatientService;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
 
 public final class CSVUtil {
 
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final OperationTimer SAVE_PATIENTS = METRICS.timer("csv.savePatients");
+    private static final OperationTimer SAVE_DOCTORS = METRICS.timer("csv.saveDoctors");
+    private static final OperationTimer SAVE_APPOINTMENTS = METRICS.timer("csv.saveAppointments");
+    private static final OperationTimer SAVE_BILLS = METRICS.timer("csv.saveBills");
+    private static final OperationTimer LOAD = METRICS.timer("csv.load");
+
     private CSVUtil() {
     }
 
     public static void savePatients(PatientService patientService) {
-        Path path = Path.of(Constants.PATIENT_CSV);
-        ensureParentDir(path);
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            for (Patient p : patientService.getAllPatients()) {
-                writer.write(String.join(",",
-                        p.getId(),
-                        escape(p.getName()),
-                        String.valueOf(p.getAge()),
-                        escape(p.getPhone())
-                ));
-                writer.newLine();
+        savePatients(patientService, Path.of(Constants.PATIENT_CSV));
+    }
+
+    public static void savePatients(PatientService patientService, Path path) {
+        long start = SAVE_PATIENTS.start();
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
+        long rows = 0;
+        try {
+            ensureParentDir(path);
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                for (Patient p : patientService.getPatientSnapshot()) {
+                    writer.write(String.join(",",
+                            p.getId(),
+                            escape(p.getName()),
+                            String.valueOf(p.getAge()),
+                            escape(p.getPhone())
+                    ));
+                    writer.newLine();
+                    rows++;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to save patients: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println("Failed to save patients: " + e.getMessage());
+        } finally {
+            SAVE_PATIENTS.stop(start);
+            commitSave(event, path, rows);
         }
     }
 
     public static void saveDoctors(DoctorService doctorService) {
-        Path path = Path.of(Constants.DOCTOR_CSV);
-        ensureParentDir(path);
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            for (Doctor d : doctorService.getAllDoctors()) {
-                writer.write(String.join(",",
-                        d.getId(),
-                        escape(d.getName()),
-                        String.valueOf(d.getAge()),
-                        escape(d.getPhone()),
-                        d.getSpecialization().name(),
-                        String.valueOf(d.getConsultationFee())
-                ));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to save doctors: " + e.getMessage());
-        }
+        saveDoctors(doctorService, Path.of(Constants.DOCTOR_CSV));
     }
 
-    public static void saveAppointments(AppointmentService appointmentService) {
-        Path path = Path.of(Constants.APPOINTMENT_CSV);
-        ensureParentDir(path);
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            for (Appointment a : appointmentService.getAllAppointments()) {
-                writer.write(String.join(",",
-                        a.getId(),
-                        a.getPatient().getId(),
-                        a.getDoctor().getId(),
-                        DateUtil.format(a.getDateTime()),
-                        a.getStatus().name()
-                ));
-                writer.newLine();
+    public static void saveDoctors(DoctorService doctorService, Path path) {
+        long start = SAVE_DOCTORS.start();
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
+        long rows = 0;
+        try {
+            ensureParentDir(path);
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                for (Doctor d : doctorService.getDoctorSnapshot()) {
+                    writer.write(String.join(",",
+                            d.getId(),
+                            escape(d.getName()),
+                            String.valueOf(d.getAge()),
+                            escape(d.getPhone()),
+                            d.getSpecialization().name(),
+                            String.valueOf(d.getConsultationFee())
+                    ));
+                    writer.newLine();
+                    rows++;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to save doctors: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println("Failed to save appointments: " + e.getMessage());
+        } finally {
+            SAVE_DOCTORS.stop(start);
+            commitSave(event, path, rows);
         }
     }
 
-    public static void loadInitialData(DoctorService doctorService,
-                                       PatientService patientService,
-                                       AppointmentService appointmentService) {
-        loadPatients(patientService);
-        loadDoctors(doctorService);
-        loadAppointments(doctorService, patientService, appointmentService);
+    public static void saveAppointments(AppointmentService appointmentService) {
+        saveAppointments(appointmentService, Path.of(Constants.APPOINTMENT_CSV));
     }
 
-    private static void loadPatients(PatientService patientService) {
-        Path path = Path.of(Constants.PATIENT_CSV);
-        if (!Files.exists(path)) {
-            return;
-        }
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    String id = parts[0];
-                    String name = unescape(parts[1]);
-                    int age = Integer.parseInt(parts[2]);
-                    String phone = unescape(parts[3]);
-                    patientService.createPatientWithId(id, name, age, phone);
+    public static void saveAppointments(AppointmentService appointmentService, Path path) {
+        long start = SAVE_APPOINTMENTS.start();
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
+        long rows = 0;
+        try {
+            ensureParentDir(path);
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                for (Appointment a : appointmentService.getAppointmentSnapshot()) {
+                    writer.write(String.join(",",
+                            a.getId(),
+                            a.getPatient().getId(),
+                            a.getDoctor().getId(),
+                            DateUtil.format(a.getDateTime()),
+                            a.getStatus().name()
+                    ));
+                    writer.newLine();
+                    rows++;
                 }
+            } catch (IOException e) {
+                System.err.println("Failed to save appointments: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println("Failed to load patients: " + e.getMessage());
+        } finally {
+            SAVE_APPOINTMENTS.stop(start);
+            commitSave(event, path, rows);
         }
     }
 
-    private static void loadDoctors(DoctorService doctorService) {
-        Path path = Path.of(Constants.DOCTOR_CSV);
-        if (!Files.exists(path)) {
-            return;
-        }
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    String id = parts[0];
-                    String name = unescape(parts[1]);
-                    int age = Integer.parseInt(parts[2]);
-                    String phone = unescape(parts[3]);
-                    Specialization specialization = Specialization.valueOf(parts[4]);
-                    double fee = Double.parseDouble(parts[5]);
-                    doctorService.createDoctorWithId(id, name, age, phone, specialization, fee);
+    public static void saveBills(BillLedger billLedger) {
+        saveBills(billLedger, Path.of(Constants.BILL_CSV));
+    }
+
+    public static void saveBills(BillLedger billLedger, Path path) {
+        long start = SAVE_BILLS.start();
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
+        long rows = 0;
+        try {
+            ensureParentDir(path);
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                for (LedgerEntry e : billLedger.getSnapshot()) {
+                    writer.write(String.join(",",
+                            e.getBillId(),
+                            e.getAppointmentId(),
+                            e.getDoctorId(),
+                            DateUtil.format(e.getAppointmentTime()),
+                            escape(e.getStrategy()),
+                            String.valueOf(e.getBaseAmount()),
+                            String.valueOf(e.getTotalAmount())
+                    ));
+                    writer.newLine();
+                    rows++;
                 }
+            } catch (IOException e) {
+                System.err.println("Failed to save bills: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println("Failed to load doctors: " + e.getMessage());
+        } finally {
+            SAVE_BILLS.stop(start);
+            commitSave(event, path, rows);
         }
     }
 
-    private static void loadAppointments(DoctorService doctorService,
-                                         PatientService patientService,
-                                         AppointmentService appointmentService) {
-        Path path = Path.of(Constants.APPOINTMENT_CSV);
-        if (!Files.exists(path)) {
-            return;
+    // Returns false if a file could not be read (missing files are simply skipped).
+    public static boolean loadInitialData(DoctorService doctorService,
+                                          PatientService patientService,
+                                          AppointmentService appointmentService) {
+        return loadInitialData(Path.of(Constants.DATA_DIR), doctorService, patientService, appointmentService);
+    }
+
+    // Same as above, reading the CSV files from another directory.
+    public static boolean loadInitialData(Path dataDir,
+                                          DoctorService doctorService,
+                                          PatientService patientService,
+                                          AppointmentService appointmentService) {
+        // Parallel pipeline: patients and doctors concurrently, then appointments.
+        long start = LOAD.start();
+        ParallelCsvImporter importer = new ParallelCsvImporter();
+        boolean loaded = true;
+        try {
+            importer.importAll(dataDir, doctorService, patientService, appointmentService);
+        } catch (UncheckedIOException e) {
+            System.err.println("Failed to load data: " + e.getMessage());
+            loaded = false;
+        } finally {
+            LOAD.stop(start);
         }
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    String id = parts[0];
-                    String patientId = parts[1];
-                    String doctorId = parts[2];
-                    LocalDateTime dateTime = DateUtil.parse(parts[3]);
-                    AppointmentStatus status = AppointmentStatus.valueOf(parts[4]);
-
-                    patientService.getPatientById(patientId).ifPresent(patient ->
-                            doctorService.getDoctorById(doctorId).ifPresent(doctor ->
-                                    appointmentService.createAppointmentWithId(id, patient, doctor, dateTime, status)
-                            )
-                    );
-                }
+        System.out.println("Imported " + importer.getImportedRows() + " rows ("
+                + importer.getSkippedRows() + " skipped) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return loaded;
+    }
+
+    // JFR: the file size is only looked up when the event will be recorded.
+    private static void commitSave(CsvFileEvent event, Path path, long rows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "save";
+            event.path = path.toString();
+            event.rows = rows;
+            try {
+                event.bytes = Files.size(path);
+            } catch (IOException e) {
+                event.bytes = -1;
             }
-        } catch (IOException e) {
-            System.err.println("Failed to load appointments: " + e.getMessage());
+            event.commit();
         }
     }
 
@@ -172,9 +217,5 @@ public final class CSVUtil {
     private static String escape(String value) {
         return value.replace(",", "\\,");
     }
-
-    private static String unescape(String value) {
-        return value.replace("\\,", ",");
-    }
 }
 
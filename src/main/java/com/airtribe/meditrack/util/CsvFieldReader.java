@@ -0,0 +1,252 @@
+package com.airtribe.meditrack.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Hand-written tokenizer for the MediTrack CSV format over a byte range of
+ * a (memory-mapped) buffer. Fields are separated by {@code ,}; a comma
+ * inside a value is written as {@code \,}. Numbers, dates, enums and IDs
+ * are decoded straight from the bytes; only the final text values (names,
+ * phones) become {@link String}s, unescaped in a single pass through a
+ * reusable scratch array.
+ *
+ * <p>Not thread-safe: each worker owns its own reader.
+ */
+final class CsvFieldReader {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final ByteBuffer buffer;
+    private final int end;
+    private int position;
+    private int lineEnd;
+    private int fieldStart;
+    private int fieldEnd;
+    private byte[] scratch = new byte[128];
+
+    CsvFieldReader(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+        this.lineEnd = start;
+    }
+
+    /**
+     * Advances to the next non-empty line; returns {@code false} at the end of the range.
+     */
+    boolean nextLine() {
+        while (position < end) {
+            int i = position;
+            while (i < end && buffer.get(i) != '\n') {
+                i++;
+            }
+            int stop = i;
+            if (stop > position && buffer.get(stop - 1) == '\r') {
+                stop--;
+            }
+            int startOfLine = position;
+            position = i + 1;
+            if (stop > startOfLine) {
+                lineEnd = stop;
+                fieldEnd = startOfLine - 1; // so the first nextField() starts at the line start
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of fields on the current line, counting only unescaped commas.
+     */
+    int fieldCount() {
+        int start = fieldEnd + 1;
+        int count = 1;
+        for (int i = start; i < lineEnd; i++) {
+            if (buffer.get(i) == ',' && (i == start || buffer.get(i - 1) != '\\')) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    String readString() {
+        nextField();
+        int length = 0;
+        if (scratch.length < fieldEnd - fieldStart) {
+            scratch = new byte[fieldEnd - fieldStart];
+        }
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\' && i + 1 < fieldEnd && buffer.get(i + 1) == ',') {
+                continue; // drop the escape, keep the comma on the next iteration
+            }
+            scratch[length++] = b;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    long readId() {
+        nextField();
+        if (fieldEnd - fieldStart < 2) {
+            return EntityId.NONE;
+        }
+        EntityId.Kind kind = EntityId.Kind.ofPrefix((char) buffer.get(fieldStart));
+        if (kind == null) {
+            return EntityId.NONE;
+        }
+        long sequence = 0;
+        for (int i = fieldStart + 1; i < fieldEnd; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || sequence > (EntityId.MAX_SEQUENCE - digit) / 10) {
+                return EntityId.NONE;
+            }
+            sequence = sequence * 10 + digit;
+        }
+        return EntityId.pack(kind, sequence);
+    }
+
+    int readInt() {
+        nextField();
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i >= fieldEnd) {
+            throw new NumberFormatException("Empty integer field");
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid integer field");
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Integer field out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer field out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Plain decimals with at most 15 significant digits are decoded exactly
+     * (integer mantissa divided by a power of ten is correctly rounded);
+     * anything else falls back to {@link Double#parseDouble(String)}.
+     */
+    double readDouble() {
+        nextField();
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        boolean negative = false;
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (fraction >= 0) {
+                    fraction++;
+                }
+            } else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else if (b == '-' && i == fieldStart) {
+                negative = true;
+            } else {
+                return slowDouble();
+            }
+            if (digits > 15 || fraction >= POWERS_OF_TEN.length) {
+                return slowDouble();
+            }
+        }
+        if (fieldEnd == fieldStart) {
+            throw new NumberFormatException("Empty number field");
+        }
+        double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd HH:mm}, the format used by {@link DateUtil}.
+     */
+    LocalDateTime readDateTime() {
+        nextField();
+        if (fieldEnd - fieldStart != 16
+                || buffer.get(fieldStart + 4) != '-' || buffer.get(fieldStart + 7) != '-'
+                || buffer.get(fieldStart + 10) != ' ' || buffer.get(fieldStart + 13) != ':') {
+            throw new IllegalArgumentException("Invalid date/time format. Expected yyyy-MM-dd HH:mm");
+        }
+        return LocalDateTime.of(digits(0, 4), digits(5, 2), digits(8, 2), digits(11, 2), digits(14, 2));
+    }
+
+    <E extends Enum<E>> E readEnum(E[] constants, byte[][] names) {
+        nextField();
+        int length = fieldEnd - fieldStart;
+        for (int c = 0; c < constants.length; c++) {
+            byte[] name = names[c];
+            if (name.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && buffer.get(fieldStart + i) == name[i]) {
+                i++;
+            }
+            if (i == length) {
+                return constants[c];
+            }
+        }
+        throw new IllegalArgumentException("Unknown value for " + constants[0].getDeclaringClass().getSimpleName());
+    }
+
+    static byte[][] encodeNames(Enum<?>[] constants) {
+        byte[][] names = new byte[constants.length][];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = constants[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private void nextField() {
+        int i = fieldEnd + 1;
+        if (i > lineEnd) {
+            throw new IllegalArgumentException("Missing field");
+        }
+        fieldStart = i;
+        while (i < lineEnd) {
+            if (buffer.get(i) == ',' && (i == fieldStart || buffer.get(i - 1) != '\\')) {
+                break;
+            }
+            i++;
+        }
+        fieldEnd = i;
+    }
+
+    private int digits(int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = buffer.get(fieldStart + offset + i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid date/time format. Expected yyyy-MM-dd HH:mm");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private double slowDouble() {
+        byte[] bytes = new byte[fieldEnd - fieldStart];
+        buffer.get(fieldStart, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+}
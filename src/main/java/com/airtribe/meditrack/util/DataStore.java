@@ -1,34 +1,364 @@
 package com.airtribe.meditrack.util;
 
+import com.airtribe.meditrack.cdc.ChangeStream;
+import com.airtribe.meditrack.metrics.MetricsRegistry;
+import com.airtribe.meditrack.metrics.OperationTimer;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * SOLID (Single Responsibility + Dependency Inversion):
  * generic in-memory repository abstraction so services do not depend
  * directly on concrete collection implementations.
+ *
+ * <p>Callers may register named secondary indexes. Every index is updated
+ * inside the same per-id {@code compute} as the primary map, so a reader
+ * never sees an entity in the store that is missing from an index (or the
+ * other way round) once {@code save}/{@code delete} has returned. Indexes
+ * derive their key at save time; an entity mutated in place must be saved
+ * again for its indexes to follow. {@link StoreListener}s registered with
+ * {@link #addListener(StoreListener)} are notified from the same place;
+ * {@link #publishTo(ChangeStream, Function)} hands changes to subscribers
+ * that run on their own threads instead.
+ *
+ * <p>Bulk reads should go through {@link #stream()}, {@link #forEach(Consumer)}
+ * or {@link #snapshot()}, which read the live map without copying it;
+ * {@link #findAll()} is kept for callers that genuinely need a detached list.
+ *
+ * <p>The primary map sits behind a handful of protected hooks so variants
+ * such as {@link PackedIdDataStore} can swap in a different structure while
+ * inheriting index maintenance and the read surface unchanged.
+ *
+ * <p>Writes, point lookups and full reads are timed under
+ * {@code store.<name>.*} in the {@link MetricsRegistry}.
  */
 public class DataStore<T> {
 
     private final Map<String, T> store = new ConcurrentHashMap<>();
+    private final Map<String, SecondaryIndex<T, ?>> indexesByName = new ConcurrentHashMap<>();
+    private final List<SecondaryIndex<T, ?>> indexes = new CopyOnWriteArrayList<>();
+    private final List<StoreListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private final String name;
+
+    private final OperationTimer saveTimer;
+    protected final OperationTimer findTimer;
+    private final OperationTimer deleteTimer;
+    private final OperationTimer scanTimer;
+    private final OperationTimer indexTimer;
+
+    public DataStore() {
+        this("default");
+    }
+
+    // The name labels this store's metrics (e.g. "patients" -> store.patients.save) and change events.
+    public DataStore(String name) {
+        this.name = name;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.saveTimer = metrics.timer("store." + name + ".save");
+        this.findTimer = metrics.timer("store." + name + ".findById");
+        this.deleteTimer = metrics.timer("store." + name + ".delete");
+        this.scanTimer = metrics.timer("store." + name + ".scan");
+        this.indexTimer = metrics.timer("store." + name + ".findBy");
+    }
 
     public void save(String id, T entity) {
-        store.put(id, entity);
+        long start = saveTimer.start();
+        try {
+            doSave(id, entity);
+        } finally {
+            saveTimer.stop(start);
+        }
+    }
+
+    private void doSave(String id, T entity) {
+        checkId(id);
+        try {
+            compute(id, (key, previous) -> {
+                applyChange(key, previous, entity, false);
+                return entity;
+            });
+        } finally {
+            afterChange(id);
+        }
     }
 
     public Optional<T> findById(String id) {
-        return Optional.ofNullable(store.get(id));
+        long start = findTimer.start();
+        try {
+            return Optional.ofNullable(lookup(id));
+        } finally {
+            findTimer.stop(start);
+        }
     }
 
+    // Lookup by packed EntityId; primitive-keyed variants avoid the text round trip.
+    public Optional<T> findById(long id) {
+        return findById(EntityId.format(id));
+    }
+
+    // Compatibility path: copies every value. Prefer stream()/forEach()/snapshot().
     public List<T> findAll() {
-        return new ArrayList<>(store.values());
+        long start = scanTimer.start();
+        try {
+            return new ArrayList<>(values());
+        } finally {
+            scanTimer.stop(start);
+        }
+    }
+
+    public Stream<T> stream() {
+        return values().stream();
+    }
+
+    public void forEach(Consumer<? super T> action) {
+        long start = scanTimer.start();
+        try {
+            values().forEach(action);
+        } finally {
+            scanTimer.stop(start);
+        }
+    }
+
+    public Snapshot<T> snapshot() {
+        return new Snapshot<>(values(), version::get);
+    }
+
+    public int size() {
+        return values().size();
     }
 
     public boolean delete(String id) {
-        return store.remove(id) != null;
+        long start = deleteTimer.start();
+        try {
+            return doDelete(id);
+        } finally {
+            deleteTimer.stop(start);
+        }
+    }
+
+    private boolean doDelete(String id) {
+        boolean[] removed = new boolean[1];
+        try {
+            compute(id, (key, previous) -> {
+                if (previous == null) {
+                    return null;
+                }
+                applyChange(key, previous, null, false);
+                removed[0] = true;
+                return null;
+            });
+        } finally {
+            afterChange(id);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Removes {@code expected} from this store because it now lives in
+     * another tier (an archive). Indexes drop it as for a delete; listeners
+     * get {@link StoreListener#onEvict}. Nothing happens if the stored
+     * entity is no longer {@code expected} (it was re-saved meanwhile).
+     */
+    public boolean evict(String id, T expected) {
+        long start = deleteTimer.start();
+        try {
+            boolean[] evicted = new boolean[1];
+            compute(id, (key, previous) -> {
+                if (previous != expected) {
+                    return previous;
+                }
+                applyChange(key, previous, null, true);
+                evicted[0] = true;
+                return null;
+            });
+            return evicted[0];
+        } finally {
+            afterChange(id);
+            deleteTimer.stop(start);
+        }
+    }
+
+    /**
+     * Brings indexes and listeners in line with one change, from inside the
+     * per-id {@code compute}; {@code next} is null for a delete or eviction.
+     * If any of them throws, those already applied are reverted before the
+     * exception propagates, so the map (which then keeps {@code previous})
+     * and its indexes and listeners still agree.
+     */
+    private void applyChange(String id, T previous, T next, boolean evicted) {
+        long packedId = packedKey(id);
+        int indexed = 0;
+        int notified = 0;
+        try {
+            for (SecondaryIndex<T, ?> index : indexes) {
+                indexed++;
+                if (next != null) {
+                    index.onSave(id, packedId, next);
+                } else {
+                    index.onDelete(id, packedId);
+                }
+            }
+            for (StoreListener<T> listener : listeners) {
+                if (next == null) {
+                    if (evicted) {
+                        listener.onEvict(id, previous);
+                    } else {
+                        listener.onDelete(id, previous);
+                    }
+                } else {
+                    listener.onSave(id, previous, next);
+                }
+                notified++;
+            }
+        } catch (RuntimeException e) {
+            revert(id, packedId, previous, next, indexed, notified, e);
+            throw e;
+        }
+        version.incrementAndGet();
+    }
+
+    // Outside the per-id compute, once the change (or its revert) is in place.
+    private void afterChange(String id) {
+        for (StoreListener<T> listener : listeners) {
+            listener.afterChange(id);
+        }
+    }
+
+    // Replays the change backwards through the first indexes/listeners that saw it.
+    private void revert(String id, long packedId, T previous, T next, int indexed, int notified,
+                        RuntimeException cause) {
+        for (int i = 0; i < indexed; i++) {
+            try {
+                if (previous != null) {
+                    indexes.get(i).onSave(id, packedId, previous);
+                } else {
+                    indexes.get(i).onDelete(id, packedId);
+                }
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+        for (int i = 0; i < notified; i++) {
+            try {
+                if (previous != null) {
+                    listeners.get(i).onSave(id, next, previous);
+                } else {
+                    listeners.get(i).onDelete(id, next);
+                }
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
     }
-}
 
+    public void removeListener(StoreListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publishes every later save and delete to {@code stream}, labelled with
+     * this store's name. The writer only claims a ring slot; subscribers do
+     * their work on their own threads. {@code detail} may be null.
+     */
+    public void publishTo(ChangeStream stream, Function<? super T, String> detail) {
+        addListener(stream.listener(name, detail));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Secondary indexes: register once while wiring services, before the store is shared.
+    public <K> HashIndex<T, K> addHashIndex(String name, Function<T, K> keyExtractor) {
+        return register(new HashIndex<>(name, keyExtractor));
+    }
+
+    public <E extends Enum<E>> EnumIndex<T, E> addEnumIndex(String name, Class<E> type,
+                                                           Function<T, E> keyExtractor) {
+        return register(new EnumIndex<>(name, type, keyExtractor));
+    }
+
+    public <K extends Comparable<? super K>> SortedIndex<T, K> addSortedIndex(String name,
+                                                                             Function<T, K> keyExtractor) {
+        return register(new SortedIndex<>(name, keyExtractor));
+    }
+
+    public NameSearchIndex<T> addNameSearchIndex(String name, Function<T, String> nameExtractor) {
+        return register(new NameSearchIndex<>(name, nameExtractor));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K> List<T> findBy(String indexName, K key) {
+        SecondaryIndex<T, K> index = (SecondaryIndex<T, K>) indexesByName.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown index: " + indexName);
+        }
+        long start = indexTimer.start();
+        try {
+            return index.find(key);
+        } finally {
+            indexTimer.stop(start);
+        }
+    }
+
+    private <I extends SecondaryIndex<T, ?>> I register(I index) {
+        if (indexesByName.putIfAbsent(index.getName(), index) != null) {
+            throw new IllegalArgumentException("Index already registered: " + index.getName());
+        }
+        // Backfill existing entities through the same per-id compute used by save.
+        indexes.add(index);
+        for (String id : ids()) {
+            compute(id, (key, entity) -> {
+                if (entity != null) {
+                    index.onSave(key, packedKey(key), entity);
+                }
+                return entity;
+            });
+        }
+        return index;
+    }
+
+    // Storage hooks. checkId rejects an ID the storage cannot hold before anything
+    // is applied; compute must run the remapping function atomically per id;
+    // a null result removes the entry. The collections returned by values() and
+    // ids() are live, weakly consistent views.
+    protected void checkId(String id) {
+    }
+
+    // The packed form of id if this storage keys by EntityId, else EntityId.NONE; indexes key by it.
+    protected long packedKey(String id) {
+        return EntityId.NONE;
+    }
+
+    protected T lookup(String id) {
+        return store.get(id);
+    }
+
+    protected void compute(String id, BiFunction<String, T, T> remapping) {
+        store.compute(id, remapping);
+    }
+
+    protected Collection<T> values() {
+        return store.values();
+    }
+
+    protected Iterable<String> ids() {
+        return store.keySet();
+    }
+}
@@ -0,0 +1,121 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.InvalidDataException;
+
+/**
+ * Compact numeric identifiers: the entity kind lives in the top byte of a
+ * {@code long} and the sequence number in the remaining 56 bits, so an ID
+ * costs eight bytes and no hashing of characters. The familiar text form
+ * ({@code D1}, {@code P1}, {@code A1}, {@code B1}) is produced and parsed
+ * only at the edges (CSV files, console input/output).
+ */
+public final class EntityId {
+
+    public enum Kind {
+        DOCTOR('D'),
+        PATIENT('P'),
+        APPOINTMENT('A'),
+        BILL('B');
+
+        private final char prefix;
+
+        Kind(char prefix) {
+            this.prefix = prefix;
+        }
+
+        public char getPrefix() {
+            return prefix;
+        }
+
+        static Kind ofPrefix(char c) {
+            for (Kind kind : values()) {
+                if (kind.prefix == Character.toUpperCase(c)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Value returned by {@link #tryParse(String)} for malformed input; never a valid ID.
+     */
+    public static final long NONE = 0L;
+
+    private static final int KIND_SHIFT = 56;
+    public static final long MAX_SEQUENCE = (1L << KIND_SHIFT) - 1;
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private EntityId() {
+    }
+
+    public static long pack(Kind kind, long sequence) {
+        if (sequence < 0 || sequence > MAX_SEQUENCE) {
+            throw new InvalidDataException("ID sequence out of range: " + sequence);
+        }
+        // Kind codes start at 1 so that no packed ID is ever NONE.
+        return ((long) (kind.ordinal() + 1) << KIND_SHIFT) | sequence;
+    }
+
+    public static Kind kindOf(long id) {
+        int code = (int) (id >>> KIND_SHIFT);
+        if (code < 1 || code > KINDS.length) {
+            throw new InvalidDataException("Not a packed entity ID: " + id);
+        }
+        return KINDS[code - 1];
+    }
+
+    public static long sequenceOf(long id) {
+        return id & MAX_SEQUENCE;
+    }
+
+    public static String format(long id) {
+        return kindOf(id).getPrefix() + Long.toString(sequenceOf(id));
+    }
+
+    public static long parse(String text) {
+        long id = tryParse(text);
+        if (id == NONE) {
+            throw new InvalidDataException("Invalid ID: " + text);
+        }
+        return id;
+    }
+
+    /**
+     * Parses {@code D12}-style text (prefix is case-insensitive, surrounding
+     * blanks are ignored) without allocating; returns {@link #NONE} on failure.
+     */
+    public static long tryParse(String text) {
+        if (text == null) {
+            return NONE;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 2) {
+            return NONE;
+        }
+        Kind kind = Kind.ofPrefix(text.charAt(start));
+        if (kind == null) {
+            return NONE;
+        }
+        long sequence = 0;
+        for (int i = start + 1; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NONE;
+            }
+            sequence = sequence * 10 + (c - '0');
+            if (sequence > MAX_SEQUENCE) {
+                return NONE;
+            }
+        }
+        return pack(kind, sequence);
+    }
+}
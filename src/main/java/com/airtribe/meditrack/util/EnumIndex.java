@@ -0,0 +1,46 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index over an enum-valued attribute. One bucket per constant is created
+ * up front, so the {@link EnumMap} itself is never structurally modified
+ * after construction and can be read safely from any thread.
+ */
+public class EnumIndex<T, E extends Enum<E>> extends SecondaryIndex<T, E> {
+
+    private final Map<E, Map<String, T>> buckets;
+
+    EnumIndex(String name, Class<E> type, Function<T, E> keyExtractor) {
+        super(name, keyExtractor);
+        Map<E, Map<String, T>> map = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) {
+            map.put(constant, new ConcurrentHashMap<>());
+        }
+        this.buckets = map;
+    }
+
+    @Override
+    public List<T> find(E key) {
+        return key != null ? new ArrayList<>(buckets.get(key).values()) : new ArrayList<>();
+    }
+
+    public int count(E key) {
+        return key != null ? buckets.get(key).size() : 0;
+    }
+
+    @Override
+    protected void insert(E key, String id, T entity) {
+        buckets.get(key).put(id, entity);
+    }
+
+    @Override
+    protected void remove(E key, String id) {
+        buckets.get(key).remove(id);
+    }
+}
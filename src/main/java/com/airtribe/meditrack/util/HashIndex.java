@@ -0,0 +1,150 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Equality index backed by a {@link ConcurrentHashMap} of buckets. Most keys
+ * (names, phones) match only a handful of entities, so small buckets are
+ * immutable arrays replaced copy-on-write inside the map's per-key
+ * {@code compute}; a bucket is promoted to its own concurrent map only once
+ * it grows past {@link #SMALL_BUCKET_LIMIT}. Empty buckets are dropped
+ * atomically so high-cardinality keys do not leak memory.
+ */
+public class HashIndex<T, K> extends SecondaryIndex<T, K> {
+
+    private static final int SMALL_BUCKET_LIMIT = 16;
+
+    // Values are either SmallBucket or ConcurrentHashMap<String, T>.
+    private final Map<K, Object> buckets = new ConcurrentHashMap<>();
+
+    HashIndex(String name, Function<T, K> keyExtractor) {
+        super(name, keyExtractor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> find(K key) {
+        Object bucket = key != null ? buckets.get(key) : null;
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        if (bucket instanceof SmallBucket) {
+            return ((SmallBucket<T>) bucket).values();
+        }
+        return new ArrayList<>(((Map<String, T>) bucket).values());
+    }
+
+    // Live view of the keys that currently have at least one entity.
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+
+    public boolean containsKey(K key) {
+        return key != null && buckets.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void insert(K key, String id, T entity) {
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                return new SmallBucket<>(new String[]{id}, new Object[]{entity});
+            }
+            if (bucket instanceof SmallBucket) {
+                SmallBucket<T> small = (SmallBucket<T>) bucket;
+                if (small.ids.length < SMALL_BUCKET_LIMIT || small.indexOf(id) >= 0) {
+                    return small.with(id, entity);
+                }
+                Map<String, T> large = new ConcurrentHashMap<>();
+                for (int i = 0; i < small.ids.length; i++) {
+                    large.put(small.ids[i], (T) small.entities[i]);
+                }
+                large.put(id, entity);
+                return large;
+            }
+            ((Map<String, T>) bucket).put(id, entity);
+            return bucket;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void remove(K key, String id) {
+        buckets.computeIfPresent(key, (k, bucket) -> {
+            if (bucket instanceof SmallBucket) {
+                return ((SmallBucket<T>) bucket).without(id);
+            }
+            Map<String, T> large = (Map<String, T>) bucket;
+            large.remove(id);
+            return large.isEmpty() ? null : large;
+        });
+    }
+
+    // Immutable; a new instance is published for every change.
+    private static final class SmallBucket<T> {
+
+        private final String[] ids;
+        private final Object[] entities;
+
+        SmallBucket(String[] ids, Object[] entities) {
+            this.ids = ids;
+            this.entities = entities;
+        }
+
+        int indexOf(String id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i].equals(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        SmallBucket<T> with(String id, T entity) {
+            int at = indexOf(id);
+            if (at >= 0) {
+                Object[] replaced = entities.clone();
+                replaced[at] = entity;
+                return new SmallBucket<>(ids, replaced);
+            }
+            String[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            Object[] newEntities = Arrays.copyOf(entities, entities.length + 1);
+            newIds[ids.length] = id;
+            newEntities[entities.length] = entity;
+            return new SmallBucket<>(newIds, newEntities);
+        }
+
+        SmallBucket<T> without(String id) {
+            int at = indexOf(id);
+            if (at < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            String[] newIds = new String[ids.length - 1];
+            Object[] newEntities = new Object[entities.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            System.arraycopy(entities, 0, newEntities, 0, at);
+            System.arraycopy(entities, at + 1, newEntities, at, entities.length - at - 1);
+            return new SmallBucket<>(newIds, newEntities);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> values() {
+            List<T> result = new ArrayList<>(entities.length);
+            for (Object entity : entities) {
+                result.add((T) entity);
+            }
+            return result;
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.airtribe.meditrack.util;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Design pattern (Singleton) + concurrency:
  * a single, thread-safe ID generator shared across the application.
+ * IDs are issued as packed {@link EntityId} longs; the {@code next*Id()}
+ * methods return the same IDs in their text form.
  */
 public final class IdGenerator {
 
     private static final IdGenerator INSTANCE = new IdGenerator();
 
-    private final AtomicInteger doctorCounter = new AtomicInteger(1);
-    private final AtomicInteger patientCounter = new AtomicInteger(1);
-    private final AtomicInteger appointmentCounter = new AtomicInteger(1);
-    private final AtomicInteger billCounter = new AtomicInteger(1);
+    private final AtomicLong doctorCounter = new AtomicLong(1);
+    private final AtomicLong patientCounter = new AtomicLong(1);
+    private final AtomicLong appointmentCounter = new AtomicLong(1);
+    private final AtomicLong billCounter = new AtomicLong(1);
 
     static {
         // Static initialization block demonstrates JVM class initialization and one-time setup.
@@ -27,20 +29,57 @@ public final class IdGenerator {
         return INSTANCE;
     }
 
+    public long nextDoctorKey() {
+        return EntityId.pack(EntityId.Kind.DOCTOR, doctorCounter.getAndIncrement());
+    }
+
+    public long nextPatientKey() {
+        return EntityId.pack(EntityId.Kind.PATIENT, patientCounter.getAndIncrement());
+    }
+
+    public long nextAppointmentKey() {
+        return EntityId.pack(EntityId.Kind.APPOINTMENT, appointmentCounter.getAndIncrement());
+    }
+
+    public long nextBillKey() {
+        return EntityId.pack(EntityId.Kind.BILL, billCounter.getAndIncrement());
+    }
+
+    /**
+     * Reserves {@code count} consecutive bill IDs in one step and returns
+     * the first; the rest follow as {@code first + i}.
+     */
+    public long reserveBillKeys(int count) {
+        return EntityId.pack(EntityId.Kind.BILL, billCounter.getAndAdd(count));
+    }
+
     public String nextDoctorId() {
-        return "D" + doctorCounter.getAndIncrement();
+        return EntityId.format(nextDoctorKey());
     }
 
     public String nextPatientId() {
-        return "P" + patientCounter.getAndIncrement();
+        return EntityId.format(nextPatientKey());
     }
 
     public String nextAppointmentId() {
-        return "A" + appointmentCounter.getAndIncrement();
+        return EntityId.format(nextAppointmentKey());
     }
 
     public String nextBillId() {
-        return "B" + billCounter.getAndIncrement();
+        return EntityId.format(nextBillKey());
     }
-}
 
+    /**
+     * Moves the matching counter past an ID that was loaded from disk so
+     * newly issued IDs never collide with existing ones.
+     */
+    public void observe(long id) {
+        long next = EntityId.sequenceOf(id) + 1;
+        switch (EntityId.kindOf(id)) {
+            case DOCTOR -> doctorCounter.accumulateAndGet(next, Math::max);
+            case PATIENT -> patientCounter.accumulateAndGet(next, Math::max);
+            case APPOINTMENT -> appointmentCounter.accumulateAndGet(next, Math::max);
+            case BILL -> billCounter.accumulateAndGet(next, Math::max);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.airtribe.meditrack.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent open-addressing map from primitive {@code long} keys to
+ * objects. Keys are spread over a fixed number of segments, each a
+ * linear-probing table guarded by its own {@link StampedLock}: readers use
+ * optimistic stamps and never block, writers only contend within a segment.
+ *
+ * <p>Key {@code 0} is reserved as the empty-slot marker. Removal leaves the
+ * key in place with a {@code null} value (a tombstone) so entries never move
+ * within a table; tombstones are dropped when the segment rehashes. Because
+ * a key keeps the same slot for the lifetime of a table, iteration is weakly
+ * consistent and never yields the same key twice.
+ */
+public class LongObjectMap<V> {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public LongObjectMap() {
+        segments = (Segment<V>[]) new Segment<?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    public V get(long key) {
+        long hash = mix(checkKey(key));
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        Object[] previous = new Object[1];
+        compute(key, old -> {
+            previous[0] = old;
+            return value;
+        });
+        @SuppressWarnings("unchecked")
+        V old = (V) previous[0];
+        return old;
+    }
+
+    public V remove(long key) {
+        Object[] previous = new Object[1];
+        compute(key, old -> {
+            previous[0] = old;
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        V old = (V) previous[0];
+        return old;
+    }
+
+    /**
+     * Atomically replaces the value for {@code key} with the result of
+     * {@code remapping} (which receives {@code null} when absent). A
+     * {@code null} result removes the mapping. Returns the new value.
+     */
+    public V compute(long key, UnaryOperator<V> remapping) {
+        long hash = mix(checkKey(key));
+        return segmentFor(hash).compute(key, hash, remapping);
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment<V> segment : segments) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Live, weakly consistent view of the values.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new EntryIterator<>(segments, (key, value) -> value);
+            }
+
+            @Override
+            public int size() {
+                return LongObjectMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Live, weakly consistent view of the keys mapped through {@code formatter}.
+     */
+    public <K> Iterable<K> keys(LongFunction<K> formatter) {
+        return () -> new EntryIterator<>(segments, (key, value) -> formatter.apply(key));
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static long checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        return key;
+    }
+
+    // Fibonacci hashing: top bits pick the segment, low bits the slot.
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Table {
+
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private volatile Thread writer;
+        private volatile int size;
+        private int used; // live entries + tombstones, guarded by the write lock
+
+        V get(long key, long hash) {
+            if (writer == Thread.currentThread()) {
+                // Re-entrant read from inside compute(): we already own the segment.
+                return find(table, key, hash);
+            }
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                V value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V compute(long key, long hash, UnaryOperator<V> remapping) {
+            long stamp = lock.writeLock();
+            writer = Thread.currentThread();
+            try {
+                Table t = table;
+                int slot = probe(t, key, hash);
+                boolean present = t.keys[slot] == key;
+                @SuppressWarnings("unchecked")
+                V previous = present ? (V) t.values[slot] : null;
+                V next = remapping.apply(previous);
+                if (next == null) {
+                    if (previous != null) {
+                        t.values[slot] = null; // tombstone: key stays, slot is not reused
+                        size--;
+                    }
+                    return null;
+                }
+                if (!present) {
+                    if ((used + 1) * 4L > t.keys.length * 3L) {
+                        t = rehash(t);
+                        slot = probe(t, key, hash);
+                    }
+                    t.keys[slot] = key;
+                    used++;
+                }
+                t.values[slot] = next;
+                if (previous == null) {
+                    size++;
+                }
+                return next;
+            } finally {
+                writer = null;
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Grows (or just compacts, when most slots are tombstones) into a fresh table.
+        private Table rehash(Table old) {
+            int capacity = old.keys.length;
+            while ((size + 1) * 2L > capacity) {
+                capacity <<= 1;
+            }
+            Table fresh = new Table(Math.max(capacity, INITIAL_CAPACITY));
+            for (int i = 0; i < old.keys.length; i++) {
+                Object value = old.values[i];
+                if (old.keys[i] != EMPTY && value != null) {
+                    int slot = probe(fresh, old.keys[i], mix(old.keys[i]));
+                    fresh.keys[slot] = old.keys[i];
+                    fresh.values[slot] = value;
+                }
+            }
+            used = size;
+            table = fresh;
+            return fresh;
+        }
+
+        // Returns the slot holding key, or the first empty slot on its probe path.
+        private static int probe(Table t, long key, long hash) {
+            int slot = (int) hash & t.mask;
+            for (int i = 0; i <= t.mask; i++) {
+                long k = t.keys[slot];
+                if (k == key || k == EMPTY) {
+                    return slot;
+                }
+                slot = (slot + 1) & t.mask;
+            }
+            throw new IllegalStateException("Segment table is full");
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V find(Table t, long key, long hash) {
+            int slot = (int) hash & t.mask;
+            // Bounded by the table length so a torn optimistic read cannot spin forever.
+            for (int i = 0; i <= t.mask; i++) {
+                long k = t.keys[slot];
+                if (k == key) {
+                    return (V) t.values[slot];
+                }
+                if (k == EMPTY) {
+                    return null;
+                }
+                slot = (slot + 1) & t.mask;
+            }
+            return null;
+        }
+    }
+
+    private interface EntryMapper<V, R> {
+        R map(long key, V value);
+    }
+
+    private static final class EntryIterator<V, R> implements Iterator<R> {
+
+        private final Segment<V>[] segments;
+        private final EntryMapper<V, R> mapper;
+        private int segmentIndex = -1;
+        private Table current;
+        private int slot;
+        private R next;
+
+        EntryIterator(Segment<V>[] segments, EntryMapper<V, R> mapper) {
+            this.segments = segments;
+            this.mapper = mapper;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public R next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            R result = next;
+            advance();
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (true) {
+                if (current == null || slot >= current.keys.length) {
+                    if (++segmentIndex >= segments.length) {
+                        return;
+                    }
+                    current = segments[segmentIndex].table;
+                    slot = 0;
+                    continue;
+                }
+                int i = slot++;
+                long key = current.keys[i];
+                Object value = current.values[i];
+                if (key != EMPTY && value != null) {
+                    next = mapper.map(key, (V) value);
+                    return;
+                }
+            }
+        }
+    }
+}
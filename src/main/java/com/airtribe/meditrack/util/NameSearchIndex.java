@@ -0,0 +1,435 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Search index over person names for partial and misspelled input.
+ *
+ * <p>Names are normalised (lower case, single spaces) and split into
+ * tokens. Indexing works on the token vocabulary, which is far smaller
+ * than the number of people:
+ * <ul>
+ *   <li>a sorted token set serves as the prefix tree: every token starting
+ *       with a prefix is one contiguous range;</li>
+ *   <li>a trigram inverted index ({@code "$jo", "joh", "ohn", "hn$"}) finds
+ *       tokens sharing enough trigrams with a longer query token, which are
+ *       then confirmed with a bounded edit-distance check; short query
+ *       tokens instead probe their single-edit variants directly;</li>
+ *   <li>each token maps to the distinct names that contain it, and each
+ *       name to the entities carrying it.</li>
+ * </ul>
+ * All structures are concurrent maps updated inside the store's per-id
+ * write, so the index follows creates, renames and deletes incrementally.
+ */
+public class NameSearchIndex<T> extends SecondaryIndex<T, String> {
+
+    private static final int GRAM = 3;
+    private static final int MAX_PREFIX_NAMES = 1024;
+
+    private final Map<String, Map<String, T>> entitiesByName = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> namesByToken = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tokensByGram = new ConcurrentHashMap<>();
+    private final NavigableSet<String> sortedTokens = new ConcurrentSkipListSet<>();
+
+    NameSearchIndex(String name, Function<T, String> nameExtractor) {
+        super(name, entity -> {
+            String raw = nameExtractor.apply(entity);
+            return raw == null ? null : normalize(raw);
+        });
+    }
+
+    // Normalised names are tokens joined by single spaces, so they split without a regex.
+    public static String normalize(String name) {
+        return String.join(" ", tokenize(name));
+    }
+
+    // Exact (normalised) full-name match.
+    @Override
+    public List<T> find(String key) {
+        Map<String, T> entities = key != null ? entitiesByName.get(normalize(key)) : null;
+        return entities == null ? new ArrayList<>() : new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Prefix completion: the last query token is treated as a prefix, any
+     * earlier tokens must match exactly. Shorter completions come first,
+     * among the tokens read before the range covers enough names to fill
+     * the page (as in {@link #search}), so a one-letter prefix does not
+     * copy a large share of the vocabulary.
+     */
+    public List<T> complete(String prefix, int limit) {
+        List<String> query = tokenize(prefix);
+        if (query.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String last = query.get(query.size() - 1);
+        List<String> completions = new ArrayList<>();
+        int covered = 0;
+        int enough = Math.max(limit, MAX_PREFIX_NAMES);
+        for (String token : sortedTokens.subSet(last, true, last + Character.MAX_VALUE, false)) {
+            completions.add(token);
+            covered += namesOf(token).size();
+            if (covered >= enough) {
+                break;
+            }
+        }
+        completions.sort((a, b) -> a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b));
+
+        Set<String> seen = new LinkedHashSet<>();
+        int entities = 0;
+        List<String> required = query.subList(0, query.size() - 1);
+        outer:
+        for (String token : completions) {
+            for (String name : namesOf(token)) {
+                if (!seen.contains(name) && containsAll(name, required)) {
+                    seen.add(name);
+                    Map<String, T> carriers = entitiesByName.get(name);
+                    entities += carriers != null ? carriers.size() : 0;
+                    if (entities >= limit) {
+                        break outer;
+                    }
+                }
+            }
+        }
+        return collect(new ArrayList<>(seen), limit);
+    }
+
+    /**
+     * Ranked fuzzy search. Each query token matches index tokens within a
+     * small edit distance (0 for one or two characters, 1 up to five, 2
+     * beyond; a swap of adjacent letters is one edit), and the last query
+     * token also matches tokens it is a prefix of. A name scores the sum over
+     * query tokens of its best token similarity, so names matching every
+     * token rank first and exact spellings beat near misses.
+     */
+    public List<T> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Map<String, Double>> matches = new ArrayList<>(queryTokens.size());
+        int driver = 0;
+        long driverNames = Long.MAX_VALUE;
+        for (int q = 0; q < queryTokens.size(); q++) {
+            Map<String, Double> similar = similarTokens(queryTokens.get(q), q == queryTokens.size() - 1);
+            matches.add(similar);
+            long names = 0;
+            for (String token : similar.keySet()) {
+                names += namesOf(token).size();
+            }
+            if (names < driverNames) {
+                driverNames = names;
+                driver = q;
+            }
+        }
+
+        // Candidates come from the most selective query token; every candidate
+        // is then scored against all query tokens through its own tokens.
+        Set<String> candidates = new HashSet<>();
+        for (String token : matches.get(driver).keySet()) {
+            candidates.addAll(namesOf(token));
+        }
+        if (candidates.size() < limit) {
+            // Too few names match the driver: widen to names matching any query token.
+            for (Map<String, Double> similar : matches) {
+                for (String token : similar.keySet()) {
+                    candidates.addAll(namesOf(token));
+                }
+            }
+        }
+        Map<String, Double> scores = new HashMap<>();
+        for (String name : candidates) {
+            double total = 0;
+            String[] nameTokens = name.split(" ");
+            for (Map<String, Double> similar : matches) {
+                double bestForToken = 0;
+                for (String nameToken : nameTokens) {
+                    Double sim = similar.get(nameToken);
+                    if (sim != null && sim > bestForToken) {
+                        bestForToken = sim;
+                    }
+                }
+                total += bestForToken;
+            }
+            scores.put(name, total);
+        }
+
+        // Keep only the best 'limit' names (each carries at least one entity) in a min-heap.
+        Comparator<Map.Entry<String, Double>> better = Comparator
+                .comparing((Map.Entry<String, Double> e) -> e.getValue())
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(limit + 1, better);
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(better.reversed());
+        List<String> names = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Double> entry : ranked) {
+            names.add(entry.getKey());
+        }
+        return collect(names, limit);
+    }
+
+    @Override
+    protected void insert(String key, String id, T entity) {
+        entitiesByName.compute(key, (name, entities) -> {
+            if (entities == null) {
+                entities = new ConcurrentHashMap<>();
+                for (String token : tokenize(name)) {
+                    addToken(token, name);
+                }
+            }
+            entities.put(id, entity);
+            return entities;
+        });
+    }
+
+    @Override
+    protected void remove(String key, String id) {
+        entitiesByName.computeIfPresent(key, (name, entities) -> {
+            entities.remove(id);
+            if (!entities.isEmpty()) {
+                return entities;
+            }
+            for (String token : tokenize(name)) {
+                removeToken(token, name);
+            }
+            return null;
+        });
+    }
+
+    private void addToken(String token, String name) {
+        namesByToken.compute(token, (t, names) -> {
+            if (names == null) {
+                names = ConcurrentHashMap.newKeySet();
+                sortedTokens.add(t);
+                for (String gram : grams(t)) {
+                    // Added inside compute: removeToken drops a gram's set once it is empty, and
+                    // an add to a set fetched outside the map's lock could land in a dropped one.
+                    tokensByGram.compute(gram, (g, tokens) -> {
+                        if (tokens == null) {
+                            tokens = ConcurrentHashMap.newKeySet();
+                        }
+                        tokens.add(t);
+                        return tokens;
+                    });
+                }
+            }
+            names.add(name);
+            return names;
+        });
+    }
+
+    private void removeToken(String token, String name) {
+        namesByToken.computeIfPresent(token, (t, names) -> {
+            names.remove(name);
+            if (!names.isEmpty()) {
+                return names;
+            }
+            sortedTokens.remove(t);
+            for (String gram : grams(t)) {
+                tokensByGram.computeIfPresent(gram, (g, tokens) -> {
+                    tokens.remove(t);
+                    return tokens.isEmpty() ? null : tokens;
+                });
+            }
+            return null;
+        });
+    }
+
+    // Index tokens similar to the query token, with a similarity in (0, 1].
+    private Map<String, Double> similarTokens(String token, boolean expandPrefix) {
+        Map<String, Double> result = new HashMap<>();
+        int maxEdits = token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+        if (namesByToken.containsKey(token)) {
+            result.put(token, 1.0);
+        }
+        if (maxEdits == 1) {
+            // Short tokens share too few trigrams to filter on; probe every
+            // single-edit variant directly instead (a few hundred lookups).
+            double similarity = 1.0 - 1.0 / (token.length() + 1);
+            for (String variant : singleEdits(token)) {
+                if (namesByToken.containsKey(variant)) {
+                    result.putIfAbsent(variant, similarity);
+                }
+            }
+        } else if (maxEdits > 1) {
+            // An edit breaks at most GRAM + 1 trigrams (a transposition), so true
+            // matches share at least (grams - (GRAM + 1) * maxEdits) of them.
+            List<String> queryGrams = grams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : queryGrams) {
+                Set<String> tokens = tokensByGram.get(gram);
+                if (tokens != null) {
+                    for (String candidate : tokens) {
+                        if (Math.abs(candidate.length() - token.length()) <= maxEdits) {
+                            shared.merge(candidate, 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+            int required = Math.max(1, queryGrams.size() - (GRAM + 1) * maxEdits);
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                String candidate = entry.getKey();
+                if (entry.getValue() < required || result.containsKey(candidate)) {
+                    continue;
+                }
+                int distance = boundedEditDistance(token, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    result.put(candidate, 1.0 - (double) distance / (token.length() + 1));
+                }
+            }
+        }
+
+        // The last query token may still be being typed. Prefix matches score
+        // below an exact hit, above most typos; a short, common prefix stops
+        // expanding once it covers enough names to fill any result page.
+        if (expandPrefix) {
+            int names = 0;
+            for (String candidate : sortedTokens.subSet(token, false, token + Character.MAX_VALUE, false)) {
+                result.merge(candidate, 0.75, Math::max);
+                names += namesOf(candidate).size();
+                if (names >= MAX_PREFIX_NAMES) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Edit distance counting an adjacent transposition as one edit ("jhon" -> "john"),
+    // or maxEdits + 1 as soon as it is known to exceed maxEdits.
+    static int boundedEditDistance(String a, String b, int maxEdits) {
+        int[] twoBack = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, twoBack[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    // Deletions, adjacent transpositions, substitutions and insertions over a-z
+    // plus the token's own characters.
+    private static Set<String> singleEdits(String token) {
+        StringBuilder alphabet = new StringBuilder("abcdefghijklmnopqrstuvwxyz");
+        for (int i = 0; i < token.length(); i++) {
+            if (alphabet.indexOf(String.valueOf(token.charAt(i))) < 0) {
+                alphabet.append(token.charAt(i));
+            }
+        }
+        Set<String> edits = new HashSet<>();
+        char[] chars = token.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            edits.add(token.substring(0, i) + token.substring(i + 1));
+            if (i + 1 < chars.length) {
+                edits.add(token.substring(0, i) + chars[i + 1] + chars[i] + token.substring(i + 2));
+            }
+        }
+        for (int a = 0; a < alphabet.length(); a++) {
+            char c = alphabet.charAt(a);
+            for (int i = 0; i <= chars.length; i++) {
+                edits.add(token.substring(0, i) + c + token.substring(i));
+                if (i < chars.length && chars[i] != c) {
+                    edits.add(token.substring(0, i) + c + token.substring(i + 1));
+                }
+            }
+        }
+        edits.remove(token);
+        return edits;
+    }
+
+    private Set<String> namesOf(String token) {
+        Set<String> names = namesByToken.get(token);
+        return names != null ? names : Collections.emptySet();
+    }
+
+    private static boolean containsAll(String name, List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return true;
+        }
+        return Arrays.asList(name.split(" ")).containsAll(tokens);
+    }
+
+    private List<T> collect(List<String> names, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, 64));
+        for (String name : names) {
+            Map<String, T> entities = entitiesByName.get(name);
+            if (entities == null) {
+                continue;
+            }
+            for (T entity : entities.values()) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")) {
+            if (!part.isEmpty()) {
+                tokens.add(part);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> grams(String token) {
+        String padded = "$" + token + "$";
+        List<String> grams = new ArrayList<>(Math.max(1, padded.length() - GRAM + 1));
+        if (padded.length() < GRAM) {
+            grams.add(padded);
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
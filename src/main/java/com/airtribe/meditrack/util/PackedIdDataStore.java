@@ -0,0 +1,79 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.InvalidDataException;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * {@link DataStore} variant keyed by packed {@link EntityId} values in a
+ * primitive {@link LongObjectMap}. Lookups parse the text ID without
+ * allocating and then probe a {@code long[]} table, so there is no string
+ * hashing, no {@code equals} on the hot path and no per-entry node object.
+ * Text IDs that do not parse are simply not found; saving one is rejected.
+ */
+public class PackedIdDataStore<T> extends DataStore<T> {
+
+    private final LongObjectMap<T> entities = new LongObjectMap<>();
+
+    public PackedIdDataStore() {
+    }
+
+    public PackedIdDataStore(String name) {
+        super(name);
+    }
+
+    @Override
+    public Optional<T> findById(long id) {
+        long start = findTimer.start();
+        try {
+            // NONE is never stored (and is the map's reserved key), like text IDs that do not parse.
+            return id != EntityId.NONE ? Optional.ofNullable(entities.get(id)) : Optional.empty();
+        } finally {
+            findTimer.stop(start);
+        }
+    }
+
+    public boolean contains(long id) {
+        return id != EntityId.NONE && entities.containsKey(id);
+    }
+
+    @Override
+    protected T lookup(String id) {
+        long key = EntityId.tryParse(id);
+        return key != EntityId.NONE ? entities.get(key) : null;
+    }
+
+    @Override
+    protected void checkId(String id) {
+        if (EntityId.tryParse(id) == EntityId.NONE) {
+            throw new InvalidDataException("Invalid ID: " + id);
+        }
+    }
+
+    @Override
+    protected long packedKey(String id) {
+        return EntityId.tryParse(id);
+    }
+
+    @Override
+    protected void compute(String id, BiFunction<String, T, T> remapping) {
+        long key = EntityId.tryParse(id);
+        if (key == EntityId.NONE) {
+            // Nothing can be stored under it (saves are refused by checkId), so there is nothing to change.
+            return;
+        }
+        entities.compute(key, previous -> remapping.apply(id, previous));
+    }
+
+    @Override
+    protected Collection<T> values() {
+        return entities.values();
+    }
+
+    @Override
+    protected Iterable<String> ids() {
+        return entities.keys(EntityId::format);
+    }
+}
@@ -0,0 +1,271 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.LedgerEntry;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.jfr.CsvFileEvent;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BillLedger;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel CSV import pipeline. Patients and doctors are imported
+ * concurrently; each file is memory-mapped, split into byte-range chunks on
+ * line boundaries and parsed by a {@link CsvFieldReader} per chunk.
+ * Appointments are imported last, in parallel chunks as well, resolving
+ * their patient and doctor against the stores populated by the first stage,
+ * followed by the bill ledger.
+ *
+ * <p>Rows still go through the services' validating {@code create*WithId}
+ * methods. Malformed rows are counted and skipped instead of aborting the
+ * whole import.
+ */
+public final class ParallelCsvImporter {
+
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final byte[][] SPECIALIZATION_NAMES = CsvFieldReader.encodeNames(SPECIALIZATIONS);
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final byte[][] STATUS_NAMES = CsvFieldReader.encodeNames(STATUSES);
+
+    private final ForkJoinPool pool;
+    private final IdGenerator idGenerator = IdGenerator.getInstance();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public ParallelCsvImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelCsvImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public long getImportedRows() {
+        return imported.sum();
+    }
+
+    public long getSkippedRows() {
+        return skipped.sum();
+    }
+
+    public void importAll(DoctorService doctorService,
+                          PatientService patientService,
+                          AppointmentService appointmentService) {
+        importAll(Path.of(Constants.DATA_DIR), doctorService, patientService, appointmentService);
+    }
+
+    // Reads the usual CSV file names from dataDir instead of Constants.DATA_DIR.
+    public void importAll(Path dataDir,
+                          DoctorService doctorService,
+                          PatientService patientService,
+                          AppointmentService appointmentService) {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                // Stage 1: patients and doctors are independent of each other.
+                invokeAll(
+                        fileTask(csvIn(dataDir, Constants.PATIENT_CSV), reader -> importPatient(reader, patientService)),
+                        fileTask(csvIn(dataDir, Constants.DOCTOR_CSV), reader -> importDoctor(reader, doctorService)));
+                // Stage 2: appointments reference both.
+                fileTask(csvIn(dataDir, Constants.APPOINTMENT_CSV),
+                        reader -> importAppointment(reader, patientService, doctorService, appointmentService))
+                        .invoke();
+                // Stage 3: the bill ledger is self-contained but billed appointments should exist first.
+                BillLedger ledger = appointmentService.getBillLedger();
+                fileTask(csvIn(dataDir, Constants.BILL_CSV), reader -> importBill(reader, ledger)).invoke();
+            }
+        });
+    }
+
+    private static Path csvIn(Path dataDir, String defaultPath) {
+        return dataDir.resolve(Path.of(defaultPath).getFileName());
+    }
+
+    private void importPatient(CsvFieldReader reader, PatientService patientService) {
+        if (reader.fieldCount() < 4) {
+            skipped.increment();
+            return;
+        }
+        long id = reader.readId();
+        String name = reader.readString();
+        int age = reader.readInt();
+        String phone = reader.readString();
+        if (id == EntityId.NONE) {
+            skipped.increment();
+            return;
+        }
+        idGenerator.observe(id);
+        patientService.createPatientWithId(EntityId.format(id), name, age, phone);
+        imported.increment();
+    }
+
+    private void importDoctor(CsvFieldReader reader, DoctorService doctorService) {
+        if (reader.fieldCount() < 6) {
+            skipped.increment();
+            return;
+        }
+        long id = reader.readId();
+        String name = reader.readString();
+        int age = reader.readInt();
+        String phone = reader.readString();
+        Specialization specialization = reader.readEnum(SPECIALIZATIONS, SPECIALIZATION_NAMES);
+        double fee = reader.readDouble();
+        if (id == EntityId.NONE) {
+            skipped.increment();
+            return;
+        }
+        idGenerator.observe(id);
+        doctorService.createDoctorWithId(EntityId.format(id), name, age, phone, specialization, fee);
+        imported.increment();
+    }
+
+    private void importAppointment(CsvFieldReader reader,
+                                   PatientService patientService,
+                                   DoctorService doctorService,
+                                   AppointmentService appointmentService) {
+        if (reader.fieldCount() < 5) {
+            skipped.increment();
+            return;
+        }
+        long id = reader.readId();
+        long patientId = reader.readId();
+        long doctorId = reader.readId();
+        LocalDateTime dateTime = reader.readDateTime();
+        AppointmentStatus status = reader.readEnum(STATUSES, STATUS_NAMES);
+        if (id == EntityId.NONE) {
+            skipped.increment();
+            return;
+        }
+        idGenerator.observe(id);
+        Patient patient = patientService.getPatientById(patientId).orElse(null);
+        Doctor doctor = doctorService.getDoctorById(doctorId).orElse(null);
+        if (patient == null || doctor == null) {
+            skipped.increment();
+            return;
+        }
+        appointmentService.createAppointmentWithId(EntityId.format(id), patient, doctor, dateTime, status);
+        imported.increment();
+    }
+
+    private void importBill(CsvFieldReader reader, BillLedger ledger) {
+        if (reader.fieldCount() < 7) {
+            skipped.increment();
+            return;
+        }
+        long id = reader.readId();
+        long appointmentId = reader.readId();
+        long doctorId = reader.readId();
+        LocalDateTime appointmentTime = reader.readDateTime();
+        String strategy = reader.readString();
+        double baseAmount = reader.readDouble();
+        double totalAmount = reader.readDouble();
+        if (id == EntityId.NONE || appointmentId == EntityId.NONE || doctorId == EntityId.NONE) {
+            skipped.increment();
+            return;
+        }
+        idGenerator.observe(id);
+        ledger.append(new LedgerEntry(EntityId.format(id), EntityId.format(appointmentId), EntityId.format(doctorId),
+                appointmentTime, strategy, baseAmount, totalAmount));
+        imported.increment();
+    }
+
+    private interface RowHandler {
+        void handle(CsvFieldReader reader);
+    }
+
+    private ForkJoinTask<Void> fileTask(Path path, RowHandler handler) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                if (!Files.exists(path)) {
+                    return;
+                }
+                CsvFileEvent event = new CsvFileEvent();
+                event.begin();
+                MappedByteBuffer buffer;
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    if (channel.size() > Integer.MAX_VALUE) {
+                        throw new IOException("CSV file larger than 2 GiB: " + path);
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to map " + path, e);
+                }
+                LongAdder rows = new LongAdder();
+                List<RecursiveAction> chunks = new ArrayList<>();
+                for (int[] range : split(buffer, pool.getParallelism())) {
+                    chunks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            rows.add(parseChunk(buffer, range[0], range[1], handler));
+                        }
+                    });
+                }
+                invokeAll(chunks);
+                if (event.shouldCommit()) {
+                    event.operation = "load";
+                    event.path = path.toString();
+                    event.rows = rows.sum();
+                    event.bytes = buffer.capacity();
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    // Returns the number of lines read, imported or skipped.
+    private int parseChunk(MappedByteBuffer buffer, int start, int end, RowHandler handler) {
+        // Each chunk gets its own reader over a shared read-only mapping; absolute gets only.
+        CsvFieldReader reader = new CsvFieldReader(buffer, start, end);
+        int lines = 0;
+        while (reader.nextLine()) {
+            lines++;
+            try {
+                handler.handle(reader);
+            } catch (RuntimeException e) {
+                skipped.increment();
+            }
+        }
+        return lines;
+    }
+
+    // Cuts [0, size) into roughly equal ranges whose boundaries fall just after a newline.
+    private static List<int[]> split(MappedByteBuffer buffer, int parallelism) {
+        int size = buffer.capacity();
+        int chunkCount = (int) Math.max(1, Math.min((long) parallelism * 4, size / MIN_CHUNK_BYTES));
+        List<int[]> ranges = new ArrayList<>(chunkCount);
+        int start = 0;
+        for (int c = 1; c <= chunkCount && start < size; c++) {
+            int end = c == chunkCount ? size : (int) ((long) size * c / chunkCount);
+            while (end < size && buffer.get(end - 1) != '\n') {
+                end++;
+            }
+            if (end > start) {
+                ranges.add(new int[]{start, end});
+                start = end;
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,122 @@
+package com.airtribe.meditrack.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, append-only list with structural sharing (a 32-way persistent
+ * vector). {@link #append(Object)} returns a new list that shares every
+ * full 32-element leaf with the original, so appends copy at most one
+ * path of the trie and "copying" a list is just handing out the reference.
+ *
+ * <p>Elements live in a trie of 32-slot nodes plus a tail array holding
+ * the last partial leaf; lookups walk {@code log32(size)} levels, which is
+ * at most four for any realistic list. All mutators inherited from
+ * {@link AbstractList} throw {@link UnsupportedOperationException}.
+ */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentList<?> EMPTY = new PersistentList<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    public static <E> PersistentList<E> copyOf(Iterable<? extends E> elements) {
+        return PersistentList.<E>empty().appendAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int tailOffset = tailOffset();
+        if (index >= tailOffset) {
+            return (E) tail[index - tailOffset];
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    public PersistentList<E> append(E element) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentList<>(size + 1, shift, root, newTail);
+        }
+        // Tail is full: push it into the trie as a leaf, growing a level when the root is full.
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentList<>(size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    public PersistentList<E> appendAll(Iterable<? extends E> elements) {
+        PersistentList<E> result = this;
+        for (E element : elements) {
+            result = result.append(element);
+        }
+        return result;
+    }
+
+    // Index of the first element held in the tail.
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int slot = ((size - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+        if (level == BITS) {
+            copy[slot] = leaf;
+        } else {
+            Object[] child = (Object[]) parent[slot];
+            copy[slot] = child != null ? pushTail(level - BITS, child, leaf) : newPath(level - BITS, leaf);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+}
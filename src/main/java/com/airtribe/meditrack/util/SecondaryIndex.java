@@ -0,0 +1,69 @@
+package com.airtribe.meditrack.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Base type for named secondary indexes maintained by {@link DataStore}.
+ * Each index remembers the key it last derived for every entity id, so a
+ * re-save moves the entity out of its old bucket even if the entity was
+ * mutated in place before being saved again. Stores keyed by packed
+ * {@link EntityId}s pass the packed form, and those keys are remembered in a
+ * primitive {@link LongObjectMap} rather than a map of strings.
+ */
+public abstract class SecondaryIndex<T, K> {
+
+    private final String name;
+    private final Function<T, K> keyExtractor;
+    private final LongObjectMap<K> keyByPackedId = new LongObjectMap<>();
+    private final Map<String, K> keyByTextId = new ConcurrentHashMap<>();
+
+    protected SecondaryIndex(String name, Function<T, K> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns every entity currently indexed under {@code key}; cost is
+     * proportional to the number of matches, not the size of the store.
+     */
+    public abstract List<T> find(K key);
+
+    protected abstract void insert(K key, String id, T entity);
+
+    protected abstract void remove(K key, String id);
+
+    // Called by DataStore while it holds the per-id write for this entity;
+    // packedId is EntityId.NONE when the store keys by text.
+    void onSave(String id, long packedId, T entity) {
+        K newKey = keyExtractor.apply(entity);
+        K oldKey = rememberKey(id, packedId, newKey);
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            remove(oldKey, id);
+        }
+        if (newKey != null) {
+            insert(newKey, id, entity);
+        }
+    }
+
+    void onDelete(String id, long packedId) {
+        K oldKey = rememberKey(id, packedId, null);
+        if (oldKey != null) {
+            remove(oldKey, id);
+        }
+    }
+
+    // Records key (null forgets the id) and returns the key remembered before.
+    private K rememberKey(String id, long packedId, K key) {
+        if (packedId != EntityId.NONE) {
+            return key != null ? keyByPackedId.put(packedId, key) : keyByPackedId.remove(packedId);
+        }
+        return key != null ? keyByTextId.put(id, key) : keyByTextId.remove(id);
+    }
+}
@@ -0,0 +1,69 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read handle over a {@link DataStore} taken at a given store version.
+ * Iteration walks the live structure directly, so no list is materialised;
+ * the trade-off is that the view is weakly consistent, and
+ * {@link #isCurrent()} tells the caller whether any write landed after the
+ * handle was taken (i.e. whether what was read is exactly that version).
+ */
+public final class Snapshot<T> implements Iterable<T> {
+
+    private final Collection<T> values;
+    private final LongSupplier versionSource;
+    private final long version;
+    private final int size;
+
+    Snapshot(Collection<T> values, LongSupplier versionSource) {
+        this.values = values;
+        this.versionSource = versionSource;
+        this.version = versionSource.getAsLong();
+        this.size = values.size();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Number of entities when the handle was taken.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isCurrent() {
+        return versionSource.getAsLong() == version;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return values.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        values.forEach(action);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return values.spliterator();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
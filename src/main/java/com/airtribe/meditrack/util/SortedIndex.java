@@ -0,0 +1,79 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Ordered index supporting exact and range lookups. Entries are keyed by
+ * the composite (key, id), so there are no per-key buckets to create or
+ * tear down and concurrent writers never race on a shared bucket.
+ */
+public class SortedIndex<T, K extends Comparable<? super K>> extends SecondaryIndex<T, K> {
+
+    private final NavigableMap<Entry<K>, T> entries = new ConcurrentSkipListMap<>();
+
+    SortedIndex(String name, Function<T, K> keyExtractor) {
+        super(name, keyExtractor);
+    }
+
+    @Override
+    public List<T> find(K key) {
+        return range(key, key);
+    }
+
+    /**
+     * Returns entities whose key lies in {@code [from, to]}, in key order.
+     */
+    public List<T> range(K from, K to) {
+        if (from == null || to == null || from.compareTo(to) > 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(entries.subMap(Entry.lowest(from), true, Entry.highest(to), true).values());
+    }
+
+    @Override
+    protected void insert(K key, String id, T entity) {
+        entries.put(new Entry<>(key, id, 0), entity);
+    }
+
+    @Override
+    protected void remove(K key, String id) {
+        entries.remove(new Entry<>(key, id, 0));
+    }
+
+    private static final class Entry<K extends Comparable<? super K>> implements Comparable<Entry<K>> {
+
+        private final K key;
+        private final String id;
+        private final int bound; // -1 sorts before every id for the key, +1 after
+
+        private Entry(K key, String id, int bound) {
+            this.key = key;
+            this.id = id;
+            this.bound = bound;
+        }
+
+        static <K extends Comparable<? super K>> Entry<K> lowest(K key) {
+            return new Entry<>(key, null, -1);
+        }
+
+        static <K extends Comparable<? super K>> Entry<K> highest(K key) {
+            return new Entry<>(key, null, 1);
+        }
+
+        @Override
+        public int compareTo(Entry<K> other) {
+            int byKey = key.compareTo(other.key);
+            if (byKey != 0) {
+                return byKey;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return id.compareTo(other.id);
+        }
+    }
+}
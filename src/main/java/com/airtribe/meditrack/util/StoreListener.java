@@ -0,0 +1,37 @@
+package com.airtribe.meditrack.util;
+
+/**
+ * Callback for changes to a {@link DataStore}. Listeners run inside the
+ * store's per-id update, so they observe changes to one ID in order and
+ * must be quick and must not write back to the same store.
+ */
+public interface StoreListener<T> {
+
+    /**
+     * {@code previous} is {@code null} for an insert and may be the same
+     * instance as {@code current} when an entity is re-saved after an
+     * in-place change (for example an appointment status update).
+     */
+    void onSave(String id, T previous, T current);
+
+    void onDelete(String id, T removed);
+
+    /**
+     * The entity left the store for another tier (see
+     * {@link DataStore#evict(String, Object)}) but still exists. Treated as
+     * a delete unless overridden.
+     */
+    default void onEvict(String id, T evicted) {
+        onDelete(id, evicted);
+    }
+
+    /**
+     * Runs on the writing thread after a save, delete or eviction of
+     * {@code id} has been applied and the per-id update has ended. A
+     * listener that has to wait, for example for room in a bounded queue,
+     * waits here rather than in the callbacks above, so other writers to
+     * the same ID are not held up. Does nothing unless overridden.
+     */
+    default void afterChange(String id) {
+    }
+}
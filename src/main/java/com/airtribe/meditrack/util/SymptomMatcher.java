@@ -0,0 +1,335 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.InvalidDataException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over a weighted keyword dictionary mapping symptom
+ * terms to a {@link Specialization}. Built once; {@link #score(String)}
+ * walks the text a single time and adds up the weights of every keyword
+ * occurrence, so cost depends on the length of the text, not on the
+ * number of keywords.
+ *
+ * <p>The trie is flattened into arrays: per state a sorted run of edge
+ * characters and targets (binary-searched), a failure link, the weight per
+ * specialization of the keyword ending there, and an output link to the
+ * next shorter keyword that ends at the same position. Instances are
+ * immutable and safe to share; swap in a new one to change the dictionary.
+ *
+ * <p>Dictionary lines are {@code keyword,SPECIALIZATION,weight}; blank
+ * lines and lines starting with {@code #} are ignored. Matching is
+ * case-insensitive and counts whole words only: a keyword must not be
+ * preceded or followed by a letter or digit, except for a plural
+ * {@code s}, so "hip" matches "hips" but not "ship" or "hipster".
+ */
+public final class SymptomMatcher {
+
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final int SPECS = SPECIALIZATIONS.length;
+
+    private final int[] edgeStart;   // edges of state s: [edgeStart[s], edgeStart[s + 1])
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] output;      // next shorter keyword state on the failure chain, 0 if none
+    private final int[] depth;
+    private final double[] weights;  // weights[s * SPECS + ordinal] of the keyword ending at s
+    private final boolean[] ends;
+    private final int keywordCount;
+
+    private SymptomMatcher(List<Keyword> keywords) {
+        // 1. Plain trie with sorted child maps.
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<double[]> own = new ArrayList<>();
+        children.add(new TreeMap<>());
+        own.add(new double[SPECS]);
+        for (Keyword keyword : keywords) {
+            int state = 0;
+            for (int i = 0; i < keyword.term.length(); i++) {
+                char c = keyword.term.charAt(i);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    own.add(new double[SPECS]);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            own.get(state)[keyword.specialization.ordinal()] += keyword.weight;
+        }
+
+        // 2. Flatten edges.
+        int states = children.size();
+        edgeStart = new int[states + 1];
+        int edges = 0;
+        for (int s = 0; s < states; s++) {
+            edgeStart[s] = edges;
+            edges += children.get(s).size();
+        }
+        edgeStart[states] = edges;
+        edgeChars = new char[edges];
+        edgeTargets = new int[edges];
+        for (int s = 0; s < states; s++) {
+            int e = edgeStart[s];
+            for (Map.Entry<Character, Integer> edge : children.get(s).entrySet()) {
+                edgeChars[e] = edge.getKey();
+                edgeTargets[e++] = edge.getValue();
+            }
+        }
+
+        // 3. Failure and output links breadth-first. Each keyword keeps its own length, so
+        //    scan() can check the word boundaries of every match separately.
+        fail = new int[states];
+        output = new int[states];
+        depth = new int[states];
+        weights = new double[states * SPECS];
+        ends = new boolean[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTargets[e]);
+            depth[edgeTargets[e]] = 1;
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            double[] ownWeights = own.get(s);
+            int f = fail[s];
+            output[s] = ends[f] ? f : output[f];
+            for (int k = 0; k < SPECS; k++) {
+                weights[s * SPECS + k] = ownWeights[k];
+                ends[s] |= ownWeights[k] != 0;
+            }
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                int child = edgeTargets[e];
+                fail[child] = step(f, edgeChars[e], s);
+                depth[child] = depth[s] + 1;
+                queue.add(child);
+            }
+        }
+        keywordCount = keywords.size();
+    }
+
+    public static SymptomMatcher of(List<Keyword> keywords) {
+        return new SymptomMatcher(keywords);
+    }
+
+    public static SymptomMatcher load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return of(parse(reader, path.toString()));
+        }
+    }
+
+    // Bundled default dictionary on the classpath; empty if it is not packaged.
+    public static SymptomMatcher loadResource(String name) throws IOException {
+        try (InputStream in = SymptomMatcher.class.getResourceAsStream(name)) {
+            if (in == null) {
+                return of(Collections.emptyList());
+            }
+            return of(parse(new InputStreamReader(in, StandardCharsets.UTF_8), name));
+        }
+    }
+
+    public int getKeywordCount() {
+        return keywordCount;
+    }
+
+    public int getStateCount() {
+        return fail.length;
+    }
+
+    /**
+     * Summed keyword weights per specialization; specializations without a
+     * match are absent.
+     */
+    public Map<Specialization, Double> score(String text) {
+        double[] totals = new double[SPECS];
+        scan(text, totals, new int[SPECS]);
+        Map<Specialization, Double> result = new EnumMap<>(Specialization.class);
+        for (int k = 0; k < SPECS; k++) {
+            if (totals[k] != 0) {
+                result.put(SPECIALIZATIONS[k], totals[k]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Highest-scoring specialization, or empty when nothing matched. Ties go
+     * to the specialization whose first keyword appears earliest in the text.
+     */
+    public Optional<Specialization> bestMatch(String text) {
+        double[] totals = new double[SPECS];
+        int[] firstSeen = new int[SPECS];
+        scan(text, totals, firstSeen);
+        int best = -1;
+        for (int k = 0; k < SPECS; k++) {
+            if (totals[k] <= 0) {
+                continue;
+            }
+            if (best < 0 || totals[k] > totals[best]
+                    || (totals[k] == totals[best] && firstSeen[k] < firstSeen[best])) {
+                best = k;
+            }
+        }
+        return best < 0 ? Optional.empty() : Optional.of(SPECIALIZATIONS[best]);
+    }
+
+    private void scan(String text, double[] totals, int[] firstSeen) {
+        Arrays.fill(firstSeen, Integer.MAX_VALUE);
+        if (text == null) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, Character.toLowerCase(text.charAt(i)), -1);
+            int match = ends[state] ? state : output[state];
+            if (match == 0 || !endsWord(text, i + 1)) {
+                continue;
+            }
+            for (; match != 0; match = output[match]) {
+                int start = i + 1 - depth[match];
+                if (start > 0 && isWordChar(text.charAt(start - 1))) {
+                    continue;
+                }
+                int base = match * SPECS;
+                for (int k = 0; k < SPECS; k++) {
+                    double w = weights[base + k];
+                    if (w != 0) {
+                        totals[k] += w;
+                        if (firstSeen[k] == Integer.MAX_VALUE) {
+                            firstSeen[k] = i;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // A match ending just before 'at' ends a word, optionally followed by a plural 's'.
+    private static boolean endsWord(String text, int at) {
+        if (at < text.length() && Character.toLowerCase(text.charAt(at)) == 's') {
+            at++;
+        }
+        return at == text.length() || !isWordChar(text.charAt(at));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    // Goto with failure fallback. While building, 'parent' is the state being
+    // expanded, so the root's own children fail to the root.
+    private int step(int state, char c, int parent) {
+        if (parent == 0) {
+            return 0;
+        }
+        while (true) {
+            int target = edge(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, char c) {
+        int lo = edgeStart[state];
+        int hi = edgeStart[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChars[mid];
+            if (m < c) {
+                lo = mid + 1;
+            } else if (m > c) {
+                hi = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    static List<Keyword> parse(Reader source, String name) throws IOException {
+        List<Keyword> keywords = new ArrayList<>();
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split(",");
+            if (parts.length != 3) {
+                throw new InvalidDataException(name + ":" + lineNumber + ": expected keyword,SPECIALIZATION,weight");
+            }
+            try {
+                keywords.add(new Keyword(parts[0], Specialization.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)),
+                        Double.parseDouble(parts[2].trim())));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidDataException(name + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return keywords;
+    }
+
+    /**
+     * One dictionary entry. Terms are normalised to lower case; matching
+     * lower-cases the text the same way, character by character.
+     */
+    public static final class Keyword {
+
+        private final String term;
+        private final Specialization specialization;
+        private final double weight;
+
+        public Keyword(String term, Specialization specialization, double weight) {
+            String normalised = term.trim();
+            StringBuilder lower = new StringBuilder(normalised.length());
+            for (int i = 0; i < normalised.length(); i++) {
+                lower.append(Character.toLowerCase(normalised.charAt(i)));
+            }
+            if (lower.length() == 0) {
+                throw new InvalidDataException("Empty symptom keyword");
+            }
+            this.term = lower.toString();
+            this.specialization = specialization;
+            this.weight = weight;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public Specialization getSpecialization() {
+            return specialization;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+}
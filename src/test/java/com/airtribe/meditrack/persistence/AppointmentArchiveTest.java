@@ -0,0 +1,151 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.delete;
+
+/**
+ * Archived appointments keep their patient and doctor by ID: they survive
+ * deletes, follow patient merges, and are found again after a reopen. Reads
+ * racing a rewrite of their segment never leave a stale decode cached.
+ */
+public class AppointmentArchiveTest {
+
+    private static final LocalDateTime FIRST_DAY = LocalDate.now().minusDays(30).atTime(10, 0);
+
+    public void testArchivedAppointmentsFollowMergesAndSurviveDeletes() throws IOException {
+        Path dir = Files.createTempDirectory("archive");
+        try {
+            DataStore<Patient> patientStore = new PackedIdDataStore<>("patients");
+            DataStore<Doctor> doctorStore = new PackedIdDataStore<>("doctors");
+            PatientService patients = new PatientService(patientStore);
+            DoctorService doctors = new DoctorService(doctorStore);
+            AppointmentService appointments = new AppointmentService(
+                    new PackedIdDataStore<>("appointments"), doctors, patients);
+            AppointmentArchive archive = new AppointmentArchive(dir, patientStore, doctorStore);
+            archive.open();
+            appointments.attachArchive(archive);
+
+            Patient survivor = patients.createPatientWithId("P1", "Asha Rao", 31, "9000000001");
+            Patient duplicate = patients.createPatientWithId("P2", "Asha Rao", 31, "9000000001");
+            Patient leaving = patients.createPatientWithId("P3", "Ravi Kumar", 40, "9000000003");
+            Doctor doctor = doctors.createDoctorWithId("D1", "Dr. Mehta", 50, "9000000009",
+                    Specialization.CARDIOLOGIST, 500);
+            appointments.createAppointmentWithId("A1", duplicate, doctor, FIRST_DAY, AppointmentStatus.COMPLETED);
+            appointments.createAppointmentWithId("A2", leaving, doctor, FIRST_DAY.plusHours(1),
+                    AppointmentStatus.COMPLETED);
+            appointments.createAppointmentWithId("A3", survivor, doctor, FIRST_DAY.plusDays(1),
+                    AppointmentStatus.CANCELLED);
+            check(appointments.archiveBefore(LocalDate.now()) == 3, "not all archived");
+
+            check(appointments.mergePatients("P1", "P2") == 1, "archived appointment not repointed");
+            check(patientOf(appointments, "A1").equals("P1"), "A1 still on " + patientOf(appointments, "A1"));
+            patients.deletePatient("P3");
+            Appointment orphan = appointments.getAppointmentById("A2").orElseThrow();
+            check(orphan.getPatient().getId().equals("P3") && orphan.getPatient().getName().equals("(deleted)"),
+                    "orphan resolved to " + orphan.getPatient());
+            check(appointments.getAppointmentsBetween(FIRST_DAY, FIRST_DAY.plusDays(2)).size() == 3,
+                    "range lost an archived appointment");
+
+            AppointmentArchive reopened = new AppointmentArchive(dir, patientStore, doctorStore);
+            check(reopened.open() == 3, "reopened size");
+            check(reopened.findById("A1").orElseThrow().getPatient().getId().equals("P1"), "repoint not on disk");
+            check(reopened.contains("A3") && !reopened.contains("A4"), "ID index");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testReadsDuringArchiveNeverCacheAReplacedSegment() throws Exception {
+        Path dir = Files.createTempDirectory("archive");
+        try {
+            DataStore<Patient> patientStore = new PackedIdDataStore<>("patients");
+            DataStore<Doctor> doctorStore = new PackedIdDataStore<>("doctors");
+            Patient patient = new Patient("P1", "Asha Rao", 31, "9000000001");
+            Doctor doctor = new Doctor("D1", "Dr. Mehta", 50, "9000000009", Specialization.CARDIOLOGIST, 500);
+            patientStore.save("P1", patient);
+            doctorStore.save("D1", doctor);
+            AppointmentArchive archive = new AppointmentArchive(dir, patientStore, doctorStore);
+            archive.open();
+            // More days than the decode cache holds: reading them in turn misses every time,
+            // so readers keep decoding the rewritten day while archive() replaces it.
+            int otherDays = Constants.ARCHIVE_CACHED_SEGMENTS + 1;
+            for (int d = 1; d <= otherDays; d++) {
+                archive.archive(FIRST_DAY.toLocalDate().minusDays(d), List.of(new Appointment("A" + (10_000 + d),
+                        patient, doctor, FIRST_DAY.minusDays(d), AppointmentStatus.COMPLETED)));
+            }
+            LocalDate day = FIRST_DAY.toLocalDate();
+            int rewrites = 200;
+
+            AtomicInteger archived = new AtomicInteger();
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(new Thread(() -> {
+                    try {
+                        while (!done.get()) {
+                            int latest = archived.get();
+                            if (latest > 0 && archive.findById("A" + latest).isEmpty()) {
+                                failure.compareAndSet(null, new AssertionError("A" + latest + " missing"));
+                            }
+                            for (int d = 1; d <= otherDays; d++) {
+                                archive.findById("A" + (10_000 + d));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+            readers.forEach(Thread::start);
+            try {
+                // Each call rewrites the day's segment with one more appointment.
+                for (int i = 1; i <= rewrites && failure.get() == null; i++) {
+                    archive.archive(day, List.of(new Appointment("A" + i, patient, doctor,
+                            FIRST_DAY.plusMinutes(i), AppointmentStatus.COMPLETED)));
+                    archived.set(i);
+                }
+            } finally {
+                done.set(true);
+                for (Thread reader : readers) {
+                    reader.join(10_000);
+                }
+            }
+            check(failure.get() == null, String.valueOf(failure.get()));
+            check(archive.size() == rewrites + otherDays, "size " + archive.size());
+            check(archive.range(day.atStartOfDay(), day.atTime(23, 59)).size() == rewrites, "range lost appointments");
+            for (int i = 1; i <= rewrites; i++) {
+                check(archive.findById("A" + i).isPresent(), "A" + i + " missing");
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static String patientOf(AppointmentService appointments, String id) {
+        return appointments.getAppointmentById(id).orElseThrow().getPatient().getId();
+    }
+}
@@ -0,0 +1,132 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Round trip and crash recovery of the per-patient history files. Plain
+ * test class: public {@code test*} methods, failures thrown as
+ * {@link AssertionError}.
+ */
+public class MedicalHistoryStoreTest {
+
+    public void testEntriesSurviveRestart() throws IOException {
+        Path dir = Files.createTempDirectory("history");
+        try {
+            String large = "x".repeat(70_000);
+            MedicalHistoryStore history = new MedicalHistoryStore(dir);
+            DataStore<Patient> patients = storeWith(history);
+            Patient patient = new Patient("P1", "Ann", 30, "555");
+            for (int i = 0; i < 150; i++) {
+                patient.addMedicalHistoryEntry("entry " + i);
+            }
+            patient.addMedicalHistoryEntry("Allergie: Pollen, Ärger über Ödeme");
+            patient.addMedicalHistoryEntry(large);
+            patients.save("P1", patient);
+            history.close();
+
+            Patient reopened = reopen(dir, "P1");
+            check(reopened.getMedicalHistorySize() == 152, "size " + reopened.getMedicalHistorySize());
+            check(reopened.getMedicalHistoryPage(64, 2).equals(List.of("entry 64", "entry 65")), "page at stride");
+            List<String> tail = reopened.getMedicalHistoryPage(150, 10);
+            check(tail.get(0).equals("Allergie: Pollen, Ärger über Ödeme"), "non-ASCII entry");
+            check(tail.get(1).equals(large), "entry over 64 KB");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testTornTailIsCutOffAndAppendsFollow() throws IOException {
+        Path dir = Files.createTempDirectory("history");
+        try {
+            MedicalHistoryStore history = new MedicalHistoryStore(dir);
+            DataStore<Patient> patients = storeWith(history);
+            Patient patient = new Patient("P1", "Ann", 30, "555");
+            patient.addMedicalHistoryEntry("first");
+            patient.addMedicalHistoryEntry("second");
+            patients.save("P1", patient);
+            history.close();
+
+            // A crash mid-append: a length header promising more bytes than were written.
+            Path file = dir.resolve("P1.hist");
+            long complete = Files.size(file);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND))) {
+                out.writeInt(100);
+                out.write(new byte[10]);
+            }
+
+            MedicalHistoryStore reopenedHistory = new MedicalHistoryStore(dir);
+            DataStore<Patient> reloaded = new PackedIdDataStore<>();
+            reloaded.save("P1", new Patient("P1", "Ann", 30, "555"));
+            reopenedHistory.attachAll(reloaded);
+            reloaded.addListener(reopenedHistory);
+            check(Files.size(file) == complete, "torn tail not truncated");
+            Patient restored = reloaded.findById("P1").orElseThrow();
+            check(restored.getMedicalHistorySize() == 2, "size " + restored.getMedicalHistorySize());
+            restored.addMedicalHistoryEntry("third");
+            reloaded.save("P1", restored);
+            reopenedHistory.close();
+
+            Patient again = reopen(dir, "P1");
+            check(again.getMedicalHistoryPage(0, 10).equals(List.of("first", "second", "third")),
+                    "entries " + again.getMedicalHistoryPage(0, 10));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testDeleteRemovesFile() throws IOException {
+        Path dir = Files.createTempDirectory("history");
+        try {
+            MedicalHistoryStore history = new MedicalHistoryStore(dir);
+            DataStore<Patient> patients = storeWith(history);
+            Patient patient = new Patient("P1", "Ann", 30, "555");
+            patient.addMedicalHistoryEntry("first");
+            patients.save("P1", patient);
+            history.flush();
+            check(Files.exists(dir.resolve("P1.hist")), "file not written");
+            patients.delete("P1");
+            history.close();
+            check(!Files.exists(dir.resolve("P1.hist")), "file not deleted");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static DataStore<Patient> storeWith(MedicalHistoryStore history) {
+        DataStore<Patient> patients = new PackedIdDataStore<>();
+        patients.addListener(history);
+        return patients;
+    }
+
+    private static Patient reopen(Path dir, String id) throws IOException {
+        DataStore<Patient> patients = new PackedIdDataStore<>();
+        patients.save(id, new Patient(id, "Ann", 30, "555"));
+        new MedicalHistoryStore(dir).attachAll(patients);
+        return patients.findById(id).orElseThrow();
+    }
+
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.airtribe.meditrack.persistence;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.delete;
+
+/**
+ * Journal round trip, checkpoint compaction and torn-tail recovery for
+ * {@link WriteAheadLog}.
+ */
+public class WriteAheadLogTest {
+
+    public void testRecoverReplaysSavesAndDeletes() throws IOException {
+        Path dir = Files.createTempDirectory("wal");
+        try {
+            journal(dir, patients -> {
+                for (int i = 1; i <= 100; i++) {
+                    patients.save("P" + i, new Patient("P" + i, "Patient " + i, 30, "555" + i));
+                }
+                patients.save("P7", new Patient("P7", "Renamed", 31, "5557"));
+                patients.delete("P9");
+            });
+
+            DataStore<Patient> recovered = recover(dir);
+            check(recovered.size() == 99, "size " + recovered.size());
+            check(recovered.findById("P7").orElseThrow().getName().equals("Renamed"), "latest save wins");
+            check(recovered.findById("P9").isEmpty(), "delete replayed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testCheckpointCompactsSealedSegments() throws IOException {
+        Path dir = Files.createTempDirectory("wal");
+        try {
+            journal(dir, patients -> {
+                for (int i = 1; i <= 50; i++) {
+                    patients.save("P" + i, new Patient("P" + i, "Patient " + i, 30, "555"));
+                }
+            }, log -> log.checkpoint(), patients -> patients.delete("P1"));
+
+            DataStore<Patient> recovered = recover(dir);
+            check(recovered.size() == 49, "size " + recovered.size());
+            check(Files.exists(dir.resolve("checkpoint.bin")), "no checkpoint written");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testTornAndOversizedTailsStopReplay() throws IOException {
+        Path dir = Files.createTempDirectory("wal");
+        try {
+            journal(dir, patients -> {
+                for (int i = 1; i <= 20; i++) {
+                    patients.save("P" + i, new Patient("P" + i, "Patient " + i, 30, "555"));
+                }
+            });
+            Path last = lastSegment(dir);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(last, StandardOpenOption.APPEND))) {
+                // A frame length far beyond any record, then a few stray bytes.
+                out.writeInt(0x7ffffff0);
+                out.writeInt(42);
+            }
+            check(recover(dir).size() == 20, "oversized frame");
+
+            // Drop the garbage so the next session's segment is reached, then tear that one.
+            Files.write(last, new byte[0]);
+            journal(dir, patients -> patients.save("P21", new Patient("P21", "Late", 30, "555")));
+            Path newest = lastSegment(dir);
+            byte[] bytes = Files.readAllBytes(newest);
+            // Cut the only record in half: a torn write.
+            Files.write(newest, Arrays.copyOf(bytes, bytes.length / 2));
+            check(recover(dir).findById("P21").isEmpty(), "torn record replayed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testEvictionIsNotJournaledAsDelete() throws IOException {
+        Path dir = Files.createTempDirectory("wal");
+        try {
+            journal(dir, patients -> {
+                Patient archived = new Patient("P1", "Archived", 30, "555");
+                patients.save("P1", archived);
+                patients.save("P2", new Patient("P2", "Deleted", 30, "555"));
+                patients.evict("P1", archived);
+                patients.delete("P2");
+            });
+
+            DataStore<Patient> recovered = recover(dir);
+            check(recovered.findById("P1").isPresent(), "evicted entity lost");
+            check(recovered.findById("P2").isEmpty(), "delete not replayed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private interface Step<X> {
+        void run(X target) throws IOException;
+    }
+
+    private static void journal(Path dir, Step<DataStore<Patient>> writes) throws IOException {
+        journal(dir, writes, log -> { }, patients -> { });
+    }
+
+    // Opens a log on dir, applies the steps through a journaled store, and closes it.
+    private static void journal(Path dir, Step<DataStore<Patient>> before, Step<WriteAheadLog<Patient>> middle,
+                                Step<DataStore<Patient>> after) throws IOException {
+        WriteAheadLog<Patient> log = newLog(dir);
+        DataStore<Patient> patients = new PackedIdDataStore<>();
+        log.recover(patients);
+        log.open();
+        patients.addListener(log);
+        before.run(patients);
+        log.commit();
+        middle.run(log);
+        after.run(patients);
+        log.close();
+    }
+
+    private static DataStore<Patient> recover(Path dir) throws IOException {
+        DataStore<Patient> patients = new PackedIdDataStore<>();
+        newLog(dir).recover(patients);
+        return patients;
+    }
+
+    private static WriteAheadLog<Patient> newLog(Path dir) {
+        return new WriteAheadLog<>("patients", dir, EntityCodecs.patients(), 5, 1 << 16);
+    }
+
+    private static Path lastSegment(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("segment-"))
+                    .sorted().collect(Collectors.toList());
+            return segments.get(segments.size() - 1);
+        }
+    }
+}
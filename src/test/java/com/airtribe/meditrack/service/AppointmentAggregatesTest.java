@@ -0,0 +1,132 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStats;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Snapshot consistency of {@link AppointmentAggregates} under concurrent
+ * updates, and reuse of the cached snapshot while nothing changes.
+ */
+public class AppointmentAggregatesTest {
+
+    private static final int WRITERS = 4;
+    private static final int PER_WRITER = 20_000;
+
+    private final Doctor cardiologist = new Doctor("D1", "Dr. Rao", 45, "555", Specialization.CARDIOLOGIST, 500);
+    private final Doctor dermatologist = new Doctor("D2", "Dr. Iyer", 50, "555", Specialization.DERMATOLOGIST, 400);
+    private final Patient patient = new Patient("P1", "Ann", 30, "555");
+    private final LocalDate day = LocalDate.now().plusDays(1);
+
+    public void testSnapshotsAreConsistentDuringConcurrentUpdates() throws InterruptedException {
+        AppointmentAggregates aggregates = new AppointmentAggregates();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            // Each update moves one appointment between counters; a torn snapshot would not add up.
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < PER_WRITER; i++) {
+                    String id = "A" + writer + "-" + i;
+                    Appointment appointment = new Appointment(id, patient, i % 2 == 0 ? cardiologist : dermatologist,
+                            day.plusDays(i % 5).atTime(10, 0), AppointmentStatus.CONFIRMED);
+                    aggregates.onSave(id, null, appointment);
+                    if (i % 2 == 0) {
+                        appointment.transitionTo(AppointmentStatus.CANCELLED);
+                        aggregates.onSave(id, appointment, appointment);
+                    }
+                    if (i % 3 == 0) {
+                        aggregates.onDelete(id, appointment);
+                    }
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                String problem = inconsistency(aggregates.snapshot());
+                if (problem != null) {
+                    failure.compareAndSet(null, problem);
+                }
+            }
+        });
+        reader.start();
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join(60_000);
+        }
+        done.set(true);
+        reader.join(5_000);
+        check(failure.get() == null, failure.get());
+
+        AppointmentStats stats = aggregates.snapshot();
+        check(inconsistency(stats) == null, inconsistency(stats));
+        // Each writer deletes every third of its appointments (i = 0, 3, ...).
+        long kept = WRITERS * (PER_WRITER - (PER_WRITER + 2) / 3L);
+        check(stats.getTotal() == kept, "total " + stats.getTotal());
+        check(aggregates.getTotal() == kept && aggregates.countForDay(day) == stats.getByDay().get(day),
+                "live counters disagree with the snapshot");
+        long cancelled = aggregates.countForStatus(AppointmentStatus.CANCELLED);
+        check(stats.getByStatus().get(AppointmentStatus.CANCELLED) == cancelled, "cancelled " + stats.getByStatus());
+    }
+
+    public void testSnapshotIsCachedUntilACountChanges() {
+        AppointmentAggregates aggregates = new AppointmentAggregates();
+        Appointment appointment = new Appointment("A1", patient, cardiologist, day.atTime(9, 0),
+                AppointmentStatus.CONFIRMED);
+        aggregates.onSave("A1", null, appointment);
+        AppointmentStats first = aggregates.snapshot();
+        check(aggregates.snapshot() == first, "unchanged counters recomputed");
+        // Saving without a counted change (same doctor, status and day) keeps the snapshot.
+        aggregates.onSave("A1", appointment, appointment);
+        check(aggregates.snapshot() == first, "no-op save invalidated the snapshot");
+
+        appointment.transitionTo(AppointmentStatus.COMPLETED);
+        aggregates.onSave("A1", appointment, appointment);
+        AppointmentStats second = aggregates.snapshot();
+        check(second != first, "stale snapshot after a status change");
+        check(second.getByStatus().get(AppointmentStatus.COMPLETED) == 1
+                && !second.getByStatus().containsKey(AppointmentStatus.CONFIRMED), "by status " + second.getByStatus());
+        check(first.getByStatus().get(AppointmentStatus.CONFIRMED) == 1, "earlier snapshot changed");
+
+        aggregates.onDelete("A1", appointment);
+        AppointmentStats empty = aggregates.snapshot();
+        check(empty.getTotal() == 0 && empty.getByDoctor().isEmpty() && empty.getByDay().isEmpty(),
+                "after delete " + empty);
+    }
+
+    // Every breakdown must add up to the total, or the snapshot mixed two states.
+    private static String inconsistency(AppointmentStats stats) {
+        long total = stats.getTotal();
+        long[] sums = {sum(stats.getByDoctor()), sum(stats.getByStatus()),
+                sum(stats.getBySpecialization()), sum(stats.getByDay())};
+        for (long sum : sums) {
+            if (sum != total) {
+                return "total " + total + " but breakdown sums to " + sum + ": " + stats;
+            }
+        }
+        return null;
+    }
+
+    private static long sum(Map<?, Long> counts) {
+        long sum = 0;
+        for (long count : counts.values()) {
+            sum += count;
+        }
+        return sum;
+    }
+}
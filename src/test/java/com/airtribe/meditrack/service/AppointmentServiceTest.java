@@ -0,0 +1,157 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.AppointmentAlreadyBilledException;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+import com.airtribe.meditrack.util.StoreListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Double-booking and double-billing under contention, and status changes
+ * whose save fails.
+ */
+public class AppointmentServiceTest {
+
+    private static final int THREADS = 16;
+
+    public void testConcurrentBookingsOfOneSlotAdmitOne() throws Exception {
+        DataStore<Appointment> store = new PackedIdDataStore<>("appointments");
+        Fixture fixture = new Fixture(store);
+        LocalDateTime slot = LocalDate.now().plusDays(7).atTime(10, 0);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> bookings = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Patient patient = fixture.patients.createPatientWithId("P" + (t + 1), "Patient " + t, 30, "555");
+                bookings.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        fixture.appointments.createAppointment(patient, fixture.doctor, slot);
+                        booked.incrementAndGet();
+                    } catch (AppointmentConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> booking : bookings) {
+                booking.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        check(booked.get() == 1, "booked " + booked.get());
+        check(conflicts.get() == THREADS - 1, "conflicts " + conflicts.get());
+        check(store.size() == 1, "stored " + store.size());
+    }
+
+    public void testConcurrentBillsOfOneAppointmentRecordOne() throws Exception {
+        Fixture fixture = new Fixture(new PackedIdDataStore<>("appointments"));
+        Patient patient = fixture.patients.createPatientWithId("P1", "Ann", 30, "555");
+        Appointment appointment = fixture.appointments.createAppointment(patient, fixture.doctor,
+                LocalDate.now().plusDays(7).atTime(12, 0));
+        AtomicInteger billed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> bills = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                bills.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        fixture.appointments.generateBill(appointment.getId());
+                        billed.incrementAndGet();
+                    } catch (AppointmentAlreadyBilledException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> bill : bills) {
+                bill.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        check(billed.get() == 1, "billed " + billed.get());
+        check(rejected.get() == THREADS - 1, "rejected " + rejected.get());
+        check(fixture.appointments.getBillLedger().size() == 1, "ledger " + fixture.appointments.getBillLedger().size());
+
+        try {
+            fixture.appointments.generateBill(appointment.getId());
+            throw new AssertionError("billed twice");
+        } catch (AppointmentAlreadyBilledException expected) {
+            // the recorded bill stays the only one
+        }
+        check(fixture.appointments.getBillLedger().size() == 1, "ledger after retry");
+    }
+
+    public void testFailedSaveRevertsStatus() {
+        DataStore<Appointment> store = new PackedIdDataStore<>("appointments");
+        Fixture fixture = new Fixture(store);
+        Patient patient = fixture.patients.createPatientWithId("P1", "Ann", 30, "555");
+        Appointment appointment = fixture.appointments.createAppointment(patient, fixture.doctor,
+                LocalDate.now().plusDays(7).atTime(11, 0));
+        store.addListener(new StoreListener<Appointment>() {
+            @Override
+            public void onSave(String id, Appointment previous, Appointment current) {
+                if (current.getStatus() == AppointmentStatus.CANCELLED) {
+                    throw new IllegalStateException("journal unavailable");
+                }
+            }
+
+            @Override
+            public void onDelete(String id, Appointment removed) {
+            }
+        });
+
+        try {
+            fixture.appointments.cancelAppointment(appointment.getId());
+            throw new AssertionError("cancel should have failed");
+        } catch (IllegalStateException expected) {
+            // the failing listener
+        }
+        check(appointment.getStatus() == AppointmentStatus.CONFIRMED, "status " + appointment.getStatus());
+        Long cancelled = fixture.appointments.getAppointmentStats().getByStatus().get(AppointmentStatus.CANCELLED);
+        check(cancelled == null, "counted as cancelled: " + cancelled);
+        check(fixture.appointments.findEarliestSlots(Specialization.CARDIOLOGIST, appointment.getDateTime(), 1).stream()
+                .noneMatch(s -> s.getStart().equals(appointment.getDateTime())), "slot freed");
+    }
+
+    private static final class Fixture {
+
+        final PatientService patients = new PatientService(new PackedIdDataStore<>("patients"));
+        final DoctorService doctors = new DoctorService(new PackedIdDataStore<>("doctors"));
+        final AppointmentService appointments;
+        final Doctor doctor;
+
+        Fixture(DataStore<Appointment> store) {
+            appointments = new AppointmentService(store, doctors, patients);
+            doctor = doctors.createDoctorWithId("D1", "Dr. Rao", 45, "555", Specialization.CARDIOLOGIST, 500);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AvailableSlot;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.PackedIdDataStore;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Free start times from the bitset calendar: 30-minute appointments in
+ * fifteen-minute slots, 09:00-17:00, where 16:00 is slot 64 (the second word).
+ */
+public class AvailabilityEngineTest {
+
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private final PatientService patients = new PatientService(new PackedIdDataStore<>("patients"));
+    private final DoctorService doctors = new DoctorService(new PackedIdDataStore<>("doctors"));
+    private final AppointmentService appointments =
+            new AppointmentService(new PackedIdDataStore<>("appointments"), doctors, patients);
+    private final Doctor doctor = doctors.createDoctorWithId("D1", "Dr. Rao", 45, "555", Specialization.CARDIOLOGIST, 500);
+    private final Patient patient = patients.createPatientWithId("P1", "Ann", 30, "555");
+
+    public void testBookingAcrossTheWordBoundaryBlocksEveryOverlappingStart() {
+        // Slots 62-63; starts at 15:15 (61-62) and 15:45 (63-64) overlap it too.
+        Appointment booked = appointments.createAppointment(patient, doctor, day.atTime(15, 30));
+        // 16:30 is the last start that ends by closing time; the search then moves to the next day.
+        check(starts(day.atTime(15, 0), 5).equals(List.of(
+                day.atTime(15, 0), day.atTime(16, 0), day.atTime(16, 15), day.atTime(16, 30),
+                day.plusDays(1).atTime(9, 0))), "starts " + starts(day.atTime(15, 0), 5));
+
+        appointments.cancelAppointment(booked.getId());
+        check(starts(day.atTime(15, 0), 4).equals(List.of(
+                day.atTime(15, 0), day.atTime(15, 15), day.atTime(15, 30), day.atTime(15, 45))),
+                "after cancel " + starts(day.atTime(15, 0), 4));
+    }
+
+    public void testUnalignedBookingOccupiesEverySlotItTouches() {
+        // 10:05-10:35 touches the 10:00, 10:15 and 10:30 slots.
+        appointments.createAppointment(patient, doctor, day.atTime(10, 5));
+        check(starts(day.atTime(9, 30), 3).equals(List.of(
+                day.atTime(9, 30), day.atTime(10, 45), day.atTime(11, 0))), "starts " + starts(day.atTime(9, 30), 3));
+    }
+
+    public void testSearchStartRoundsUpAndSkipsClosedHours() {
+        check(starts(day.atTime(9, 1), 1).equals(List.of(day.atTime(9, 15))), "rounded " + starts(day.atTime(9, 1), 1));
+        check(starts(day.atTime(6, 0), 1).equals(List.of(day.atTime(9, 0))), "before opening");
+        check(starts(day.atTime(16, 31), 1).equals(List.of(day.plusDays(1).atTime(9, 0))), "after last start");
+        check(starts(day.atTime(9, 0), 0).isEmpty(), "limit 0");
+    }
+
+    public void testDoctorsAreMergedByStartTime() {
+        Doctor other = doctors.createDoctorWithId("D2", "Dr. Iyer", 50, "555", Specialization.CARDIOLOGIST, 400);
+        appointments.createAppointment(patient, doctor, day.atTime(9, 0));
+        List<AvailableSlot> slots = appointments.findEarliestSlots(Specialization.CARDIOLOGIST, day.atStartOfDay(), 3);
+        check(slots.get(0).getDoctor() == other && slots.get(0).getStart().equals(day.atTime(9, 0)), "first " + slots);
+        check(slots.get(1).getDoctor() == other && slots.get(1).getStart().equals(day.atTime(9, 15)), "second " + slots);
+        // Ties go to the lower doctor ID.
+        check(slots.get(2).getDoctor() == doctor && slots.get(2).getStart().equals(day.atTime(9, 30)), "third " + slots);
+        check(appointments.findEarliestSlots(Specialization.DERMATOLOGIST, day.atStartOfDay(), 3).isEmpty(),
+                "no dermatologists");
+    }
+
+    private List<LocalDateTime> starts(LocalDateTime after, int limit) {
+        return appointments.findEarliestSlots(Specialization.CARDIOLOGIST, after, limit).stream()
+                .map(AvailableSlot::getStart)
+                .collect(Collectors.toList());
+    }
+}
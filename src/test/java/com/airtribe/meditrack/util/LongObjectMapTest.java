@@ -0,0 +1,154 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Tombstones, rehash compaction, re-entrant reads and concurrent reads and
+ * iteration of {@link LongObjectMap}.
+ */
+public class LongObjectMapTest {
+
+    private static final long STABLE_KEYS = 2_000;
+    private static final long CHURN_BASE = 1_000_000;
+
+    public void testRemovedKeysCanBeReinserted() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        for (long key = 1; key <= 1_000; key += 2) {
+            check(map.remove(key) == key, "remove " + key);
+        }
+        check(map.size() == 500, "size after removes " + map.size());
+        check(map.get(1) == null && map.remove(1) == null, "removed key still mapped");
+        // A tombstoned key takes its old slot again; neighbours on its probe path stay reachable.
+        for (long key = 1; key <= 1_000; key += 2) {
+            check(map.put(key, -key) == null, "reinsert " + key);
+        }
+        check(map.size() == 1_000, "size after reinserts " + map.size());
+        for (long key = 1; key <= 1_000; key++) {
+            check(map.get(key) == (key % 2 == 1 ? -key : key), "value of " + key);
+        }
+        check(map.compute(7, old -> old * 10) == -70 && map.get(7) == -70, "compute replaces");
+        check(map.compute(8, old -> null) == null && !map.containsKey(8), "compute removes");
+        try {
+            map.put(0, 0L);
+            throw new AssertionError("key 0 accepted");
+        } catch (IllegalArgumentException expected) {
+            // reserved as the empty-slot marker
+        }
+    }
+
+    public void testChurnIsCompactedByRehash() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 10; key++) {
+            map.put(key, key);
+        }
+        // Every insert of a fresh key leaves a tombstone behind; without compaction the
+        // tables would fill with them and probing would fail.
+        for (long key = CHURN_BASE; key < CHURN_BASE + 200_000; key++) {
+            map.put(key, key);
+            map.remove(key);
+        }
+        check(map.size() == 10, "size " + map.size());
+        List<Long> values = new ArrayList<>(map.values());
+        check(values.size() == 10 && new HashSet<>(values).size() == 10, "values " + values);
+        for (long key = 1; key <= 10; key++) {
+            check(map.get(key) == key, "lost " + key);
+        }
+        check(map.get(CHURN_BASE + 1) == null, "churned key still mapped");
+    }
+
+    public void testGetInsideComputeDoesNotDeadlock() throws InterruptedException {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 256; key++) {
+            map.put(key, key);
+        }
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> map.compute(1, old -> {
+            // 256 keys over 16 segments: some share key 1's segment and its held write lock.
+            for (long key = 1; key <= 256; key++) {
+                Long value = map.get(key);
+                if (value == null || value != key) {
+                    failure.set("get(" + key + ") = " + value);
+                }
+            }
+            return old + 1_000;
+        }));
+        thread.setDaemon(true);
+        thread.start();
+        thread.join(5_000);
+        check(!thread.isAlive(), "get from inside compute blocked on the segment lock");
+        check(failure.get() == null, failure.get());
+        check(map.get(1) == 1_001, "compute result " + map.get(1));
+    }
+
+    public void testReadersAndIteratorsDuringConcurrentWrites() throws InterruptedException {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= STABLE_KEYS; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            long base = CHURN_BASE * (w + 2);
+            // Writers grow the tables (rehash) and leave tombstones behind.
+            threads.add(new Thread(() -> {
+                for (long key = base; !stop.get() && key < base + 300_000; key++) {
+                    map.put(key, key);
+                    if (key % 3 != 0) {
+                        map.remove(key);
+                    }
+                }
+            }));
+        }
+        // Optimistic reads that race a write must retry, never return another key's value.
+        threads.add(new Thread(() -> {
+            long key = 1;
+            while (!stop.get()) {
+                Long value = map.get(key);
+                if (value == null || value != key) {
+                    failure.compareAndSet(null, "get(" + key + ") = " + value);
+                }
+                key = key % STABLE_KEYS + 1;
+            }
+        }));
+        // Weakly consistent iteration: every stable key exactly once, whatever else changes.
+        threads.add(new Thread(() -> {
+            while (!stop.get()) {
+                Set<Long> seen = new HashSet<>();
+                long stable = 0;
+                for (long key : map.keys(k -> k)) {
+                    if (!seen.add(key)) {
+                        failure.compareAndSet(null, "key " + key + " iterated twice");
+                    }
+                    if (key <= STABLE_KEYS) {
+                        stable++;
+                    }
+                }
+                if (stable != STABLE_KEYS) {
+                    failure.compareAndSet(null, "iteration saw " + stable + " stable keys");
+                }
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        threads.get(0).join(30_000);
+        threads.get(1).join(30_000);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+        check(failure.get() == null, failure.get());
+        check(map.size() == STABLE_KEYS + 2 * 100_000, "size " + map.size());
+    }
+}
@@ -0,0 +1,105 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Prefix completion, typo-tolerant search and index cleanup on delete and
+ * rename for {@link NameSearchIndex}. Entities here are just their names.
+ */
+public class NameSearchIndexTest {
+
+    private final DataStore<String> store = new DataStore<>("people");
+    private final NameSearchIndex<String> index = store.addNameSearchIndex("people.name", name -> name);
+
+    public NameSearchIndexTest() {
+        String[] names = {"John Smith", "Joan Smythe", "Jo Park", "Johnny Cash", "Mary McDonald", "Alexandra Stone"};
+        for (int i = 0; i < names.length; i++) {
+            store.save("P" + (i + 1), names[i]);
+        }
+    }
+
+    public void testCompleteTreatsTheLastTokenAsAPrefix() {
+        // Shorter completions first: "jo", then "joan" and "john", then "johnny".
+        check(index.complete("jo", 10).equals(List.of("Jo Park", "Joan Smythe", "John Smith", "Johnny Cash")),
+                "jo " + index.complete("jo", 10));
+        check(index.complete("  JOHN  ", 10).equals(List.of("John Smith", "Johnny Cash")), "case and blanks");
+        // Earlier tokens must match exactly.
+        check(index.complete("john sm", 10).equals(List.of("John Smith")), "john sm " + index.complete("john sm", 10));
+        check(index.complete("jon sm", 10).isEmpty(), "misspelled leading token completed");
+        check(index.complete("jo", 2).size() == 2, "limit");
+        check(index.complete("x", 10).isEmpty() && index.complete(" ", 10).isEmpty(), "no match");
+    }
+
+    public void testSearchToleratesTranspositionsAndSubstitutions() {
+        // Short tokens: single-edit variants ("jhon" swaps two letters, "smyth" substitutes one).
+        check(first("jhon smith").equals("John Smith"), "jhon smith " + index.search("jhon smith", 3));
+        check(first("john smyth").equals("John Smith"), "john smyth " + index.search("john smyth", 3));
+        // Longer tokens go through the trigram index and allow two edits.
+        check(first("mcdoanld").equals("Mary McDonald"), "mcdoanld " + index.search("mcdoanld", 3));
+        check(first("alexendra stome").equals("Alexandra Stone"), "alexendra " + index.search("alexendra stome", 3));
+        // An exact spelling outranks a near miss.
+        check(first("smythe").equals("Joan Smythe"), "smythe " + index.search("smythe", 3));
+        check(index.search("qqqqqqq", 3).isEmpty(), "nothing similar");
+    }
+
+    public void testDeletedAndRenamedNamesLeaveTheIndex() {
+        check(store.delete("P5"), "delete");
+        check(index.search("mcdoanld", 3).isEmpty(), "deleted name still found by typo");
+        check(index.complete("mcd", 3).isEmpty(), "deleted name still completed");
+        check(index.find("Mary McDonald").isEmpty(), "deleted name still found exactly");
+
+        store.save("P6", "Alexandra Moss");
+        check(index.search("stone", 3).isEmpty(), "old name still found after rename");
+        check(first("alexandra moss").equals("Alexandra Moss"), "renamed " + index.search("alexandra moss", 3));
+
+        store.save("P5", "Mary McDonald");
+        check(first("mcdoanld").equals("Mary McDonald"), "re-added " + index.search("mcdoanld", 3));
+    }
+
+    public void testTokensSharingTrigramsSurviveConcurrentDeletes() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2_000; i++) {
+                        // Every token starts "$ze" / "zel"; one thread's delete can empty those gram sets
+                        // while another thread adds to them.
+                        String id = "D" + (thread * 10_000 + i);
+                        store.save(id, "zelinsk" + (char) ('a' + thread) + i);
+                        if (i % 2 == 1) {
+                            store.delete(id);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60_000);
+        }
+        check(failure.get() == null, String.valueOf(failure.get()));
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 2_000; i += 50) {
+                String name = "zelinsk" + (char) ('a' + t) + i;
+                // A substitution in the first letter must still be found through the remaining trigrams.
+                String typo = "x" + name.substring(1);
+                check(index.search(typo, 1).equals(List.of(name)), "lost " + name + ": " + index.search(typo, 1));
+            }
+        }
+    }
+
+    private String first(String query) {
+        List<String> results = index.search(query, 3);
+        return results.isEmpty() ? "" : results.get(0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.InvalidDataException;
+
+import static com.airtribe.meditrack.persistence.MedicalHistoryStoreTest.check;
+
+/**
+ * Text and packed lookups of {@link PackedIdDataStore} and its handling of
+ * IDs that do not parse.
+ */
+public class PackedIdDataStoreTest {
+
+    public void testTextAndPackedLookupsAgree() {
+        PackedIdDataStore<String> store = new PackedIdDataStore<>("names");
+        store.save("P7", "Ann");
+        store.save("D7", "Dr. Rao");
+        long patient = EntityId.pack(EntityId.Kind.PATIENT, 7);
+        check("Ann".equals(store.findById(patient).orElse(null)), "packed lookup");
+        check("Ann".equals(store.findById(" p7 ").orElse(null)), "text lookup ignores case and blanks");
+        check("Dr. Rao".equals(store.findById("D7").orElse(null)), "same sequence, other kind");
+        check(store.contains(patient) && store.size() == 2, "size " + store.size());
+
+        check(store.delete("P7") && !store.contains(patient), "delete");
+        check(store.findById("P7").isEmpty(), "deleted ID still found");
+        store.save("P7", "Bea");
+        check("Bea".equals(store.findById(patient).orElse(null)), "re-saved under a removed ID");
+        check(store.size() == 2 && store.findAll().size() == 2, "findAll " + store.findAll());
+    }
+
+    public void testUnparsableIdsAreNotStored() {
+        PackedIdDataStore<String> store = new PackedIdDataStore<>("names");
+        for (String id : new String[] {"", "P", "7", "X7", "P7x", null}) {
+            try {
+                store.save(id, "junk");
+                throw new AssertionError("saved under " + id);
+            } catch (InvalidDataException expected) {
+                // refused by checkId
+            }
+            check(store.findById(id).isEmpty(), "found " + id);
+            check(!store.delete(id), "deleted " + id);
+        }
+        check(store.size() == 0, "size " + store.size());
+        check(store.findById(EntityId.NONE).isEmpty(), "NONE found");
+    }
+}